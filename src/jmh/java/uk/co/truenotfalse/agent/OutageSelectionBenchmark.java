@@ -0,0 +1,104 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.truenotfalse.benchmarks.SyntheticOutages;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageIntervalIndex;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks the cutoff filtering and device name enrichment of outages for a site with a tenth of the devices of the
+ * feed, separately and, for tables, together both in one pass and in parallel chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OutageSelectionBenchmark {
+    @Setup
+    public void setup() {
+        outages = SyntheticOutages.outages(size);
+        table = OutageTable.of(outages);
+        index = new OutageIntervalIndex(outages);
+        siteInfo = SyntheticOutages.siteInfo(size, 0.1);
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> filterList() {
+        return outages.stream().filter(outage -> !outage.getBegin().isBefore(SyntheticOutages.MIDPOINT)).toList();
+    }
+
+
+    @Benchmark
+    public OutageTable filterTable() {
+        return table.beginningFrom(SyntheticOutages.MIDPOINT);
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> filterIndex() {
+        return index.beginningFrom(SyntheticOutages.MIDPOINT);
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> enrichList() {
+        return OutageAgentService.attachDeviceNames(outages, siteInfo);
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> enrichTable() {
+        return table.withDeviceNames(siteInfo).toDeviceOutages();
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> enrichIndex() {
+        return OutageAgentService.attachDeviceNames(index.forDevices(siteInfo.keySet()), siteInfo);
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> selectTable() {
+        return sequentialSelector.select(table, SyntheticOutages.MIDPOINT, siteInfo).toList().blockingGet();
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> selectTableParallel() {
+        return parallelSelector.select(table, SyntheticOutages.MIDPOINT, siteInfo).toList().blockingGet();
+    }
+
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<DeviceOutage> outages;
+    private OutageTable table;
+    private OutageIntervalIndex index;
+    private Map<Object, String> siteInfo;
+    private final ParallelOutageSelector sequentialSelector =
+            new ParallelOutageSelector(Schedulers.computation(), Integer.MAX_VALUE, 1, MetricsRegistry.noop());
+    private final ParallelOutageSelector parallelSelector = new ParallelOutageSelector(MetricsRegistry.noop());
+}
@@ -0,0 +1,118 @@
+package uk.co.truenotfalse.benchmarks;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import uk.co.truenotfalse.dao.impl.InterviewTestsMockApiDaoImpl;
+import uk.co.truenotfalse.model.DeviceOutage;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+
+/**
+ * Generates reproducible synthetic outage feeds resembling those of the interview tests mock API.
+ */
+public final class SyntheticOutages {
+    private SyntheticOutages() {
+    }
+
+
+    /**
+     * The number of devices the outages of a feed of the given size are spread over.
+     */
+    public static int deviceCount(final int size) {
+        return Math.max(1, size / OUTAGES_PER_DEVICE);
+    }
+
+
+    /**
+     * Generates the IDs of the devices of a feed.
+     */
+    public static List<String> deviceIds(final int size) {
+        final Random random = new Random(SEED);
+        final List<String> deviceIds = new ArrayList<>();
+
+        for (int i = 0; i < deviceCount(size); i++) {
+            deviceIds.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+
+        return deviceIds;
+    }
+
+
+    /**
+     * Generates a feed of outages, beginning at random over two years and lasting up to a day.
+     *
+     * @param size The number of outages in the feed.
+     */
+    public static List<DeviceOutage> outages(final int size) {
+        final Random random = new Random(SEED);
+        final List<String> deviceIds = deviceIds(size);
+        final List<DeviceOutage> outages = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final OffsetDateTime begin = EPOCH.plusSeconds(random.nextInt(FEED_PERIOD_SECONDS)).
+                    plusNanos(random.nextInt(1000) * 1_000_000L);
+
+            outages.add(new DeviceOutage(deviceIds.get(random.nextInt(deviceIds.size())), begin,
+                    begin.plusSeconds(1L + random.nextInt(DAY_SECONDS))));
+        }
+
+        return outages;
+    }
+
+
+    /**
+     * Generates a feed of outages as the API would send it.
+     *
+     * @param size The number of outages in the feed.
+     */
+    public static JsonArray outagesJson(final int size) {
+        final JsonArray json = new JsonArray();
+
+        for (final DeviceOutage outage : outages(size)) {
+            json.add(new JsonObject().put("id", outage.getId()).
+                    put("begin", InterviewTestsMockApiDaoImpl.ISO_OFFSET_DATE_TIME.format(outage.getBegin())).
+                    put("end", InterviewTestsMockApiDaoImpl.ISO_OFFSET_DATE_TIME.format(outage.getEnd())));
+        }
+
+        return json;
+    }
+
+
+    /**
+     * Generates the info of a site with a share of the devices of a feed.
+     *
+     * @param size     The number of outages in the feed.
+     * @param fraction The fraction of the feed's devices belonging to the site.
+     * @return Device names mapped to device IDs.
+     */
+    public static Map<Object, String> siteInfo(final int size, final double fraction) {
+        final List<String> deviceIds = deviceIds(size);
+        final Map<Object, String> info = new HashMap<>();
+
+        for (int i = 0; i < Math.max(1, (int) (deviceIds.size() * fraction)); i++) {
+            info.put(deviceIds.get(i), "Device " + i);
+        }
+
+        return info;
+    }
+
+
+    /**
+     * The midpoint of the period outages begin in, a cutoff here excludes about half of a feed.
+     */
+    public static final OffsetDateTime MIDPOINT = OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final long SEED = 20220601L;
+    private static final int OUTAGES_PER_DEVICE = 100;
+    private static final int DAY_SECONDS = 86_400;
+    private static final int FEED_PERIOD_SECONDS = 731 * DAY_SECONDS;
+    private static final OffsetDateTime EPOCH = OffsetDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+}
@@ -0,0 +1,130 @@
+package uk.co.truenotfalse.cli;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Benchmarks the time from launching the uber-jar for a single site update, as from cron, to the stubbed API receiving
+ * its first request.  Each invocation starts a JVM of its own, with the default options, with the AppCDS archive
+ * produced by the appcds profile, and with the archive and only the C1 compiler.  The jar and archive are given by the
+ * {@code benchmark.jar} and {@code benchmark.appcds.archive} system properties, as set by the benchmarks profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+    @Setup
+    public void setup() throws IOException {
+        final Path jar = Path.of(System.getProperty("benchmark.jar", "target/kf-backend-test-1.0-SNAPSHOT.jar"));
+        final Path archive = Path.of(System.getProperty("benchmark.appcds.archive",
+                "target/kf-backend-test-1.0-SNAPSHOT.jsa"));
+
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("The uber-jar " + jar + " has not been built.");
+        }
+
+        final List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin",
+                "java").toString()));
+
+        if (!"default".equals(launch)) {
+            if (!Files.isRegularFile(archive)) {
+                throw new IllegalStateException("The AppCDS archive " + archive + " has not been built, build with " +
+                        "the appcds profile.");
+            }
+
+            command.add("-XX:SharedArchiveFile=" + archive);
+
+            if ("appcds-c1".equals(launch)) {
+                command.add("-XX:TieredStopAtLevel=1");
+            }
+        }
+
+        stubApi = StartupTraining.startStubApi(() -> firstRequest.countDown());
+        // The agent logs to a file in its working directory.
+        workingDir = Files.createTempDirectory("startup-benchmark");
+        command.addAll(List.of("-jar", jar.toString(), "--apiKey", StartupTraining.API_KEY, "--baseUri",
+                StartupTraining.baseUri(stubApi), "--siteId", StartupTraining.SITE_ID));
+        agent = new ProcessBuilder(command).directory(workingDir.toFile()).
+                redirectOutput(ProcessBuilder.Redirect.DISCARD).redirectError(ProcessBuilder.Redirect.DISCARD);
+    }
+
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stubApi.stop(0);
+
+        try (final Stream<Path> files = Files.list(workingDir)) {
+            for (final Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(workingDir);
+    }
+
+
+    @Setup(Level.Invocation)
+    public void launchSetup() {
+        firstRequest = new CountDownLatch(1);
+    }
+
+
+    /**
+     * Waits for the launched update to finish, so that it does not overlap the next launch.
+     */
+    @TearDown(Level.Invocation)
+    public void launchTearDown() throws InterruptedException {
+        if (!process.waitFor(LAUNCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+            throw new IllegalStateException("The update did not finish.");
+        } else if (process.exitValue() != OutageAgent.SUCCESS_STATUS) {
+            throw new IllegalStateException("The update failed with the exit status " + process.exitValue() + '.');
+        }
+    }
+
+
+    @Benchmark
+    public void timeToFirstRequest() throws IOException, InterruptedException {
+        process = agent.start();
+
+        if (!firstRequest.await(LAUNCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("No request was received from the update.");
+        }
+    }
+
+
+    @Param({"default", "appcds", "appcds-c1"})
+    public String launch;
+
+    private static final long LAUNCH_TIMEOUT_SECONDS = 30L;
+
+    private HttpServer stubApi;
+    private Path workingDir;
+    private ProcessBuilder agent;
+    private volatile CountDownLatch firstRequest;
+    private Process process;
+}
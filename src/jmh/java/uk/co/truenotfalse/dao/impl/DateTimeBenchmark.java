@@ -0,0 +1,109 @@
+package uk.co.truenotfalse.dao.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.truenotfalse.benchmarks.SyntheticOutages;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.util.OffsetDateTimeCodec;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks parsing and formatting the date-times of outages, with the fixed format codec compared to formatters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeBenchmark {
+    @Setup
+    public void setup() {
+        final List<DeviceOutage> outages = SyntheticOutages.outages(SAMPLE_SIZE);
+
+        dateTimes = outages.stream().map(DeviceOutage::getBegin).toArray(OffsetDateTime[]::new);
+        formatted = Arrays.stream(dateTimes).map(InterviewTestsMockApiDaoImpl.ISO_OFFSET_DATE_TIME::format).
+                toArray(String[]::new);
+    }
+
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        for (final String dateTime : formatted) {
+            blackhole.consume(OffsetDateTime.parse(dateTime, InterviewTestsMockApiDaoImpl.ISO_OFFSET_DATE_TIME));
+        }
+    }
+
+
+    @Benchmark
+    public void parseJdkFormatter(final Blackhole blackhole) {
+        for (final String dateTime : formatted) {
+            blackhole.consume(OffsetDateTime.parse(dateTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        }
+    }
+
+
+    @Benchmark
+    public void parseCodec(final Blackhole blackhole) {
+        for (final String dateTime : formatted) {
+            blackhole.consume(OffsetDateTimeCodec.parse(dateTime));
+        }
+    }
+
+
+    @Benchmark
+    public void parseCodecEpochMillis(final Blackhole blackhole) {
+        for (final String dateTime : formatted) {
+            blackhole.consume(OffsetDateTimeCodec.parseEpochMillis(dateTime));
+            blackhole.consume(OffsetDateTimeCodec.parseOffsetSeconds(dateTime));
+        }
+    }
+
+
+    @Benchmark
+    public void format(final Blackhole blackhole) {
+        for (final OffsetDateTime dateTime : dateTimes) {
+            blackhole.consume(InterviewTestsMockApiDaoImpl.ISO_OFFSET_DATE_TIME.format(dateTime));
+        }
+    }
+
+
+    @Benchmark
+    public void formatCodec(final Blackhole blackhole) {
+        for (final OffsetDateTime dateTime : dateTimes) {
+            blackhole.consume(OffsetDateTimeCodec.format(dateTime));
+        }
+    }
+
+
+    @Benchmark
+    public void formatCodecReusedBuffer(final Blackhole blackhole) {
+        for (final OffsetDateTime dateTime : dateTimes) {
+            buffer.setLength(0);
+            OffsetDateTimeCodec.formatTo(dateTime, buffer);
+            blackhole.consume(buffer);
+        }
+    }
+
+
+    private static final int SAMPLE_SIZE = 1000;
+
+    private OffsetDateTime[] dateTimes;
+    private String[] formatted;
+    private final StringBuilder buffer = new StringBuilder(32);
+}
@@ -0,0 +1,87 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.truenotfalse.benchmarks.SyntheticOutages;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+import uk.co.truenotfalse.util.OffsetDateTimeCodec;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks decoding the outages response and encoding the site outages request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OutageMappingBenchmark {
+    @Setup
+    public void setup() {
+        responseBody = SyntheticOutages.outagesJson(size).toBuffer();
+        namedOutages = OutageTable.of(SyntheticOutages.outages(size)).withDeviceNames(SyntheticOutages.siteInfo(size, 1.0)).
+                toDeviceOutages();
+    }
+
+
+    @Benchmark
+    public List<DeviceOutage> decodeOutages() {
+        return InterviewTestsMockApiDaoImpl.mapOutagesResponse(new JsonArray(responseBody));
+    }
+
+
+    @Benchmark
+    public OutageTable decodeOutageTable() {
+        final OutageTable.Builder table = new OutageTable.Builder(size);
+
+        for (final Object outage : new JsonArray(responseBody)) {
+            InterviewTestsMockApiDaoImpl.addOutage(table, (JsonObject) outage);
+        }
+
+        return table.build();
+    }
+
+
+    @Benchmark
+    public Buffer encodeSiteOutagesRequest() {
+        return SiteOutagesJsonWriter.write(namedOutages);
+    }
+
+
+    /**
+     * Encodes the request by way of a JSON tree, as it once was, for comparison.
+     */
+    @Benchmark
+    public Buffer encodeSiteOutagesRequestTree() {
+        return new JsonArray(namedOutages.stream().
+                map(outage -> new JsonObject().put("id", outage.getId().toString()).
+                        put("name", outage.getDeviceName()).
+                        put("begin", OffsetDateTimeCodec.format(outage.getBegin())).
+                        put("end", outage.getEnd() != null ? OffsetDateTimeCodec.format(outage.getEnd()) : null)).
+                toList()).toBuffer();
+    }
+
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Buffer responseBody;
+    private List<DeviceOutage> namedOutages;
+}
@@ -0,0 +1,123 @@
+package uk.co.truenotfalse.agent;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.ext.web.client.WebClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.truenotfalse.benchmarks.SyntheticOutages;
+import uk.co.truenotfalse.dao.impl.HttpClientInterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.impl.InterviewTestsMockApiDaoImpl;
+import uk.co.truenotfalse.dao.impl.InterviewTestsMockApiDaoOptions;
+import uk.co.truenotfalse.model.DeviceOutage;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+
+/**
+ * Benchmarks a batch update of many sites, from fetching the feed to posting each site's outages, with the Vert.x
+ * implementation and with the {@link HttpClient} and virtual thread implementation, both against the same WireMock
+ * stubs.  Conditional requests are disabled, and nothing is recorded as posted, so that every update makes every
+ * request in full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FanOutBenchmark {
+    @Setup
+    public void setup() {
+        server = new WireMockServer(wireMockConfig().dynamicPort().containerThreads(CONCURRENCY * 4).
+                disableRequestJournal());
+        server.start();
+
+        final JsonArray devices = new JsonArray();
+
+        SyntheticOutages.siteInfo(size, 0.1).forEach((id, name) -> devices.add(new JsonObject().put("id", id).
+                put("name", name)));
+        server.stubFor(get(urlEqualTo(BASE_PATH + "/outages")).
+                willReturn(okJson(SyntheticOutages.outagesJson(size).encode())));
+        server.stubFor(get(urlPathMatching(BASE_PATH + "/site-info/.+")).
+                willReturn(okJson(new JsonObject().put("devices", devices).encode())));
+        server.stubFor(post(urlPathMatching(BASE_PATH + "/site-outages/.+")).willReturn(ok()));
+
+        final String baseUri = server.baseUrl() + BASE_PATH;
+        final PostedOutagesStore forgetful = new PostedOutagesStore() {
+            @Override
+            public Map<DeviceOutage, String> get(final String siteId) {
+                return null;
+            }
+
+            @Override
+            public void put(final String siteId, final Map<DeviceOutage, String> posted) {
+            }
+        };
+
+        vertx = Vertx.vertx();
+        vertxAgent = new OutageAgentService(new InterviewTestsMockApiDaoImpl(API_KEY, baseUri,
+                WebClient.create(vertx, new WebClientOptions().setMaxPoolSize(CONCURRENCY)),
+                new InterviewTestsMockApiDaoOptions().setConditionalRequests(false)), forgetful);
+        virtualThreadAgent = new BlockingOutageAgentService(new HttpClientInterviewTestsMockApiDao(API_KEY, baseUri,
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                new InterviewTestsMockApiDaoOptions().setConditionalRequests(false)), forgetful);
+        siteIds = IntStream.range(0, sites).mapToObj(site -> "site-" + site).toList();
+    }
+
+
+    @TearDown
+    public void tearDown() {
+        vertx.rxClose().blockingAwait();
+        server.stop();
+    }
+
+
+    @Benchmark
+    public void vertx() {
+        vertxAgent.updateOutages(siteIds, SyntheticOutages.MIDPOINT, CONCURRENCY).blockingAwait();
+    }
+
+
+    @Benchmark
+    public void virtualThreads() {
+        virtualThreadAgent.updateOutages(siteIds, SyntheticOutages.MIDPOINT, CONCURRENCY);
+    }
+
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int sites;
+
+    private static final String API_KEY = "mock_api_key";
+    private static final String BASE_PATH = "/interview-tests-mock-api/v1";
+    private static final int CONCURRENCY = 16;
+
+    private WireMockServer server;
+    private Vertx vertx;
+    private OutageAgentService vertxAgent;
+    private BlockingOutageAgentService virtualThreadAgent;
+    private List<String> siteIds;
+}
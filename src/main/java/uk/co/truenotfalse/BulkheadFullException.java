@@ -0,0 +1,33 @@
+package uk.co.truenotfalse;
+
+/**
+ * Exception to indicate that a call was refused because too many calls were already in flight or waiting.
+ */
+public class BulkheadFullException extends RuntimeException {
+    /**
+     * Constructs a new runtime exception with the specified detail message.
+     * <p>
+     * The cause is not initialized, and may subsequently be initialized by a call to {@link #initCause}.
+     *
+     * @param message The detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     */
+    public BulkheadFullException(final String message) {
+        super(message);
+    }
+
+
+    /**
+     * Constructs a new runtime exception with the specified detail message and
+     * cause.
+     * <p>
+     * Note that the detail message associated with {@code cause} is not automatically incorporated in
+     * this runtime exception's detail message.
+     *
+     * @param message The detail message (which is saved for later retrieval by the {@link #getMessage()} method).
+     * @param cause   The cause (which is saved for later retrieval by the {@link #getCause()} method).  (A {@code null}
+     *                value is permitted, and indicates that the cause is nonexistent or unknown).
+     */
+    public BulkheadFullException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
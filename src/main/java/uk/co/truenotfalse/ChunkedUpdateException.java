@@ -0,0 +1,52 @@
+package uk.co.truenotfalse;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+
+/**
+ * Exception to indicate that some of the chunks an update was sent in failed.  The chunks that failed are given, each
+ * with the error it failed with, and those errors are also added as suppressed exceptions.
+ */
+public class ChunkedUpdateException extends RuntimeException {
+    /**
+     * Constructs a new runtime exception describing the chunks that failed.
+     *
+     * @param target       What was being updated e.g. the site ID.
+     * @param totalChunks  The number of chunks the update was sent in.
+     * @param failedChunks The error each failed chunk failed with, by the index of the chunk counting from zero.
+     */
+    public ChunkedUpdateException(final String target, final int totalChunks,
+                                  final Map<Integer, Throwable> failedChunks) {
+        super(failedChunks.size() + " of " + totalChunks + " chunks of the update of " + target + " failed: " +
+                failedChunks.keySet().stream().sorted().toList() + '.');
+
+        Objects.requireNonNull(failedChunks, "The failed chunks are required.");
+
+        this.totalChunks = totalChunks;
+        this.failedChunks = Collections.unmodifiableMap(new TreeMap<>(failedChunks));
+        this.failedChunks.values().forEach(this::addSuppressed);
+    }
+
+
+    /**
+     * The number of chunks the update was sent in.
+     */
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+
+    /**
+     * The error each failed chunk failed with, by the index of the chunk counting from zero, in index order.
+     */
+    public Map<Integer, Throwable> getFailedChunks() {
+        return failedChunks;
+    }
+
+
+    private final int totalChunks;
+    private final Map<Integer, Throwable> failedChunks;
+}
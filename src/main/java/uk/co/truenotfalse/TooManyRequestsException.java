@@ -1,5 +1,7 @@
 package uk.co.truenotfalse;
 
+import java.time.Duration;
+
 /**
  * An exception to indicate that a request limit has been exceeded.
  */
@@ -13,6 +15,8 @@ public class TooManyRequestsException extends RuntimeException {
      */
     public TooManyRequestsException(final String message) {
         super(message);
+
+        this.retryAfter = null;
     }
 
 
@@ -29,5 +33,32 @@ public class TooManyRequestsException extends RuntimeException {
      */
     public TooManyRequestsException(final String message, final Throwable cause) {
         super(message, cause);
+
+        this.retryAfter = null;
+    }
+
+
+    /**
+     * Constructs a new runtime exception with the specified detail message and the period the server asked for
+     * requests to be retried after.
+     *
+     * @param message    The detail message. The detail message is saved for later retrieval by the {@link #getMessage()} method.
+     * @param retryAfter The period to wait before retrying as given by the server.  May be {@code null}.
+     */
+    public TooManyRequestsException(final String message, final Duration retryAfter) {
+        super(message);
+
+        this.retryAfter = retryAfter;
     }
+
+
+    /**
+     * The period the server asked for requests to be retried after.  May be {@code null} if the server gave none.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+
+    private final Duration retryAfter;
 }
@@ -0,0 +1,159 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.model.DeviceOutage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * A {@link PostedOutagesStore} held in memory and persisted to a local JSON file so that the record survives restarts.
+ * The whole file is rewritten, via a temporary file, when the store is saved after the record for any site has
+ * changed.
+ */
+public class FilePostedOutagesStore extends InMemoryPostedOutagesStore {
+    /**
+     * Creates an instance of this class, loading any record already in the file, that saves on the IO scheduler.  A
+     * file that does not hold a record of posted outages is ignored and the record starts empty.
+     *
+     * @param file The file to persist the record to.
+     * @throws UncheckedIOException If an existing file could not be read.
+     */
+    public FilePostedOutagesStore(final Path file) {
+        this(file, Schedulers.io());
+    }
+
+
+    /**
+     * Creates an instance of this class, loading any record already in the file.  A file that does not hold a record of
+     * posted outages is ignored and the record starts empty.
+     *
+     * @param file      The file to persist the record to.
+     * @param scheduler The scheduler the file is written on, which should allow blocking.
+     * @throws UncheckedIOException If an existing file could not be read.
+     */
+    public FilePostedOutagesStore(final Path file, final Scheduler scheduler) {
+        Objects.requireNonNull(file, "A file is required.");
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        this.file = file;
+        this.scheduler = scheduler;
+
+        if (Files.exists(file)) {
+            load();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final String siteId, final Map<DeviceOutage, String> posted) {
+        super.put(siteId, posted);
+
+        changed.set(true);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable save() {
+        return Completable.fromAction(() ->
+        {
+            if (changed.getAndSet(false)) {
+                try {
+                    write();
+                } catch (final UncheckedIOException uioe) {
+                    changed.set(true);
+                    LOG.warn("Unable to save posted outages, they will be saved with the next.", uioe);
+                }
+            }
+        }).subscribeOn(scheduler);
+    }
+
+
+    private void load() {
+        final Map<String, Map<DeviceOutage, String>> sitesPosted = new HashMap<>();
+
+        try {
+            final JsonObject sites = new JsonObject(Files.readString(file, StandardCharsets.UTF_8));
+
+            for (final String siteId : sites.fieldNames()) {
+                final Map<DeviceOutage, String> posted = new HashMap<>();
+
+                for (final Object outage : sites.getJsonArray(siteId)) {
+                    final JsonObject outageJson = (JsonObject) outage;
+                    final String end = outageJson.getString("end");
+
+                    posted.put(new DeviceOutage(outageJson.getValue("id"),
+                                    OffsetDateTime.parse(outageJson.getString("begin")),
+                                    end != null ? OffsetDateTime.parse(end) : null),
+                            outageJson.getString("name"));
+                }
+
+                sitesPosted.put(siteId, Map.copyOf(posted));
+            }
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Unable to read posted outages from " + file + '.', ioe);
+        } catch (final RuntimeException re) {
+            LOG.warn("Ignoring {} as it is not a record of posted outages.", file, re);
+            return;
+        }
+
+        postedOutages.putAll(sitesPosted);
+        LOG.debug("Loaded posted outages for {} sites from {}.", postedOutages.size(), file);
+    }
+
+
+    private synchronized void write() {
+        final JsonObject sites = new JsonObject();
+
+        postedOutages.forEach((siteId, posted) ->
+        {
+            final JsonArray outages = new JsonArray();
+
+            posted.forEach((outage, name) ->
+                    outages.add(new JsonObject().put("id", outage.getId()).
+                            put("name", name).
+                            put("begin", outage.getBegin().toString()).
+                            put("end", outage.getEnd() != null ? outage.getEnd().toString() : null)));
+            sites.put(siteId, outages);
+        });
+
+        try {
+            final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+            Files.writeString(temporaryFile, sites.encode(), StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Unable to write posted outages to " + file + '.', ioe);
+        }
+    }
+
+
+    private static final Logger LOG = LoggerFactory.getLogger(FilePostedOutagesStore.class);
+
+    private final Path file;
+    private final Scheduler scheduler;
+    // Whether the record has changed since it was last written.
+    private final AtomicBoolean changed = new AtomicBoolean();
+}
@@ -0,0 +1,39 @@
+package uk.co.truenotfalse.agent;
+
+import uk.co.truenotfalse.model.DeviceOutage;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * A {@link PostedOutagesStore} held in memory for the lifetime of the process.
+ */
+public class InMemoryPostedOutagesStore implements PostedOutagesStore {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<DeviceOutage, String> get(final String siteId) {
+        return postedOutages.get(siteId);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final String siteId, final Map<DeviceOutage, String> posted) {
+        Objects.requireNonNull(siteId, "A site ID is required.");
+        Objects.requireNonNull(posted, "The posted outages are required.");
+
+        postedOutages.put(siteId, Map.copyOf(posted));
+    }
+
+
+    /**
+     * The record of posted outages by site ID.
+     */
+    protected final Map<String, Map<DeviceOutage, String>> postedOutages = new ConcurrentHashMap<>();
+}
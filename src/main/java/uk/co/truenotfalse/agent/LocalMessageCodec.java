@@ -0,0 +1,73 @@
+package uk.co.truenotfalse.agent;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+import java.util.Objects;
+
+
+/**
+ * Passes messages of a type between verticles of the same Vert.x instance as they are, without copying them.  Only
+ * immutable, or otherwise thread-safe, types may be passed this way as the sender and receiver share the message.
+ * Messages may not be sent to other nodes of a cluster.
+ */
+final class LocalMessageCodec<T> implements MessageCodec<T, T> {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param type The type of message passed.
+     */
+    LocalMessageCodec(final Class<T> type) {
+        Objects.requireNonNull(type, "A message type is required.");
+
+        this.name = "local-" + type.getName();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encodeToWire(final Buffer buffer, final T message) {
+        throw new UnsupportedOperationException(name + " messages may not leave this Vert.x instance.");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T decodeFromWire(final int pos, final Buffer buffer) {
+        throw new UnsupportedOperationException(name + " messages may not leave this Vert.x instance.");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T transform(final T message) {
+        return message;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name() {
+        return name;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+
+
+    private final String name;
+}
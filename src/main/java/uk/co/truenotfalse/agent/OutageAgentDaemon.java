@@ -0,0 +1,230 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.rxjava3.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Keeps the outages of a set of sites up to date by updating them on a schedule for as long as it is running.  A
+ * single Vert.x instance, and so its connection pool, is used for every update.  A site is never updated while an
+ * earlier update of it is still in progress, it is simply skipped until the next scheduled update.
+ */
+public class OutageAgentDaemon {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param vertx          The Vert.x instance to schedule updates with.
+     * @param agent          The service to update sites with.
+     * @param siteIds        The IDs of the sites to keep updated.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param interval       The period between the start of scheduled updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time.
+     */
+    public OutageAgentDaemon(final Vertx vertx, final OutageAgentService agent, final Collection<String> siteIds,
+                             final OffsetDateTime cutoff, final Duration interval, final int maxConcurrency) {
+        Objects.requireNonNull(vertx, "A Vert.x instance is required.");
+        Objects.requireNonNull(agent, "An agent service is required.");
+        Objects.requireNonNull(siteIds, "A collection of site IDs is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+        Objects.requireNonNull(interval, "An interval is required.");
+
+        if (siteIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one site to update is required.");
+        }
+        if (interval.toMillis() < 1L) {
+            throw new IllegalArgumentException("An interval of at least one millisecond is required.");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least one.");
+        }
+
+        this.vertx = vertx;
+        this.agent = agent;
+        this.cutoff = cutoff;
+        this.interval = interval;
+        this.maxConcurrency = maxConcurrency;
+
+        final Map<String, SiteState> states = new LinkedHashMap<>();
+
+        siteIds.forEach(siteId -> states.put(siteId, new SiteState()));
+        this.siteStates = Collections.unmodifiableMap(states);
+    }
+
+
+    /**
+     * Starts updating the sites, immediately and then on schedule.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("The daemon is already running.");
+        }
+
+        LOG.info("Updating {} sites every {}.", siteStates.size(), interval);
+
+        running = true;
+        sync();
+        timerId = vertx.setPeriodic(interval.toMillis(), id -> sync());
+    }
+
+
+    /**
+     * Stops scheduling updates.  Updates already in progress are allowed to finish.
+     *
+     * @return A future result that completes once all the updates in progress have finished.
+     */
+    public synchronized Completable stop() {
+        if (running) {
+            LOG.info("Stopping.");
+
+            running = false;
+            vertx.cancelTimer(timerId);
+        }
+
+        return Completable.merge(List.copyOf(inFlight));
+    }
+
+
+    /**
+     * The state of each site kept updated, by site ID.
+     */
+    public Map<String, SiteState> getSiteStates() {
+        return siteStates;
+    }
+
+
+    private void sync() {
+        if (!running) {
+            return;
+        }
+
+        final List<String> dueSiteIds =
+                siteStates.entrySet().stream().filter(entry -> entry.getValue().begin()).map(Map.Entry::getKey).toList();
+
+        if (dueSiteIds.isEmpty()) {
+            LOG.debug("All sites are still updating, skipping.");
+            return;
+        }
+
+        // Sites finishing early may begin updating again in a later sync before this one completes, so only those
+        // still pending when it does are abandoned.
+        final Set<String> pendingSiteIds = ConcurrentHashMap.newKeySet();
+
+        pendingSiteIds.addAll(dueSiteIds);
+
+        final Completable update =
+                agent.updateSites(dueSiteIds, cutoff, maxConcurrency).
+                        doOnNext(result -> {
+                            if (pendingSiteIds.remove(result.siteId())) {
+                                siteStates.get(result.siteId()).end(result.error());
+                            }
+                        }).
+                        ignoreElements().
+                        doOnError(error -> LOG.error("Scheduled update failed.", error)).
+                        // Any site left unfinished should be free to update again next time.
+                        doFinally(() -> pendingSiteIds.forEach(siteId -> siteStates.get(siteId).abandon())).
+                        onErrorComplete().
+                        cache();
+
+        inFlight.add(update);
+        update.doFinally(() -> inFlight.remove(update)).subscribe();
+    }
+
+
+    /**
+     * The state of the updates of a single site.
+     */
+    public static class SiteState {
+        /**
+         * Whether an update of the site is in progress.
+         */
+        public boolean isUpdating() {
+            return updating.get();
+        }
+
+        /**
+         * When the site was last updated successfully.  {@code null} if it has not been.
+         */
+        public Instant getLastSuccess() {
+            return lastSuccess;
+        }
+
+        /**
+         * When the last update of the site failed.  {@code null} if none has.
+         */
+        public Instant getLastFailure() {
+            return lastFailure;
+        }
+
+        /**
+         * Why the last update of the site failed.  {@code null} if none has.
+         */
+        public Throwable getLastError() {
+            return lastError;
+        }
+
+        /**
+         * The number of updates of the site that have failed since it was last updated successfully.
+         */
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+
+        private boolean begin() {
+            return updating.compareAndSet(false, true);
+        }
+
+        private void end(final Throwable error) {
+            if (error == null) {
+                lastSuccess = Instant.now();
+                consecutiveFailures = 0;
+            } else {
+                lastFailure = Instant.now();
+                lastError = error;
+                consecutiveFailures++;
+            }
+
+            updating.set(false);
+        }
+
+        private void abandon() {
+            updating.set(false);
+        }
+
+
+        private final AtomicBoolean updating = new AtomicBoolean();
+        private volatile Instant lastSuccess;
+        private volatile Instant lastFailure;
+        private volatile Throwable lastError;
+        private volatile int consecutiveFailures;
+    }
+
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutageAgentDaemon.class);
+
+    private final Vertx vertx;
+    private final OutageAgentService agent;
+    private final OffsetDateTime cutoff;
+    private final Duration interval;
+    private final int maxConcurrency;
+    private final Map<String, SiteState> siteStates;
+    private final Set<Completable> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private long timerId;
+}
@@ -1,13 +1,21 @@
 package uk.co.truenotfalse.agent;
 
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.functions.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
 import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageIntervalIndex;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -23,9 +31,40 @@ public class OutageAgentService {
      * @param apiDao The DAO instance to use for communicating with the interview tests mock API.
      */
     public OutageAgentService(final InterviewTestsMockApiDao apiDao) {
+        this(apiDao, new InMemoryPostedOutagesStore());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao        The DAO instance to use for communicating with the interview tests mock API.
+     * @param postedOutages The record of outages posted to each site.  A site is only posted to when its outages
+     *                      differ from those last posted to it.
+     */
+    public OutageAgentService(final InterviewTestsMockApiDao apiDao, final PostedOutagesStore postedOutages) {
+        this(apiDao, postedOutages, MetricsRegistry.noop());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao        The DAO instance to use for communicating with the interview tests mock API.
+     * @param postedOutages The record of outages posted to each site.  A site is only posted to when its outages
+     *                      differ from those last posted to it.
+     * @param metrics       The registry to record the outages filtered and dropped, and site update durations, to.
+     */
+    public OutageAgentService(final InterviewTestsMockApiDao apiDao, final PostedOutagesStore postedOutages,
+                              final MetricsRegistry metrics) {
         Objects.requireNonNull(apiDao, "An instance of API DAO is required.");
+        Objects.requireNonNull(postedOutages, "A posted outages store is required.");
+        Objects.requireNonNull(metrics, "A metrics registry is required.");
 
         this.apiDao = apiDao;
+        this.postedOutages = postedOutages;
+        this.metrics = metrics;
+        this.selector = new ParallelOutageSelector(metrics);
     }
 
 
@@ -39,31 +78,221 @@ public class OutageAgentService {
             throw new IllegalArgumentException("A meaningful site ID is required.");
         }
 
-        // Filter out outages before the required cut-off.
-        final Single<List<DeviceOutage>> deviceOutages =
-                apiDao.getOutages().map(outages -> outages.stream().filter(outage -> !outage.getBegin().isBefore(cutoff)).toList());
+        // The outages before the cutoff are dropped as they are decoded, large feeds are selected from in parallel.
+        return updateSiteOutages(siteId, apiDao.getOutageTable(cutoff),
+                (outages, info) -> selector.select(outages, cutoff, info).toList()).
+                andThen(postedOutages.save());
+    }
+
+
+    /**
+     * Updates the outages of a number of sites.  The outage list is only requested once and is shared between all the
+     * sites, the site info requests and updates are then made concurrently.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time.
+     * @return A future result that completes once all the sites have been updated.  A failure to update one site does
+     * not prevent the remaining sites being updated, any errors are reported once all the updates have finished.
+     */
+    public Completable updateOutages(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                                     final int maxConcurrency) {
+        return SiteUpdateResult.aggregate(updateSites(siteIds, cutoff, maxConcurrency));
+    }
+
+
+    /**
+     * Updates the outages of a number of sites reporting the outcome for each site as it is known.  The outage list is
+     * only requested once and is shared between all the sites, the site info requests and updates are then made
+     * concurrently.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time.
+     * @return The outcome of each site update, in the order the updates finish.  A failure to update one site does not
+     * prevent the remaining sites being updated.
+     */
+    public Flowable<SiteUpdateResult> updateSites(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                                                  final int maxConcurrency) {
+        LOG.debug("updateSites({} sites, {}, {}) called.", siteIds != null ? siteIds.size() : 0, cutoff,
+                maxConcurrency);
+
+        Objects.requireNonNull(siteIds, "A collection of site IDs is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        if (siteIds.stream().anyMatch(siteId -> siteId == null || siteId.isBlank())) {
+            throw new IllegalArgumentException("Only meaningful site IDs may be updated.");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least one.");
+        }
+
+        // Cached so that every site shares a single request for the outages.
+        final Single<OutageIntervalIndex> indexedOutages = indexOutages(cutoff).cache();
+
+        // The outages posted are saved once for the whole batch.
+        return Flowable.fromIterable(new LinkedHashSet<>(siteIds)).
+                flatMapSingle(siteId -> updateIndexedOutages(siteId, indexedOutages, cutoff).
+                                doOnComplete(() -> LOG.info("Updated {}.", siteId)).
+                                doOnError(error -> LOG.warn("Failed to update {}.", siteId, error)).
+                                toSingleDefault(new SiteUpdateResult(siteId, null)).
+                                onErrorReturn(error -> new SiteUpdateResult(siteId, error)),
+                        false, maxConcurrency).
+                concatWith(postedOutages.save());
+    }
+
+
+    /**
+     * Requests the outages, dropping those before the cutoff as they are decoded, and indexes the rows of the table
+     * by device so that each site to be updated from them only visits the outages of its own devices rather than the
+     * whole feed.  Indexing a large feed is kept off the thread it was received on.
+     *
+     * @param cutoff Outages beginning before this date-time are to be excluded from the updates.
+     * @return A future result of the index.
+     */
+    public Single<OutageIntervalIndex> indexOutages(final OffsetDateTime cutoff) {
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        return apiDao.getOutageTable(cutoff).flatMap(outages -> selector.offload(outages, OutageIntervalIndex::new));
+    }
+
+
+    /**
+     * Updates the outages of a site from outages already indexed.  The outages posted are only recorded in memory
+     * until {@linkplain #savePostedOutages() saved}, so that a batch of sites updated this way is saved once.
+     *
+     * @param siteId  The ID of the site to update.
+     * @param outages The outages that may apply to the site, as from {@link #indexOutages(OffsetDateTime)}.
+     * @param cutoff  Outages beginning before this date-time are excluded from the update.
+     * @return A future result that completes once the site has been updated.
+     */
+    public Completable updateOutages(final String siteId, final OutageIntervalIndex outages,
+                                     final OffsetDateTime cutoff) {
+        LOG.debug("updateOutages('{}', {} outages, {}) called.", siteId, outages != null ? outages.size() : 0, cutoff);
+
+        Objects.requireNonNull(siteId, "A site ID is required.");
+        Objects.requireNonNull(outages, "Indexed outages are required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        if (siteId.isBlank()) {
+            throw new IllegalArgumentException("A meaningful site ID is required.");
+        }
+
+        return updateIndexedOutages(siteId, Single.just(outages), cutoff);
+    }
+
+
+    /**
+     * Saves the record of the outages posted to each site.
+     *
+     * @return A future result that completes once saved.  A failure to save is logged rather than reported.
+     * @see PostedOutagesStore#save()
+     */
+    public Completable savePostedOutages() {
+        return postedOutages.save();
+    }
+
+
+    private Completable updateIndexedOutages(final String siteId, final Single<OutageIntervalIndex> outages,
+                                             final OffsetDateTime cutoff) {
+        return updateSiteOutages(siteId, outages, (index, info) ->
+                Single.just(countDropped(index.beginningFrom(cutoff).size(),
+                        attachDeviceNames(index.forDevices(info.keySet(), cutoff), info))));
+    }
+
+
+    /**
+     * Counts the outages that may apply to a site but were left out of its update as their devices are not in it.
+     *
+     * @param candidates The number of outages that may apply to the site.
+     * @param named      The outages of the site's devices.
+     * @return The outages of the site's devices.
+     */
+    private List<DeviceOutage> countDropped(final int candidates, final List<DeviceOutage> named) {
+        metrics.counter(MetricNames.OUTAGES_DROPPED).increment(candidates - named.size());
+
+        return named;
+    }
+
+
+    /**
+     * Posts the outages of a site's devices to it.
+     *
+     * @param siteId      The ID of the site.
+     * @param outages     The outages that may apply to the site.
+     * @param siteOutages Selects the outages of the site's devices, named, given its site info.
+     */
+    private <T> Completable updateSiteOutages(
+            final String siteId, final Single<T> outages,
+            final BiFunction<T, Map<Object, String>, Single<List<DeviceOutage>>> siteOutages) {
         final Single<Map<Object, String>> sitesInfo = apiDao.getSiteInfo(siteId);
 
-        return
-                deviceOutages.zipWith(sitesInfo, (outages, info) ->
-                                outages.stream().filter(outage ->
-                                {
-                                    // Attach the names using the site info -
-                                    // a little naughty to have a side effect but
-                                    // feeds straight in to the filter logic and
-                                    // saves looping twice.
-                                    outage.setDeviceName(info.get(outage.getId()));
-
-                                    // Any device with no info in the site should
-                                    // be removed which means any device without a
-                                    // name at this point.
-                                    return outage.getDeviceName() != null;
-                                }).toList()).
-                        flatMapCompletable(outages -> apiDao.updateSiteOutages(siteId, outages));
+        return Completable.defer(() ->
+        {
+            final long start = System.nanoTime();
+
+            return outages.zipWith(sitesInfo, siteOutages).flatMap(selection -> selection).
+                    flatMapCompletable(named -> postIfChanged(siteId, named)).
+                    doOnEvent(error -> metrics.histogram(MetricNames.SITE_UPDATE_SECONDS, MetricNames.OUTCOME_LABEL,
+                            error == null ? "success" : "failure").recordNanos(System.nanoTime() - start));
+        });
+    }
+
+
+    /**
+     * Posts outages to a site unless they are the same as the outages last posted to it.
+     */
+    private Completable postIfChanged(final String siteId, final List<DeviceOutage> outages) {
+        // Outage equality does not include the device name so that is compared separately as the mapped value.
+        final Map<DeviceOutage, String> named = new HashMap<>();
+
+        outages.forEach(outage -> named.put(outage, outage.getDeviceName()));
+
+        final Map<DeviceOutage, String> posted = postedOutages.get(siteId);
+
+        if (named.equals(posted)) {
+            LOG.debug("The outages of {} are unchanged, no update is required.", siteId);
+
+            return Completable.complete();
+        }
+
+        if (posted != null && LOG.isDebugEnabled()) {
+            LOG.debug("{} outages of {} are new or renamed, {} are no longer present.",
+                    named.entrySet().stream().filter(outage -> !outage.getValue().equals(posted.get(outage.getKey()))).count(),
+                    siteId, posted.keySet().stream().filter(outage -> !named.containsKey(outage)).count());
+        }
+
+        // The API expects the full set of outages for a site so, once anything has changed, all of them are posted.
+        return apiDao.updateSiteOutages(siteId, outages).doOnComplete(() -> recordPosted(siteId, named));
+    }
+
+
+    /**
+     * Records the outages posted to a site.  The post has already succeeded so a failure to record it is only logged,
+     * at worst the same outages are posted again.
+     */
+    private void recordPosted(final String siteId, final Map<DeviceOutage, String> named) {
+        try {
+            postedOutages.put(siteId, named);
+        } catch (final RuntimeException re) {
+            LOG.warn("Unable to record the outages posted to {}.", siteId, re);
+        }
+    }
+
+
+    // Package-private for benchmarking.
+    static List<DeviceOutage> attachDeviceNames(final List<DeviceOutage> outages, final Map<Object, String> info) {
+        // Any device with no info in the site should be removed.  Outages are immutable so naming one for this site
+        // leaves it untouched for any other site sharing it.
+        return outages.stream().filter(outage -> info.get(outage.getId()) != null).
+                map(outage -> outage.withDeviceName(info.get(outage.getId()))).toList();
     }
 
 
     private final Logger LOG = LoggerFactory.getLogger(OutageAgentService.class);
 
     private final InterviewTestsMockApiDao apiDao;
+    private final PostedOutagesStore postedOutages;
+    private final MetricsRegistry metrics;
+    private final ParallelOutageSelector selector;
 }
@@ -0,0 +1,145 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Selects the outages of a site's devices that begin from a cutoff, naming them, from a table of outages.
+ * <p>
+ * Large tables are split into chunks of rows that are selected in parallel, each on a worker of the scheduler, while
+ * the outages selected are still emitted in the order of the table.  At most one chunk per worker is selected ahead of
+ * the consumer so a slow consumer holds back the selection rather than the selected outages building up.
+ */
+public class ParallelOutageSelector {
+    /**
+     * Creates an instance of this class selecting chunks of {@value #DEFAULT_CHUNK_SIZE} rows on the computation
+     * scheduler, one per available processor at a time.
+     *
+     * @param metrics The registry to record the outages filtered by the cutoff, and dropped for being of unknown
+     *                devices, to.
+     */
+    public ParallelOutageSelector(final MetricsRegistry metrics) {
+        this(Schedulers.computation(), DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors(), metrics);
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param scheduler   The scheduler to select chunks on.
+     * @param chunkSize   The number of rows in a chunk, tables no larger than this are selected as they are consumed.
+     * @param parallelism The maximum number of chunks to select at once.
+     * @param metrics     The registry to record the outages filtered by the cutoff, and dropped for being of unknown
+     *                    devices, to.
+     */
+    public ParallelOutageSelector(final Scheduler scheduler, final int chunkSize, final int parallelism,
+                                  final MetricsRegistry metrics) {
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+        Objects.requireNonNull(metrics, "A metrics registry is required.");
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("A chunk must hold at least one row.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least one.");
+        }
+
+        this.scheduler = scheduler;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * Selects outages.
+     *
+     * @param outages     The outages to select from.
+     * @param cutoff      Outages beginning before this date-time are excluded.
+     * @param deviceNames Device names mapped to the IDs of the site's devices, outages of any other devices are
+     *                    excluded.
+     * @return The outages selected, named and in the order of the table.
+     */
+    public Flowable<DeviceOutage> select(final OutageTable outages, final OffsetDateTime cutoff,
+                                         final Map<Object, String> deviceNames) {
+        Objects.requireNonNull(outages, "A table of outages is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+        Objects.requireNonNull(deviceNames, "A map of device names is required.");
+
+        if (outages.size() <= chunkSize) {
+            return Flowable.defer(() -> Flowable.fromIterable(selectRows(outages, cutoff, deviceNames)));
+        }
+
+        final int chunks = (outages.size() - 1) / chunkSize + 1;
+
+        // Eager concatenation selects chunks concurrently but emits them in order.
+        return Flowable.range(0, chunks).
+                concatMapEager(chunk -> selectChunk(outages, chunk, cutoff, deviceNames), parallelism, 1).
+                concatMapIterable(selected -> selected);
+    }
+
+
+    /**
+     * Works on a table, on the scheduler should it be larger than a chunk, so that the thread that received a large
+     * table, e.g. a Vert.x event loop, is not held up working on it.
+     *
+     * @param outages The table to work on.
+     * @param work    The work to do.
+     * @return A future result of the work.
+     */
+    public <T> Single<T> offload(final OutageTable outages, final Function<OutageTable, T> work) {
+        Objects.requireNonNull(outages, "A table of outages is required.");
+        Objects.requireNonNull(work, "The work to do is required.");
+
+        final Single<T> result = Single.fromCallable(() -> work.apply(outages));
+
+        return outages.size() <= chunkSize ? result : result.subscribeOn(scheduler);
+    }
+
+
+    private Flowable<List<DeviceOutage>> selectChunk(final OutageTable outages, final int chunk,
+                                                     final OffsetDateTime cutoff,
+                                                     final Map<Object, String> deviceNames) {
+        final int fromRow = chunk * chunkSize;
+        final int toRow = Math.min(outages.size(), fromRow + chunkSize);
+
+        return Flowable.fromCallable(() -> selectRows(outages.rows(fromRow, toRow), cutoff, deviceNames)).
+                subscribeOn(scheduler);
+    }
+
+
+    private List<DeviceOutage> selectRows(final OutageTable rows, final OffsetDateTime cutoff,
+                                          final Map<Object, String> deviceNames) {
+        final OutageTable current = rows.beginningFrom(cutoff);
+        final List<DeviceOutage> named = current.withDeviceNames(deviceNames).toDeviceOutages();
+
+        metrics.counter(MetricNames.OUTAGES_FILTERED).increment(rows.size() - current.size());
+        metrics.counter(MetricNames.OUTAGES_DROPPED).increment(current.size() - named.size());
+
+        return named;
+    }
+
+
+    /**
+     * The default number of rows in a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+    private final Scheduler scheduler;
+    private final int chunkSize;
+    private final int parallelism;
+    private final MetricsRegistry metrics;
+}
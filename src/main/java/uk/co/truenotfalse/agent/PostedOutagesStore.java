@@ -0,0 +1,42 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import uk.co.truenotfalse.model.DeviceOutage;
+
+import java.util.Map;
+
+
+/**
+ * A record of the outages last successfully posted to each site.  Used to avoid posting outages that have not changed
+ * since they were last posted.
+ */
+public interface PostedOutagesStore {
+    /**
+     * Gets the outages last posted to a site.
+     *
+     * @param siteId The ID of the site.
+     * @return The outages last posted mapped to the device names they were posted with or {@code null} if no outages
+     * have been recorded as posted to the site.
+     */
+    Map<DeviceOutage, String> get(String siteId);
+
+    /**
+     * Records the outages posted to a site, replacing any previous record.  A persistent store need not persist the
+     * record until it is {@linkplain #save() saved}.
+     *
+     * @param siteId The ID of the site.
+     * @param posted The outages posted mapped to the device names they were posted with.
+     */
+    void put(String siteId, Map<DeviceOutage, String> posted);
+
+    /**
+     * Persists the outages recorded since the store was last saved, so that a batch of sites is persisted once rather
+     * than once per site.  Does nothing for a store that is not persistent.
+     *
+     * @return A future result that completes once the record has been persisted.  A failure to persist it is logged
+     * rather than reported, the record being persisted with the next save instead.
+     */
+    default Completable save() {
+        return Completable.complete();
+    }
+}
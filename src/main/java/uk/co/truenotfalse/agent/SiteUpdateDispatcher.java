@@ -0,0 +1,206 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.core.eventbus.Message;
+import io.vertx.rxjava3.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.model.OutageIntervalIndex;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.function.Function;
+
+
+/**
+ * Spreads the sites of a batch update across a number of verticles so that the work of updating them is shared
+ * between event loops, and so cores, rather than all falling to one.  Each verticle has its own web client, and so its
+ * own connection pool, and updates the sites sent to it over the event bus, in turn, with its own agent service.
+ * <p>
+ * The outages are still only requested, and indexed, once per batch with the index then shared, by reference, with
+ * every verticle.  The verticles must be deployed before any batch is updated and should be undeployed once done.
+ */
+public class SiteUpdateDispatcher {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param vertx            The Vert.x instance to deploy the verticles to.
+     * @param agent            The service to request and index the outages of each batch with.
+     * @param webClientOptions The options of each verticle's web client.
+     * @param verticleAgents   Creates the service of a verticle, to update sites with, given its web client.  The
+     *                         services may be called concurrently so should only share thread-safe collaborators.
+     * @param instances        The number of verticles to deploy.
+     */
+    public SiteUpdateDispatcher(final Vertx vertx, final OutageAgentService agent,
+                                final WebClientOptions webClientOptions,
+                                final Function<WebClient, OutageAgentService> verticleAgents, final int instances) {
+        Objects.requireNonNull(vertx, "A Vert.x instance is required.");
+        Objects.requireNonNull(agent, "An agent service is required.");
+        Objects.requireNonNull(webClientOptions, "Web client options are required.");
+        Objects.requireNonNull(verticleAgents, "A factory of agent services is required.");
+
+        if (instances < 1) {
+            throw new IllegalArgumentException("At least one verticle is required.");
+        }
+
+        this.vertx = vertx;
+        this.agent = agent;
+        this.webClientOptions = webClientOptions;
+        this.verticleAgents = verticleAgents;
+        this.instances = instances;
+    }
+
+
+    /**
+     * Deploys the verticles.
+     *
+     * @return A future result that completes once every verticle is ready for sites.
+     */
+    public synchronized Completable deploy() {
+        if (deploymentId != null) {
+            throw new IllegalStateException("The verticles are already deployed.");
+        }
+
+        // Requests and results are passed between the verticles of this instance as they are, never copied.
+        vertx.getDelegate().eventBus().
+                registerDefaultCodec(SiteUpdateRequest.class, new LocalMessageCodec<>(SiteUpdateRequest.class)).
+                registerDefaultCodec(SiteUpdateResult.class, new LocalMessageCodec<>(SiteUpdateResult.class));
+
+        return vertx.rxDeployVerticle(() -> new SiteUpdateVerticle(webClientOptions, verticleAgents),
+                        new DeploymentOptions().setInstances(instances)).
+                doOnSuccess(id ->
+                {
+                    LOG.info("Deployed {} site update verticles.", instances);
+
+                    synchronized (this) {
+                        deploymentId = id;
+                    }
+                }).
+                doOnError(error -> unregisterCodecs()).
+                ignoreElement();
+    }
+
+
+    /**
+     * Undeploys the verticles.  Updates in progress are abandoned.
+     *
+     * @return A future result that completes once every verticle has been undeployed.
+     */
+    public synchronized Completable undeploy() {
+        if (deploymentId == null) {
+            return Completable.complete();
+        }
+
+        final String id = deploymentId;
+
+        deploymentId = null;
+
+        return vertx.rxUndeploy(id).doFinally(this::unregisterCodecs);
+    }
+
+
+    /**
+     * Updates the outages of a number of sites.  The outage list is only requested once and is shared between all the
+     * sites which are then updated concurrently, across the verticles.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time, across all the verticles.
+     * @return A future result that completes once all the sites have been updated.  A failure to update one site does
+     * not prevent the remaining sites being updated, any errors are reported once all the updates have finished.
+     * @see OutageAgentService#updateOutages(Collection, OffsetDateTime, int)
+     */
+    public Completable updateOutages(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                                     final int maxConcurrency) {
+        return SiteUpdateResult.aggregate(updateSites(siteIds, cutoff, maxConcurrency));
+    }
+
+
+    /**
+     * Updates the outages of a number of sites reporting the outcome for each site as it is known.  The outage list is
+     * only requested once and is shared between all the sites which are then updated concurrently, across the
+     * verticles.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time, across all the verticles.
+     * @return The outcome of each site update, in the order the updates finish.  A failure to update one site does not
+     * prevent the remaining sites being updated.
+     * @see OutageAgentService#updateSites(Collection, OffsetDateTime, int)
+     */
+    public Flowable<SiteUpdateResult> updateSites(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                                                  final int maxConcurrency) {
+        LOG.debug("updateSites({} sites, {}, {}) called.", siteIds != null ? siteIds.size() : 0, cutoff,
+                maxConcurrency);
+
+        Objects.requireNonNull(siteIds, "A collection of site IDs is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        if (siteIds.stream().anyMatch(siteId -> siteId == null || siteId.isBlank())) {
+            throw new IllegalArgumentException("Only meaningful site IDs may be updated.");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least one.");
+        }
+
+        // Cached so that every site shares a single request for the outages.
+        final Single<OutageIntervalIndex> indexedOutages = agent.indexOutages(cutoff).cache();
+
+        // Point-to-point requests are delivered to the verticles' consumers in turn.  The outages posted are saved once
+        // for the whole batch.
+        return Flowable.fromIterable(new LinkedHashSet<>(siteIds)).
+                flatMapSingle(siteId -> indexedOutages.
+                                flatMap(outages -> vertx.eventBus().<SiteUpdateResult>rxRequest(ADDRESS,
+                                        new SiteUpdateRequest(siteId, outages, cutoff), DELIVERY_OPTIONS)).
+                                map(Message::body).
+                                onErrorReturn(error -> new SiteUpdateResult(siteId, error)).
+                                doOnSuccess(result ->
+                                {
+                                    if (result.isSuccess()) {
+                                        LOG.info("Updated {}.", siteId);
+                                    } else {
+                                        LOG.warn("Failed to update {}.", siteId, result.error());
+                                    }
+                                }),
+                        false, maxConcurrency).
+                concatWith(agent.savePostedOutages());
+    }
+
+
+    private void unregisterCodecs() {
+        vertx.getDelegate().eventBus().
+                unregisterDefaultCodec(SiteUpdateRequest.class).
+                unregisterDefaultCodec(SiteUpdateResult.class);
+    }
+
+
+    /**
+     * The event bus address the verticles take site update requests from.
+     */
+    static final String ADDRESS = "uk.co.truenotfalse.agent.site-update";
+
+    // Long enough for the slowest of updates, retries and rate limiting included, as a site is only sent once it is
+    // due to be updated.
+    private static final Duration SEND_TIMEOUT = Duration.ofHours(1L);
+    private static final DeliveryOptions DELIVERY_OPTIONS =
+            new DeliveryOptions().setLocalOnly(true).setSendTimeout(SEND_TIMEOUT.toMillis());
+
+    private static final Logger LOG = LoggerFactory.getLogger(SiteUpdateDispatcher.class);
+
+    private final Vertx vertx;
+    private final OutageAgentService agent;
+    private final WebClientOptions webClientOptions;
+    private final Function<WebClient, OutageAgentService> verticleAgents;
+    private final int instances;
+
+    private String deploymentId;
+}
@@ -0,0 +1,22 @@
+package uk.co.truenotfalse.agent;
+
+import uk.co.truenotfalse.model.OutageIntervalIndex;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+
+/**
+ * A request, sent over the event bus, for a {@link SiteUpdateVerticle} to update the outages of a site.
+ *
+ * @param siteId  The ID of the site to update.
+ * @param outages The outages that may apply to the site, shared with every other site of the batch.
+ * @param cutoff  Outages beginning before this date-time are excluded from the update.
+ */
+record SiteUpdateRequest(String siteId, OutageIntervalIndex outages, OffsetDateTime cutoff) {
+    SiteUpdateRequest {
+        Objects.requireNonNull(siteId, "A site ID is required.");
+        Objects.requireNonNull(outages, "Indexed outages are required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+    }
+}
@@ -0,0 +1,46 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.exceptions.CompositeException;
+
+import java.util.Objects;
+
+
+/**
+ * The outcome of updating the outages of a single site as part of a batch.
+ *
+ * @param siteId The ID of the site updated.
+ * @param error  The reason the update failed or {@code null} if it succeeded.
+ */
+public record SiteUpdateResult(String siteId, Throwable error) {
+    public SiteUpdateResult {
+        Objects.requireNonNull(siteId, "A site ID is required.");
+    }
+
+
+    /**
+     * Whether the site was updated.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+
+    /**
+     * Reduces the outcomes of a batch to a single result.
+     *
+     * @param results The outcome of each site update.
+     * @return A future result that completes once all the outcomes are known, failing with the error of any site that
+     * failed to update or, should there be more than one, a {@link CompositeException} of them.
+     */
+    static Completable aggregate(final Flowable<SiteUpdateResult> results) {
+        return results.filter(result -> !result.isSuccess()).map(SiteUpdateResult::error).toList().
+                flatMapCompletable(errors ->
+                        switch (errors.size()) {
+                            case 0 -> Completable.complete();
+                            case 1 -> Completable.error(errors.get(0));
+                            default -> Completable.error(new CompositeException(errors));
+                        });
+    }
+}
@@ -0,0 +1,77 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.rxjava3.core.AbstractVerticle;
+import io.vertx.rxjava3.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+
+/**
+ * Updates the outages of the sites sent to it over the event bus, on its own event loop with its own web client, and
+ * so its own connection pool.  Each {@link SiteUpdateRequest} is replied to with a {@link SiteUpdateResult} once the
+ * site has been updated or has failed to be.
+ */
+class SiteUpdateVerticle extends AbstractVerticle {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param webClientOptions The options of the verticle's web client.
+     * @param agents           Creates the service to update sites with given the verticle's web client.
+     */
+    SiteUpdateVerticle(final WebClientOptions webClientOptions,
+                       final Function<WebClient, OutageAgentService> agents) {
+        Objects.requireNonNull(webClientOptions, "Web client options are required.");
+        Objects.requireNonNull(agents, "A factory of agent services is required.");
+
+        this.webClientOptions = webClientOptions;
+        this.agents = agents;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable rxStart() {
+        webClient = WebClient.create(vertx, webClientOptions);
+
+        final OutageAgentService agent = agents.apply(webClient);
+
+        return vertx.eventBus().<SiteUpdateRequest>consumer(SiteUpdateDispatcher.ADDRESS, message ->
+        {
+            final String siteId = message.body().siteId();
+
+            LOG.trace("Updating {} on {}.", siteId, Thread.currentThread().getName());
+
+            agent.updateOutages(siteId, message.body().outages(), message.body().cutoff()).
+                    toSingleDefault(new SiteUpdateResult(siteId, null)).
+                    onErrorReturn(error -> new SiteUpdateResult(siteId, error)).
+                    subscribe(message::reply);
+        }).rxCompletionHandler();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable rxStop() {
+        // The consumer is unregistered by the undeployment itself.
+        webClient.close();
+
+        return Completable.complete();
+    }
+
+
+    private static final Logger LOG = LoggerFactory.getLogger(SiteUpdateVerticle.class);
+
+    private final WebClientOptions webClientOptions;
+    private final Function<WebClient, OutageAgentService> agents;
+
+    private WebClient webClient;
+}
@@ -0,0 +1,173 @@
+package uk.co.truenotfalse.cli;
+
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+
+/**
+ * Builds the options of the web client used to make requests to the API from configuration.
+ * <p>
+ * Configuration is a set of properties that may be loaded from a file and/or given on the command line, those on the
+ * command line taking precedence.  Any property not given takes its default, either the Vert.x default or, for batch
+ * and daemon modes, a default suited to making many requests.
+ * <ul>
+ *     <li>{@code maxPoolSize} - The maximum number of HTTP/1.x connections.</li>
+ *     <li>{@code http2MaxPoolSize} - The maximum number of HTTP/2 connections.</li>
+ *     <li>{@code pipelining} - Whether HTTP/1.1 requests are pipelined.</li>
+ *     <li>{@code pipeliningLimit} - The maximum number of requests pipelined on a connection.</li>
+ *     <li>{@code http2} - Whether HTTP/2 is used, negotiated with ALPN for TLS connections.</li>
+ *     <li>{@code keepAlive} - Whether connections are kept alive between requests.</li>
+ *     <li>{@code keepAliveTimeout} - The number of seconds an unused connection is kept alive for.</li>
+ *     <li>{@code tcpNoDelay} - Whether TCP_NODELAY is set, disabling Nagle's algorithm.</li>
+ *     <li>{@code tcpKeepAlive} - Whether TCP keep alive is set.</li>
+ *     <li>{@code connectTimeout} - The number of milliseconds to wait for a connection to be established.</li>
+ *     <li>{@code idleTimeout} - The number of seconds a connection may be idle for before it is closed, zero for
+ *     never.</li>
+ *     <li>{@code compression} - Whether compressed responses are accepted.</li>
+ * </ul>
+ */
+final class HttpClientConfig {
+    private HttpClientConfig() {
+        throw new UnsupportedOperationException("Instance of HttpClientConfig may not be instantiated.");
+    }
+
+
+    /**
+     * Loads configuration from a properties file.
+     *
+     * @param file The file to load.
+     * @return The properties loaded.
+     * @throws IOException Should the file not be readable.
+     */
+    static Properties load(final Path file) throws IOException {
+        final Properties config = new Properties();
+
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            config.load(reader);
+        }
+
+        return config;
+    }
+
+
+    /**
+     * Builds web client options.
+     *
+     * @param config         The configuration to apply, loaded from a file.
+     * @param overrides      Configuration taking precedence over that loaded, as given on the command line.
+     * @param highThroughput Whether to default to options suited to making many requests.
+     * @param https          Whether requests are made over TLS.
+     * @return The options built.
+     * @throws IllegalArgumentException Should any property be unknown or its value not be valid.
+     */
+    static WebClientOptions webClientOptions(final Properties config, final Map<String, String> overrides,
+                                             final boolean highThroughput, final boolean https) {
+        Objects.requireNonNull(config, "Configuration is required.");
+        Objects.requireNonNull(overrides, "Configuration overrides are required.");
+
+        final WebClientOptions options = new WebClientOptions();
+
+        if (highThroughput) {
+            options.setMaxPoolSize(HIGH_THROUGHPUT_POOL_SIZE).setTryUseCompression(true).setTcpNoDelay(true).
+                    setConnectTimeout(HIGH_THROUGHPUT_CONNECT_TIMEOUT_MILLIS).
+                    setIdleTimeout(HIGH_THROUGHPUT_IDLE_TIMEOUT_SECONDS);
+
+            // HTTP/2 can only be negotiated, falling back to HTTP/1.1 should the server not support it, over TLS.
+            if (https) {
+                useHttp2(options, true);
+            }
+        }
+
+        final Properties merged = new Properties();
+
+        merged.putAll(config);
+        merged.putAll(overrides);
+
+        for (final String name : merged.stringPropertyNames()) {
+            apply(options, name, merged.getProperty(name).strip());
+        }
+
+        return options;
+    }
+
+
+    private static void apply(final WebClientOptions options, final String name, final String value) {
+        switch (name) {
+            case "maxPoolSize" -> options.setMaxPoolSize(positiveInt(name, value));
+            case "http2MaxPoolSize" -> options.setHttp2MaxPoolSize(positiveInt(name, value));
+            case "pipelining" -> options.setPipelining(bool(name, value));
+            case "pipeliningLimit" -> options.setPipeliningLimit(positiveInt(name, value));
+            case "http2" -> useHttp2(options, bool(name, value));
+            case "keepAlive" -> options.setKeepAlive(bool(name, value));
+            case "keepAliveTimeout" -> {
+                options.setKeepAliveTimeout(nonNegativeInt(name, value));
+                options.setHttp2KeepAliveTimeout(nonNegativeInt(name, value));
+            }
+            case "tcpNoDelay" -> options.setTcpNoDelay(bool(name, value));
+            case "tcpKeepAlive" -> options.setTcpKeepAlive(bool(name, value));
+            case "connectTimeout" -> options.setConnectTimeout(nonNegativeInt(name, value));
+            case "idleTimeout" -> options.setIdleTimeout(nonNegativeInt(name, value));
+            case "compression" -> options.setTryUseCompression(bool(name, value));
+            default -> throw new IllegalArgumentException("Unknown HTTP option '" + name + "', expected one of " +
+                    OPTION_NAMES + '.');
+        }
+    }
+
+
+    private static void useHttp2(final WebClientOptions options, final boolean http2) {
+        options.setProtocolVersion(http2 ? HttpVersion.HTTP_2 : HttpVersion.HTTP_1_1).setUseAlpn(http2);
+    }
+
+
+    private static boolean bool(final String name, final String value) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("The HTTP option '" + name + "' must be true or false.");
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+
+    private static int positiveInt(final String name, final String value) {
+        final int intValue = nonNegativeInt(name, value);
+
+        if (intValue < 1) {
+            throw new IllegalArgumentException("The HTTP option '" + name + "' must be at least one.");
+        }
+
+        return intValue;
+    }
+
+
+    private static int nonNegativeInt(final String name, final String value) {
+        try {
+            final int intValue = Integer.parseInt(value);
+
+            if (intValue < 0) {
+                throw new IllegalArgumentException("The HTTP option '" + name + "' must not be negative.");
+            }
+
+            return intValue;
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("The HTTP option '" + name + "' is not a valid number.");
+        }
+    }
+
+
+    private static final Set<String> OPTION_NAMES =
+            Set.of("maxPoolSize", "http2MaxPoolSize", "pipelining", "pipeliningLimit", "http2", "keepAlive",
+                    "keepAliveTimeout", "tcpNoDelay", "tcpKeepAlive", "connectTimeout", "idleTimeout", "compression");
+    private static final int HIGH_THROUGHPUT_POOL_SIZE = 32;
+    private static final int HIGH_THROUGHPUT_CONNECT_TIMEOUT_MILLIS = 10_000;
+    private static final int HIGH_THROUGHPUT_IDLE_TIMEOUT_SECONDS = 120;
+}
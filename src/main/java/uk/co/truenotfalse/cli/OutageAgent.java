@@ -1,18 +1,51 @@
 package uk.co.truenotfalse.cli;
 
 import com.beust.jcommander.*;
+import com.beust.jcommander.converters.PathConverter;
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.file.FileSystemOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.rxjava3.core.Vertx;
 import io.vertx.rxjava3.ext.web.client.WebClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.co.truenotfalse.Version;
+import uk.co.truenotfalse.agent.FilePostedOutagesStore;
+import uk.co.truenotfalse.agent.InMemoryPostedOutagesStore;
+import uk.co.truenotfalse.agent.OutageAgentDaemon;
 import uk.co.truenotfalse.agent.OutageAgentService;
+import uk.co.truenotfalse.agent.PostedOutagesStore;
+import uk.co.truenotfalse.agent.SiteUpdateDispatcher;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.impl.CachingInterviewTestsMockApiDao;
 import uk.co.truenotfalse.dao.impl.InterviewTestsMockApiDaoImpl;
-
+import uk.co.truenotfalse.dao.impl.InterviewTestsMockApiDaoOptions;
+import uk.co.truenotfalse.dao.impl.SingleFlightInterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.impl.SnapshotInterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.impl.SnapshotStore;
+import uk.co.truenotfalse.metrics.InMemoryMetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.metrics.PrometheusMetricsEndpoint;
+import uk.co.truenotfalse.resilience.TokenBucketRateLimiter;
+
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
@@ -23,27 +56,179 @@ public class OutageAgent {
 
     public static void main(final String... args) throws Exception {
         final Args parsedArgs = handleArgs(args);
+        final Set<String> batchSiteIds = batchSiteIds(parsedArgs);
+        // A single site update, as run from cron, spends most of its time starting up so only sets up what it uses.
+        final boolean singleUpdate = !parsedArgs.isDaemon() && batchSiteIds.isEmpty();
+
+        // Metrics are only of use while they can be scraped, which is only while running as a daemon.
+        final MetricsRegistry metrics =
+                parsedArgs.isDaemon() && parsedArgs.getMetricsPort() > 0 ? new InMemoryMetricsRegistry() :
+                        MetricsRegistry.noop();
+        final InterviewTestsMockApiDaoOptions daoOptions = new InterviewTestsMockApiDaoOptions().setMetrics(metrics).
+                setMaxOutagesPerRequest(parsedArgs.getMaxOutagesPerRequest());
+
+        if (parsedArgs.getRateLimit() > 0.0) {
+            // Allow up to a second's worth of requests in a burst.
+            daoOptions.setRateLimiter(new TokenBucketRateLimiter(parsedArgs.getRateLimit(),
+                    (int) Math.max(1L, Math.round(parsedArgs.getRateLimit()))));
+        }
+
+        // Batch and daemon modes make many requests so default to a larger pool of connections.
+        final WebClientOptions webClientOptions =
+                webClientOptions(parsedArgs, parsedArgs.isDaemon() || !batchSiteIds.isEmpty());
+        final Vertx vertx = Vertx.vertx(singleUpdate ? singleUpdateVertxOptions() : new VertxOptions());
+        final InterviewTestsMockApiDao webClientApiDao =
+                new InterviewTestsMockApiDaoImpl(parsedArgs.getApiKey(), parsedArgs.getBaseUri(),
+                        WebClient.create(vertx, webClientOptions), daoOptions);
+        // Concurrent site updates share any identical requests in flight rather than each making their own, a single
+        // site update makes no identical requests to share.
+        final InterviewTestsMockApiDao singleFlightApiDao =
+                singleUpdate ? webClientApiDao : new SingleFlightInterviewTestsMockApiDao(webClientApiDao);
+        // A daemon starts from its snapshots, as its next run corrects anything stale, whereas a single run only falls
+        // back on them should the API be unavailable.
+        final SnapshotInterviewTestsMockApiDao snapshotApiDao =
+                parsedArgs.getSnapshotDir() != null ?
+                        new SnapshotInterviewTestsMockApiDao(singleFlightApiDao,
+                                new SnapshotStore(parsedArgs.getSnapshotDir()), SNAPSHOT_MAX_AGE,
+                                parsedArgs.isDaemon()) :
+                        null;
+        final InterviewTestsMockApiDao apiDao = snapshotApiDao != null ? snapshotApiDao : singleFlightApiDao;
+
+        final PostedOutagesStore postedOutages =
+                parsedArgs.getPostedOutagesFile() != null ?
+                        new FilePostedOutagesStore(parsedArgs.getPostedOutagesFile()) :
+                        new InMemoryPostedOutagesStore();
+
+        if (parsedArgs.isDaemon()) {
+            runDaemon(parsedArgs, batchSiteIds.isEmpty() ? Set.of(parsedArgs.getSiteId()) : batchSiteIds, vertx, apiDao,
+                    postedOutages, metrics);
+            return;
+        }
 
-        final OutageAgentService agent =
-                new OutageAgentService(new InterviewTestsMockApiDaoImpl(parsedArgs.getApiKey(), parsedArgs.getBaseUri(),
-                        WebClient.create(Vertx.vertx())));
+        final OutageAgentService agent = new OutageAgentService(apiDao, postedOutages);
+
+        final Completable update;
+
+        if (batchSiteIds.isEmpty()) {
+            update = agent.updateOutages(parsedArgs.getSiteId(), parsedArgs.getCutoff()).
+                    doOnComplete(() -> log().info("Updated {}.", parsedArgs.getSiteId()));
+        } else if (parsedArgs.getVerticles() > 1 && batchSiteIds.size() > 1) {
+            // The outages are requested once, through the main web client, while the sites are spread across
+            // verticles each with their own.
+            final SiteUpdateDispatcher dispatcher =
+                    new SiteUpdateDispatcher(vertx, agent, webClientOptions,
+                            webClient -> new OutageAgentService(
+                                    new InterviewTestsMockApiDaoImpl(parsedArgs.getApiKey(), parsedArgs.getBaseUri(),
+                                            webClient, daoOptions), postedOutages),
+                            Math.min(parsedArgs.getVerticles(), batchSiteIds.size()));
+
+            update = dispatcher.deploy().
+                    andThen(dispatcher.updateOutages(batchSiteIds, parsedArgs.getCutoff(),
+                            parsedArgs.getConcurrency())).
+                    doOnComplete(() -> log().info("Updated {} sites.", batchSiteIds.size()));
+        } else {
+            update = agent.updateOutages(batchSiteIds, parsedArgs.getCutoff(), parsedArgs.getConcurrency()).
+                    doOnComplete(() -> log().info("Updated {} sites.", batchSiteIds.size()));
+        }
+
+        if (singleUpdate) {
+            warmUpJson();
+        }
 
-        agent.updateOutages(parsedArgs.getSiteId(), parsedArgs.getCutoff()).
-                blockingSubscribe(() ->
+        update.blockingSubscribe(() ->
                         {
-                            LOG.info("Updated {}.", parsedArgs.getSiteId());
                             System.out.println("Site outages updated.");
+                            awaitSnapshots(snapshotApiDao);
                             Runtime.getRuntime().exit(SUCCESS_STATUS);
                         },
                         error ->
                         {
-                            LOG.error("An error occurred.", error);
+                            log().error("An error occurred.", error);
                             System.err.println("Error: " + error.getMessage());
+                            awaitSnapshots(snapshotApiDao);
                             Runtime.getRuntime().exit(FAILURE_STATUS);
                         });
     }
 
 
+    /**
+     * Waits for any snapshots still being saved in the background, which exiting would otherwise abandon.
+     */
+    private static void awaitSnapshots(final SnapshotInterviewTestsMockApiDao snapshotApiDao) {
+        if (snapshotApiDao != null &&
+                !snapshotApiDao.awaitSaves().blockingAwait(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log().warn("Snapshots still being saved were abandoned.");
+        }
+    }
+
+
+    /**
+     * Keeps the sites updated on a schedule until the process is terminated.
+     */
+    private static void runDaemon(final Args parsedArgs, final Set<String> siteIds, final Vertx vertx,
+                                  final InterviewTestsMockApiDao apiDao, final PostedOutagesStore postedOutages,
+                                  final MetricsRegistry metrics) {
+        final Duration interval = Duration.ofSeconds(parsedArgs.getInterval());
+        // Site info rarely changes so, in a long-running process, it is only requested afresh once it has expired.
+        final InterviewTestsMockApiDao cachingApiDao =
+                new CachingInterviewTestsMockApiDao(apiDao, siteIds.size(),
+                        Duration.ofSeconds(parsedArgs.getSiteInfoTtl()), interval);
+        final OutageAgentDaemon daemon =
+                new OutageAgentDaemon(vertx, new OutageAgentService(cachingApiDao, postedOutages, metrics), siteIds,
+                        parsedArgs.getCutoff(), interval, parsedArgs.getConcurrency());
+
+        if (parsedArgs.getMetricsPort() > 0) {
+            try {
+                new PrometheusMetricsEndpoint(vertx, metrics, parsedArgs.getMetricsPort()).start().blockingAwait();
+            } catch (final RuntimeException re) {
+                log().error("Unable to serve metrics.", re);
+                System.err.println("Error: unable to serve metrics on port " + parsedArgs.getMetricsPort() + '.');
+                Runtime.getRuntime().exit(FAILURE_STATUS);
+            }
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            if (!daemon.stop().blockingAwait(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Updates still in progress were abandoned.");
+            }
+
+            awaitSnapshots(apiDao instanceof SnapshotInterviewTestsMockApiDao snapshotApiDao ? snapshotApiDao : null);
+
+            vertx.rxClose().blockingAwait(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }, "outage-agent-shutdown"));
+
+        daemon.start();
+        System.out.println("Updating site outages every " + parsedArgs.getInterval() + " seconds.");
+    }
+
+
+    /**
+     * Sizes Vert.x for a single site update.  Only one event loop is needed, each of which otherwise opens a selector
+     * as Vert.x starts, and nothing is served from the class path so no file cache need be set up.  Host names are
+     * resolved by the JDK, sparing the loading of Netty's DNS client for the one or two looked up.
+     */
+    private static VertxOptions singleUpdateVertxOptions() {
+        System.getProperties().putIfAbsent(DISABLE_DNS_RESOLVER_PROPERTY, "true");
+
+        return new VertxOptions().setEventLoopPoolSize(1).
+                setFileSystemOptions(new FileSystemOptions().setClassPathResolvingEnabled(false).
+                        setFileCachingEnabled(false));
+    }
+
+
+    /**
+     * Loads the JSON codec on a thread of its own while the first requests are in flight, rather than on the event
+     * loop once their responses have arrived.
+     */
+    private static void warmUpJson() {
+        final Thread warmUp = new Thread(() -> new JsonObject("{\"devices\":[]}").encode(), "json-warm-up");
+
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+
     private static Args handleArgs(final String... args) {
         final Args parsedArgs = new Args();
         final JCommander commandLineParser = JCommander.newBuilder().addObject(parsedArgs).build();
@@ -67,11 +252,80 @@ public class OutageAgent {
         return parsedArgs;
     }
 
+    /**
+     * Gathers the site IDs given for a batch update from both the site ID list and site ID file options.
+     *
+     * @return The site IDs to update in a batch or an empty set if a single site update was requested.
+     */
+    private static Set<String> batchSiteIds(final Args parsedArgs) {
+        final Set<String> siteIds = new LinkedHashSet<>();
+
+        for (final String siteId : parsedArgs.getSiteIds()) {
+            if (!siteId.isBlank()) {
+                siteIds.add(siteId.strip());
+            }
+        }
+
+        if (parsedArgs.getSiteIdsFile() != null) {
+            try {
+                // One site ID per line, blank lines and lines starting with # are ignored.
+                for (final String line : Files.readAllLines(parsedArgs.getSiteIdsFile())) {
+                    final String siteId = line.strip();
+
+                    if (!siteId.isEmpty() && !siteId.startsWith("#")) {
+                        siteIds.add(siteId);
+                    }
+                }
+            } catch (final IOException ioe) {
+                log().error("Unable to read site IDs file.", ioe);
+                System.err.println("Error: unable to read site IDs from " + parsedArgs.getSiteIdsFile() + '.');
+                Runtime.getRuntime().exit(FAILURE_STATUS);
+            }
+        }
+
+        return siteIds;
+    }
+
+    /**
+     * Builds the web client options from the HTTP config file and options.
+     */
+    private static WebClientOptions webClientOptions(final Args parsedArgs, final boolean highThroughput) {
+        Properties config = new Properties();
+
+        if (parsedArgs.getHttpConfigFile() != null) {
+            try {
+                config = HttpClientConfig.load(parsedArgs.getHttpConfigFile());
+            } catch (final IOException ioe) {
+                log().error("Unable to read HTTP config file.", ioe);
+                System.err.println("Error: unable to read HTTP configuration from " + parsedArgs.getHttpConfigFile() + '.');
+                Runtime.getRuntime().exit(FAILURE_STATUS);
+            }
+        }
+
+        try {
+            return HttpClientConfig.webClientOptions(config, parsedArgs.getHttpOptions(), highThroughput,
+                    parsedArgs.getBaseUri().regionMatches(true, 0, "https:", 0, 6));
+        } catch (final IllegalArgumentException iae) {
+            System.err.println("Error: " + iae.getMessage());
+            Runtime.getRuntime().exit(FAILURE_STATUS);
+
+            throw iae;
+        }
+    }
+
+    /**
+     * Looks the logger up when first used, so that runs ending before anything is logged, such as those showing the
+     * help or rejecting the arguments, do not configure Log4j2 at all.
+     */
+    private static Logger log() {
+        return LoggerFactory.getLogger(OutageAgent.class);
+    }
+
     private static void printVersion() {
         final String version = APP_VERSION;
 
         System.out.println(version);
-        LOG.info(version);
+        log().info(version);
     }
 
 
@@ -101,6 +355,62 @@ public class OutageAgent {
             return cutoff;
         }
 
+        public List<String> getSiteIds() {
+            return siteIds;
+        }
+
+        public Path getSiteIdsFile() {
+            return siteIdsFile;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public double getRateLimit() {
+            return rateLimit;
+        }
+
+        public boolean isDaemon() {
+            return daemon;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public long getSiteInfoTtl() {
+            return siteInfoTtl;
+        }
+
+        public Path getPostedOutagesFile() {
+            return postedOutagesFile;
+        }
+
+        public Path getHttpConfigFile() {
+            return httpConfigFile;
+        }
+
+        public Map<String, String> getHttpOptions() {
+            return httpOptions;
+        }
+
+        public int getMetricsPort() {
+            return metricsPort;
+        }
+
+        public int getMaxOutagesPerRequest() {
+            return maxOutagesPerRequest;
+        }
+
+        public Path getSnapshotDir() {
+            return snapshotDir;
+        }
+
+        public int getVerticles() {
+            return verticles;
+        }
+
 
         @Parameter(names = {ENDPOINT_BASE_OPTION, SHORT_ENDPOINT_BASE_OPTION}, validateWith = ArgsValidator.class,
                 description = "The base URI of the API instance to use.",
@@ -123,6 +433,76 @@ public class OutageAgent {
                 descriptionKey = "cutoff.description")
         private OffsetDateTime cutoff = DEFAULT_CUTOFF;
 
+        @Parameter(names = {SITE_IDS_OPTION, SHORT_SITE_IDS_OPTION},
+                description = "A comma separated list of the IDs of sites to query and update in a batch.  Overrides the site ID option.",
+                descriptionKey = "siteIds.description")
+        private List<String> siteIds = new ArrayList<>();
+
+        @Parameter(names = {SITE_IDS_FILE_OPTION, SHORT_SITE_IDS_FILE_OPTION}, converter = PathConverter.class,
+                description = "A file listing the IDs of sites to query and update in a batch, one per line.  Overrides the site ID option.",
+                descriptionKey = "siteIdsFile.description")
+        private Path siteIdsFile;
+
+        @Parameter(names = {CONCURRENCY_OPTION, SHORT_CONCURRENCY_OPTION}, validateWith = ArgsValidator.class,
+                description = "The maximum number of sites to update concurrently in a batch.",
+                descriptionKey = "concurrency.description")
+        private int concurrency = DEFAULT_CONCURRENCY;
+
+        @Parameter(names = {RATE_LIMIT_OPTION, SHORT_RATE_LIMIT_OPTION}, validateWith = ArgsValidator.class,
+                description = "The maximum number of requests per second to make to the API.  Zero for no limit.",
+                descriptionKey = "rateLimit.description")
+        private double rateLimit = 0.0;
+
+        @Parameter(names = {DAEMON_OPTION, SHORT_DAEMON_OPTION},
+                description = "Keeps running, updating the sites on a schedule, until terminated.",
+                descriptionKey = "daemon.description")
+        private boolean daemon = false;
+
+        @Parameter(names = {INTERVAL_OPTION, SHORT_INTERVAL_OPTION}, validateWith = ArgsValidator.class,
+                description = "The number of seconds between scheduled updates when running as a daemon.",
+                descriptionKey = "interval.description")
+        private long interval = DEFAULT_INTERVAL_SECONDS;
+
+        @Parameter(names = {SITE_INFO_TTL_OPTION}, validateWith = ArgsValidator.class,
+                description = "The number of seconds site info is reused for when running as a daemon.",
+                descriptionKey = "siteInfoTtl.description")
+        private long siteInfoTtl = DEFAULT_SITE_INFO_TTL_SECONDS;
+
+        @Parameter(names = {POSTED_OUTAGES_FILE_OPTION}, converter = PathConverter.class,
+                description = "A file to record the outages posted to each site in so that unchanged outages are not posted again.",
+                descriptionKey = "postedOutagesFile.description")
+        private Path postedOutagesFile;
+
+        @Parameter(names = {HTTP_CONFIG_OPTION}, converter = PathConverter.class,
+                description = "A properties file configuring the HTTP client e.g. maxPoolSize=64 or http2=true.",
+                descriptionKey = "httpConfig.description")
+        private Path httpConfigFile;
+
+        @DynamicParameter(names = {HTTP_OPTION, SHORT_HTTP_OPTION},
+                description = "Configures the HTTP client, overriding the HTTP config file e.g. -H maxPoolSize=64.",
+                descriptionKey = "http.description")
+        private Map<String, String> httpOptions = new HashMap<>();
+
+        @Parameter(names = {METRICS_PORT_OPTION}, validateWith = ArgsValidator.class,
+                description = "The local port to serve metrics on, in the Prometheus text format at /metrics, when running as a daemon.  Zero for none.",
+                descriptionKey = "metricsPort.description")
+        private int metricsPort = 0;
+
+        @Parameter(names = {MAX_OUTAGES_PER_REQUEST_OPTION}, validateWith = ArgsValidator.class,
+                description = "The maximum number of outages to post to a site in one request, larger updates are posted in chunks.  Zero for no maximum.",
+                descriptionKey = "maxOutagesPerRequest.description")
+        private int maxOutagesPerRequest = 0;
+
+        @Parameter(names = {SNAPSHOT_DIR_OPTION}, converter = PathConverter.class,
+                description = "A directory to keep snapshots of the outages and site info fetched in, to start from and to fall back on should the API be unavailable.",
+                descriptionKey = "snapshotDir.description")
+        private Path snapshotDir;
+
+        @Parameter(names = {VERTICLES_OPTION}, validateWith = ArgsValidator.class,
+                description = "The number of verticles, each with its own HTTP client and event loop, to spread the sites of a batch update across.  Defaults to the number of processors.",
+                descriptionKey = "verticles.description")
+        private int verticles = Runtime.getRuntime().availableProcessors();
+
         @Parameter(names = {"--version"}, help = true, hidden = true, description = "Displays version information and then exits.",
                 descriptionKey = "versionOption.description")
         private boolean version = false;
@@ -157,6 +537,50 @@ public class OutageAgent {
                         throw new ParameterException("The cutoff format is not valid.");
                     }
                 }
+                case RATE_LIMIT_OPTION, SHORT_RATE_LIMIT_OPTION -> {
+                    try {
+                        if (!(Double.parseDouble(value) >= 0.0)) throw new ParameterException("The rate limit must not be negative.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The rate limit is not valid.");
+                    }
+                }
+                case INTERVAL_OPTION, SHORT_INTERVAL_OPTION, SITE_INFO_TTL_OPTION -> {
+                    try {
+                        if (Long.parseLong(value) < 1L) throw new ParameterException("The number of seconds must be at least one.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The number of seconds is not valid.");
+                    }
+                }
+                case METRICS_PORT_OPTION -> {
+                    try {
+                        final int port = Integer.parseInt(value);
+
+                        if (port < 0 || port > 65535) throw new ParameterException("The metrics port must be between 0 and 65535.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The metrics port is not valid.");
+                    }
+                }
+                case MAX_OUTAGES_PER_REQUEST_OPTION -> {
+                    try {
+                        if (Integer.parseInt(value) < 0) throw new ParameterException("The maximum number of outages per request must not be negative.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The maximum number of outages per request is not valid.");
+                    }
+                }
+                case VERTICLES_OPTION -> {
+                    try {
+                        if (Integer.parseInt(value) < 1) throw new ParameterException("The number of verticles must be at least one.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The number of verticles is not valid.");
+                    }
+                }
+                case CONCURRENCY_OPTION, SHORT_CONCURRENCY_OPTION -> {
+                    try {
+                        if (Integer.parseInt(value) < 1) throw new ParameterException("The concurrency must be at least one.");
+                    } catch (final NumberFormatException nfe) {
+                        throw new ParameterException("The concurrency is not valid.");
+                    }
+                }
             }
         }
     }
@@ -177,12 +601,38 @@ public class OutageAgent {
     private static final String SHORT_API_KEY_OPTION = "-a";
     private static final String CUTOFF_OPTION = "--cutoff";
     private static final String SHORT_CUTOFF_OPTION = "-c";
+    private static final String SITE_IDS_OPTION = "--siteIds";
+    private static final String SHORT_SITE_IDS_OPTION = "-S";
+    private static final String SITE_IDS_FILE_OPTION = "--siteIdsFile";
+    private static final String SHORT_SITE_IDS_FILE_OPTION = "-f";
+    private static final String CONCURRENCY_OPTION = "--concurrency";
+    private static final String SHORT_CONCURRENCY_OPTION = "-n";
+    private static final String RATE_LIMIT_OPTION = "--rateLimit";
+    private static final String SHORT_RATE_LIMIT_OPTION = "-r";
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String SHORT_DAEMON_OPTION = "-d";
+    private static final String INTERVAL_OPTION = "--interval";
+    private static final String SHORT_INTERVAL_OPTION = "-i";
+    private static final String SITE_INFO_TTL_OPTION = "--siteInfoTtl";
+    private static final String POSTED_OUTAGES_FILE_OPTION = "--postedOutagesFile";
+    private static final String HTTP_CONFIG_OPTION = "--httpConfig";
+    private static final String HTTP_OPTION = "--http";
+    private static final String SHORT_HTTP_OPTION = "-H";
+    private static final String METRICS_PORT_OPTION = "--metricsPort";
+    private static final String MAX_OUTAGES_PER_REQUEST_OPTION = "--maxOutagesPerRequest";
+    private static final String SNAPSHOT_DIR_OPTION = "--snapshotDir";
+    private static final String VERTICLES_OPTION = "--verticles";
 
     private static final String DEFAULT_BASE_URI = "https://api.krakenflex.systems/interview-tests-mock-api/v1";
     private static final String DEFAULT_SITE_ID = "norwich-pear-tree";
     private static final OffsetDateTime DEFAULT_CUTOFF =
             OffsetDateTime.parse("2022-01-01T00:00:00.000Z", ISO_OFFSET_DATE_TIME);
+    private static final int DEFAULT_CONCURRENCY = 8;
+    private static final long DEFAULT_INTERVAL_SECONDS = 300L;
+    private static final long DEFAULT_SITE_INFO_TTL_SECONDS = 3600L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+    private static final Duration SNAPSHOT_MAX_AGE = Duration.ofDays(1L);
+    private static final String DISABLE_DNS_RESOLVER_PROPERTY = "vertx.disableDnsResolver";
 
-    private static final Logger LOG = LoggerFactory.getLogger(OutageAgent.class);
     private static final String APP_VERSION = "Outage Agent/" + new Version().getVersion();
 }
@@ -0,0 +1,98 @@
+package uk.co.truenotfalse.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Makes a single site update against a local stub of the API, in the same way as a run from cron, so that the classes
+ * it loads can be archived.  Run by the build, with {@code -XX:ArchiveClassesAtExit}, to produce the AppCDS archive
+ * of the uber-jar, the run exits with the status of the update as {@link OutageAgent} does.
+ */
+public final class StartupTraining {
+    private StartupTraining() {
+        throw new UnsupportedOperationException("Instance of StartupTraining may not be instantiated.");
+    }
+
+
+    /**
+     * Updates the training site through a stub of the API.
+     *
+     * @param args Not used.
+     */
+    public static void main(final String... args) throws Exception {
+        final HttpServer stubApi = startStubApi(() ->
+        {
+        });
+
+        OutageAgent.main("--apiKey", API_KEY, "--baseUri", baseUri(stubApi), "--siteId", SITE_ID);
+    }
+
+
+    /**
+     * Starts a stub of the API, on an ephemeral local port, that knows of a single site with a single outage.
+     *
+     * @param onRequest Run as each request is received, before it is responded to.
+     * @return The started stub.
+     * @throws IOException Should the stub fail to bind.
+     */
+    static HttpServer startStubApi(final Runnable onRequest) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+        server.createContext(BASE_PATH + "/outages", exchange -> respond(exchange, onRequest, OUTAGES_JSON));
+        server.createContext(BASE_PATH + "/site-info/", exchange -> respond(exchange, onRequest, SITE_INFO_JSON));
+        server.createContext(BASE_PATH + "/site-outages/", exchange -> respond(exchange, onRequest, null));
+        server.start();
+
+        return server;
+    }
+
+
+    /**
+     * @return The base URI of the API as stubbed by the given server.
+     */
+    static String baseUri(final HttpServer stubApi) {
+        return "http://" + stubApi.getAddress().getHostString() + ':' + stubApi.getAddress().getPort() + BASE_PATH;
+    }
+
+
+    private static void respond(final HttpExchange exchange, final Runnable onRequest, final String json)
+            throws IOException {
+        onRequest.run();
+
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+
+            if (json == null) {
+                exchange.sendResponseHeaders(200, -1L);
+            } else {
+                final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+
+    static final String API_KEY = "startup-training";
+    static final String SITE_ID = "startup-training";
+
+    private static final String BASE_PATH = "/interview-tests-mock-api/v1";
+    private static final String OUTAGES_JSON =
+            "[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\",\"begin\":\"2022-05-23T12:21:27.377Z\"," +
+                    "\"end\":\"2022-11-13T02:16:38.905Z\"}]";
+    private static final String SITE_INFO_JSON =
+            "{\"id\":\"startup-training\",\"name\":\"Startup Training\",\"devices\":" +
+                    "[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\",\"name\":\"Battery 1\"}]}";
+}
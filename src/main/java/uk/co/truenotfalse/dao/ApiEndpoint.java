@@ -0,0 +1,20 @@
+package uk.co.truenotfalse.dao;
+
+/**
+ * The endpoints of the remote Interview Tests Mock API.  Used to configure and report on requests to each endpoint
+ * separately.
+ */
+public enum ApiEndpoint {
+    /**
+     * The endpoint listing all known outages.
+     */
+    OUTAGES,
+    /**
+     * The endpoint giving the devices of a site.
+     */
+    SITE_INFO,
+    /**
+     * The endpoint accepting outage updates for a site.
+     */
+    SITE_OUTAGES
+}
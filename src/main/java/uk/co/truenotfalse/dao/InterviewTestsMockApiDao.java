@@ -1,11 +1,15 @@
 package uk.co.truenotfalse.dao;
 
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 
 /**
@@ -19,6 +23,39 @@ public interface InterviewTestsMockApiDao {
      */
     Single<List<DeviceOutage>> getOutages();
 
+    /**
+     * Streams the known device outages in the system.  Outages are emitted as they are decoded rather than once the
+     * whole list has been received so the full list need never be held in memory.
+     *
+     * @return A stream of the known device outages.
+     */
+    Flowable<DeviceOutage> streamOutages();
+
+    /**
+     * Gets the known device outages in the system as a compact table, which holds a large list in a fraction of the
+     * memory of outage objects.
+     *
+     * @return A future result of the table of known device outages.
+     */
+    default Single<OutageTable> getOutageTable() {
+        return streamOutages().collect(OutageTable.Builder::new, OutageTable.Builder::add).
+                map(OutageTable.Builder::build);
+    }
+
+    /**
+     * Gets the known device outages in the system that begin at or after a cutoff as a compact table.  The outages
+     * before the cutoff are dropped as they are decoded, so the table only ever holds the outages that may be used.
+     *
+     * @param cutoff Outages beginning before this date-time are excluded from the table.
+     * @return A future result of the table of known device outages.
+     */
+    default Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        return streamOutages().filter(outage -> !outage.getBegin().isBefore(cutoff)).
+                collect(OutageTable.Builder::new, OutageTable.Builder::add).map(OutageTable.Builder::build);
+    }
+
     /**
      * Gets the device info for the named site.  This is, currently, simply device names mapped to their IDs.
      *
@@ -0,0 +1,246 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Decorates an {@link InterviewTestsMockApiDao} to cache site info.  Site info is held for a time to live after which
+ * it may still be served, while it is refreshed in the background, for a further stale period.  Only a bounded number
+ * of sites are held, the least recently used being evicted first.  Concurrent requests for the info of a site that is
+ * not cached share a single request to the decorated DAO.
+ * <p>
+ * All other requests are passed straight through to the decorated DAO.
+ */
+public class CachingInterviewTestsMockApiDao implements InterviewTestsMockApiDao {
+    /**
+     * Creates an instance of this class reading the time from the computation scheduler.
+     *
+     * @param apiDao               The DAO to decorate.
+     * @param maximumSize          The maximum number of sites to hold the info of.
+     * @param timeToLive           How long site info is served without being refreshed.
+     * @param staleWhileRevalidate How long site info continues to be served, while being refreshed, once its time to
+     *                             live has passed.
+     */
+    public CachingInterviewTestsMockApiDao(final InterviewTestsMockApiDao apiDao, final int maximumSize,
+                                           final Duration timeToLive, final Duration staleWhileRevalidate) {
+        this(apiDao, maximumSize, timeToLive, staleWhileRevalidate, Schedulers.computation());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao               The DAO to decorate.
+     * @param maximumSize          The maximum number of sites to hold the info of.
+     * @param timeToLive           How long site info is served without being refreshed.
+     * @param staleWhileRevalidate How long site info continues to be served, while being refreshed, once its time to
+     *                             live has passed.
+     * @param scheduler            The scheduler to read the time from.
+     */
+    public CachingInterviewTestsMockApiDao(final InterviewTestsMockApiDao apiDao, final int maximumSize,
+                                           final Duration timeToLive, final Duration staleWhileRevalidate,
+                                           final Scheduler scheduler) {
+        Objects.requireNonNull(apiDao, "An instance of API DAO is required.");
+        Objects.requireNonNull(timeToLive, "A time to live is required.");
+        Objects.requireNonNull(staleWhileRevalidate, "A stale period is required.");
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The cache must be able to hold at least one site.");
+        }
+        if (timeToLive.isNegative() || staleWhileRevalidate.isNegative()) {
+            throw new IllegalArgumentException("Cache periods may not be negative.");
+        }
+
+        this.apiDao = apiDao;
+        this.timeToLive = timeToLive.toMillis();
+        this.staleWhileRevalidate = staleWhileRevalidate.toMillis();
+        this.scheduler = scheduler;
+        // Access ordered so the eldest entry is the least recently used.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<List<DeviceOutage>> getOutages() {
+        return apiDao.getOutages();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flowable<DeviceOutage> streamOutages() {
+        return apiDao.streamOutages();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable() {
+        return apiDao.getOutageTable();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        return apiDao.getOutageTable(cutoff);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<Map<Object, String>> getSiteInfo(final String siteId) {
+        LOG.trace("getSiteInfo('{}') called.", siteId);
+
+        return Single.defer(() ->
+        {
+            final long now = scheduler.now(TimeUnit.MILLISECONDS);
+            final Map<Object, String> cached;
+            final long age;
+
+            synchronized (cache) {
+                final CacheEntry entry = cache.get(siteId);
+
+                cached = entry != null ? entry.siteInfo : null;
+                age = entry != null ? now - entry.loadedAt : 0L;
+            }
+
+            if (cached == null) {
+                return load(siteId);
+            }
+            if (age < timeToLive) {
+                return Single.just(cached);
+            }
+            if (age < timeToLive + staleWhileRevalidate) {
+                LOG.debug("Serving stale site info for '{}' while it is refreshed.", siteId);
+                load(siteId).subscribe(info -> LOG.trace("Refreshed site info for '{}'.", siteId),
+                        error -> LOG.warn("Failed to refresh site info for '{}'.", siteId, error));
+
+                return Single.just(cached);
+            }
+
+            return load(siteId);
+        });
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable updateSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        return apiDao.updateSiteOutages(siteId, outageUpdates);
+    }
+
+
+    /**
+     * Discards any cached info for a site so that it is requested afresh the next time it is needed.
+     *
+     * @param siteId The ID of the site.
+     */
+    public void invalidate(final String siteId) {
+        synchronized (cache) {
+            cache.remove(siteId);
+        }
+    }
+
+
+    /**
+     * Requests the info of a site unless a request for it is already in flight, in which case that request is shared.
+     */
+    private Single<Map<Object, String>> load(final String siteId) {
+        synchronized (cache) {
+            final CacheEntry entry = cache.computeIfAbsent(siteId, key -> new CacheEntry());
+
+            if (entry.inFlight == null) {
+                entry.inFlight =
+                        apiDao.getSiteInfo(siteId).
+                                doOnSuccess(info -> loaded(siteId, info)).
+                                doOnError(error -> failed(siteId)).
+                                cache();
+            }
+
+            return entry.inFlight;
+        }
+    }
+
+
+    private void loaded(final String siteId, final Map<Object, String> siteInfo) {
+        final long now = scheduler.now(TimeUnit.MILLISECONDS);
+
+        synchronized (cache) {
+            // The entry may have been evicted while the request was in flight.
+            final CacheEntry entry = cache.computeIfAbsent(siteId, key -> new CacheEntry());
+
+            entry.siteInfo = siteInfo;
+            entry.loadedAt = now;
+            entry.inFlight = null;
+        }
+    }
+
+
+    private void failed(final String siteId) {
+        synchronized (cache) {
+            final CacheEntry entry = cache.get(siteId);
+
+            if (entry != null) {
+                entry.inFlight = null;
+
+                // Keep any stale info, it may still be served until its stale period ends.
+                if (entry.siteInfo == null) {
+                    cache.remove(siteId);
+                }
+            }
+        }
+    }
+
+
+    private static class CacheEntry {
+        private Map<Object, String> siteInfo;
+        private long loadedAt;
+        private Single<Map<Object, String>> inFlight;
+    }
+
+
+    private final Logger LOG = LoggerFactory.getLogger(CachingInterviewTestsMockApiDao.class);
+
+    private final InterviewTestsMockApiDao apiDao;
+    private final long timeToLive;
+    private final long staleWhileRevalidate;
+    private final Scheduler scheduler;
+    private final Map<String, CacheEntry> cache;
+}
@@ -1,56 +1,98 @@
 package uk.co.truenotfalse.dao.impl;
 
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.functions.Action;
+import io.reactivex.rxjava3.functions.Consumer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.JsonEventType;
+import io.vertx.rxjava3.core.parsetools.JsonEvent;
+import io.vertx.rxjava3.core.Context;
+import io.vertx.rxjava3.core.RxHelper;
+import io.vertx.rxjava3.core.Vertx;
 import io.vertx.rxjava3.core.buffer.Buffer;
+import io.vertx.rxjava3.core.parsetools.JsonParser;
 import io.vertx.rxjava3.ext.web.client.HttpRequest;
 import io.vertx.rxjava3.ext.web.client.HttpResponse;
 import io.vertx.rxjava3.ext.web.client.WebClient;
 import io.vertx.rxjava3.ext.web.client.predicate.ErrorConverter;
 import io.vertx.rxjava3.ext.web.client.predicate.ResponsePredicate;
 import io.vertx.rxjava3.ext.web.client.predicate.ResponsePredicateResult;
+import io.vertx.rxjava3.ext.web.codec.BodyCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.BulkheadFullException;
+import uk.co.truenotfalse.ChunkedUpdateException;
+import uk.co.truenotfalse.CircuitOpenException;
 import uk.co.truenotfalse.NotFoundException;
 import uk.co.truenotfalse.TooManyRequestsException;
+import uk.co.truenotfalse.dao.ApiEndpoint;
 import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
 import uk.co.truenotfalse.model.DeviceOutage;
-import uk.co.truenotfalse.util.Rx3Utils;
-
+import uk.co.truenotfalse.model.OutageTable;
+import uk.co.truenotfalse.resilience.RateLimiter;
+import uk.co.truenotfalse.util.OffsetDateTimeCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.chrono.IsoChronology;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.ResolverStyle;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static java.time.temporal.ChronoField.*;
-
 
 /**
  * Implementation of the {@link InterviewTestsMockApiDao} interface using Unirest.
  */
 public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     /**
-     * Creates an instance of this class.
+     * Creates an instance of this class with default options.
      *
      * @param apiKey    The API key to authorize requests with.
      * @param baseUri   The base URI to use for request endpoints.
      * @param webClient The web client instance to use for making requests.
      */
     public InterviewTestsMockApiDaoImpl(final String apiKey, final String baseUri, final WebClient webClient) {
+        this(apiKey, baseUri, webClient, new InterviewTestsMockApiDaoOptions());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiKey    The API key to authorize requests with.
+     * @param baseUri   The base URI to use for request endpoints.
+     * @param webClient The web client instance to use for making requests.
+     * @param options   The options to configure request handling with.
+     */
+    public InterviewTestsMockApiDaoImpl(final String apiKey, final String baseUri, final WebClient webClient,
+                                        final InterviewTestsMockApiDaoOptions options) {
         LOG.trace("Creating instance with base URI of '{}'.", baseUri);
 
         Objects.requireNonNull(apiKey, "An API key is required.");
         Objects.requireNonNull(baseUri, "A base URI is required.");
         Objects.requireNonNull(webClient, "A web client instance is required.");
+        Objects.requireNonNull(options, "Options are required.");
 
         if (apiKey.isBlank()) {
             throw new IllegalArgumentException("A non-blank API key is required.");
@@ -62,6 +104,17 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
         this.baseUri = baseUri;
         this.apiKey = apiKey;
         this.webClient = webClient;
+        this.options = options;
+
+        final int maxValidatedResponses = options.getMaxValidatedResponses();
+
+        this.validatedResponses =
+                Collections.synchronizedMap(new LinkedHashMap<Object, ValidatedResponse<?>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<Object, ValidatedResponse<?>> eldest) {
+                        return size() > maxValidatedResponses;
+                    }
+                });
     }
 
 
@@ -72,10 +125,42 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     public Single<List<DeviceOutage>> getOutages() {
         LOG.trace("getOutages() called.");
 
-        return authorize(webClient.getAbs(baseUri + OUTAGES_PATH)).
-                putHeader(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).expect(errorPredicate).timeout(10000L).rxSend().
-                retryWhen(Rx3Utils.exponentialBackoff(1L, TimeUnit.SECONDS, 2.0f, 3)).
-                map(response -> mapOutagesResponse(response.bodyAsJsonArray()));
+        return conditionalGet(ApiEndpoint.OUTAGES, baseUri + OUTAGES_PATH,
+                body -> mapOutagesResponse(body.toJsonArray()));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flowable<DeviceOutage> streamOutages() {
+        LOG.trace("streamOutages() called.");
+
+        // Failures are only retried before any outages have been emitted as retrying after would repeat them.
+        return retried(ApiEndpoint.OUTAGES, Flowable.defer(this::streamOutagesResponse));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable() {
+        LOG.trace("getOutageTable() called.");
+
+        return outageTable(new OutageTableKey(baseUri + OUTAGES_PATH, NO_CUTOFF));
+    }
+
+
+    /**
+     * {@inheritDoc}  The outages excluded are counted as they are decoded.
+     */
+    @Override
+    public Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        LOG.trace("getOutageTable({}) called.", cutoff);
+
+        return outageTable(new OutageTableKey(baseUri + OUTAGES_PATH, OutageTable.toCutoffMillis(cutoff)));
     }
 
 
@@ -86,10 +171,8 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     public Single<Map<Object, String>> getSiteInfo(final String siteId) {
         LOG.trace("getSiteInfo('{}') called.", siteId);
 
-        return authorize(webClient.getAbs(baseUri + SITE_INFO_PATH + siteId)).
-                putHeader(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).expect(errorPredicate).timeout(10000L).rxSend().
-                retryWhen(Rx3Utils.exponentialBackoff(1L, TimeUnit.SECONDS, 2.0f, 3)).
-                map(response -> mapSiteInfoResponse(response.bodyAsJsonObject()));
+        return conditionalGet(ApiEndpoint.SITE_INFO, baseUri + SITE_INFO_PATH + siteId,
+                body -> mapSiteInfoResponse(body.toJsonObject()));
     }
 
 
@@ -100,19 +183,47 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     public Completable updateSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
         LOG.trace("updateSiteOutages('{}', ...) called.", siteId);
 
-        final JsonArray body =
-                new JsonArray(outageUpdates.stream().
-                        map(outage -> new JsonObject().put("id", outage.getId().toString()).
-                                put("name", outage.getDeviceName()).
-                                put("begin", ISO_OFFSET_DATE_TIME.format(outage.getBegin())).
-                                put("end", outage.getEnd() != null ? ISO_OFFSET_DATE_TIME.format(outage.getEnd()) : null)).toList());
+        final int chunkSize = options.getMaxOutagesPerRequest();
+
+        if (chunkSize == 0 || outageUpdates.size() <= chunkSize) {
+            return postSiteOutages(siteId, outageUpdates);
+        }
 
-        LOG.trace("Sending update to /site-outages/{}: {}", siteId, body);
+        final int chunks = (outageUpdates.size() - 1) / chunkSize + 1;
+
+        LOG.debug("Sending update to /site-outages/{} in {} chunks.", siteId, chunks);
+
+        // Each chunk is retried on its own and, as its body is only encoded when it is sent, only the chunks in flight
+        // are ever held encoded.
+        return Flowable.range(0, chunks).
+                flatMapSingle(chunk -> Completable.defer(() -> postSiteOutages(siteId,
+                                        outageUpdates.subList(chunk * chunkSize,
+                                                Math.min(outageUpdates.size(), (chunk + 1) * chunkSize)))).
+                                toSingleDefault(new ChunkResult(chunk, null)).
+                                onErrorReturn(error -> new ChunkResult(chunk, error)),
+                        false, options.getUpdateConcurrency()).
+                filter(result -> result.error() != null).
+                toMap(ChunkResult::chunk, ChunkResult::error).
+                flatMapCompletable(failedChunks -> failedChunks.isEmpty() ? Completable.complete() :
+                        Completable.error(new ChunkedUpdateException(siteId, chunks, failedChunks)));
+    }
 
-        return authorize(webClient.postAbs(baseUri + SITE_OUTAGES_PATH + siteId)).
-                putHeader(CONTENT_TYPE_KEY, JSON_MEDIA_TYPE).putHeader(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).
-                expect(errorPredicate).timeout(10000L).rxSendJson(body).
-                retryWhen(Rx3Utils.exponentialBackoff(1L, TimeUnit.SECONDS, 2.0f, 3)).
+
+    private Completable postSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        // Encoded once up front, rather than on each attempt, which also gives the size sent.
+        final Buffer encodedBody = Buffer.newInstance(SiteOutagesJsonWriter.write(outageUpdates));
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Sending update to /site-outages/{}: {}", siteId, encodedBody);
+        }
+
+        return retried(ApiEndpoint.SITE_OUTAGES,
+                send(ApiEndpoint.SITE_OUTAGES, authorize(webClient.postAbs(baseUri + SITE_OUTAGES_PATH + siteId)).
+                        putHeader(CONTENT_TYPE_KEY, JSON_MEDIA_TYPE).putHeader(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).
+                        expect(errorPredicate).timeout(10000L).rxSendBuffer(encodedBody)).
+                        doOnSubscribe(subscription -> metrics().counter(MetricNames.API_BYTES_SENT,
+                                MetricNames.ENDPOINT_LABEL, ApiEndpoint.SITE_OUTAGES.name()).
+                                increment(encodedBody.length()))).
                 flatMapCompletable(bufferHttpResponse -> Completable.complete());
     }
 
@@ -122,20 +233,526 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     }
 
 
-    private List<DeviceOutage> mapOutagesResponse(final JsonArray response) {
-        return response.stream().
-                map(outage ->
+    /**
+     * Makes a GET request that, when conditional requests are enabled, is conditional on the response having changed
+     * since the previous request for the same URI.  Should the response not have changed, either because the server
+     * says so or because the body is identical, the result of mapping the previous response is reused.
+     *
+     * @param endpoint   The endpoint being requested.
+     * @param uri        The absolute URI to request.
+     * @param bodyMapper Maps the body of a response to the result.
+     * @return A future result of the mapped response.
+     */
+    private <T> Single<T> conditionalGet(final ApiEndpoint endpoint, final String uri,
+                                         final Function<Buffer, T> bodyMapper) {
+        return Single.defer(() ->
+        {
+            final ValidatedResponse<T> previous = options.isConditionalRequests() ? validatedResponse(uri) : null;
+            final MetricsRegistry.Histogram parseSeconds =
+                    metrics().histogram(MetricNames.API_PARSE_SECONDS, MetricNames.ENDPOINT_LABEL, endpoint.name());
+
+            return retried(endpoint, send(endpoint, conditionalRequest(uri, previous).rxSend())).
+                    flatMap(response -> offloaded(response.body(), () ->
+                            mapValidatedResponse(uri, previous, response, () -> digest(response.body()), () ->
+                            {
+                                final long start = System.nanoTime();
+
+                                try {
+                                    return bodyMapper.apply(response.body());
+                                } finally {
+                                    parseSeconds.recordNanos(System.nanoTime() - start);
+                                }
+                            })));
+        });
+    }
+
+
+    private Single<OutageTable> outageTable(final OutageTableKey key) {
+        // Outages are decoded straight into the table so no outage objects are created, a new table is started on
+        // each attempt so a retry never repeats outages.
+        return retried(ApiEndpoint.OUTAGES, Single.defer(() -> streamOutageTable(key))).
+                map(table ->
                 {
-                    final JsonObject outageJson = (JsonObject) outage;
+                    metrics().counter(MetricNames.OUTAGES_FILTERED).increment(table.excluded());
 
-                    return new DeviceOutage(outageJson.getValue("id"),
-                            OffsetDateTime.parse(outageJson.getString("begin"), ISO_OFFSET_DATE_TIME),
-                            OffsetDateTime.parse(outageJson.getString("end"), ISO_OFFSET_DATE_TIME));
-                }).toList();
+                    return table.outages();
+                });
     }
 
 
-    private Map<Object, String> mapSiteInfoResponse(final JsonObject response) {
+    /**
+     * Streams the outages into a table with a request that, when conditional requests are enabled, is conditional on
+     * the outages having changed since the previous table was built.  As the body is never held it is the outages
+     * decoded from it that are digested, the previous table being reused should they be the same.  Outages beginning
+     * before the cutoff of the key are skipped as they are decoded.
+     *
+     * @param key The key the previous table is held under.
+     * @return A future result of the table, with the number of outages excluded by the cutoff.
+     */
+    private Single<FilteredOutageTable> streamOutageTable(final OutageTableKey key) {
+        final ValidatedResponse<FilteredOutageTable> previous =
+                options.isConditionalRequests() ? validatedResponse(key) : null;
+        final MessageDigest digest = options.isConditionalRequests() ? newDigest() : null;
+        final OutageTable.Builder table = new OutageTable.Builder();
+        final AtomicInteger excluded = new AtomicInteger();
+        final AtomicReference<HttpResponse<Void>> received = new AtomicReference<>();
+        // Unset should nothing be decoded, as when not modified.
+        final AtomicReference<Long> decodeStart = new AtomicReference<>();
+
+        return streamOutageObjects(conditionalRequest(key.uri(), previous), received::set,
+                () -> decodeStart.set(System.nanoTime())).
+                doOnNext(outageJson ->
+                {
+                    if (!addOutage(table, outageJson, key.cutoffMillis())) {
+                        excluded.incrementAndGet();
+                    }
+                    if (digest != null) {
+                        digestOutage(digest, outageJson);
+                    }
+                }).
+                ignoreElements().
+                toSingle(() ->
+                {
+                    final FilteredOutageTable outages = mapValidatedResponse(key, previous, received.get(),
+                            () -> digest != null ? digest.digest() : null,
+                            () -> new FilteredOutageTable(table.build(), excluded.get()));
+
+                    // Decoding is interleaved with receiving the body so this includes any wait for the rest of it.
+                    if (decodeStart.get() != null) {
+                        metrics().histogram(MetricNames.API_PARSE_SECONDS, MetricNames.ENDPOINT_LABEL,
+                                ApiEndpoint.OUTAGES.name()).recordNanos(System.nanoTime() - decodeStart.get());
+                    }
+
+                    return outages;
+                });
+    }
+
+
+    /**
+     * A GET request that, should there be a previous response, is conditional on the response having changed since.
+     */
+    private HttpRequest<Buffer> conditionalRequest(final String uri, final ValidatedResponse<?> previous) {
+        final HttpRequest<Buffer> request =
+                authorize(webClient.getAbs(uri)).putHeader(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).
+                        expect(errorPredicate).timeout(10000L);
+
+        if (previous != null) {
+            if (previous.etag() != null) {
+                request.putHeader(IF_NONE_MATCH_HEADER_KEY, previous.etag());
+            }
+            if (previous.lastModified() != null) {
+                request.putHeader(IF_MODIFIED_SINCE_HEADER_KEY, previous.lastModified());
+            }
+        }
+
+        return request;
+    }
+
+
+    /**
+     * Maps a response body, on the mapping scheduler should it be large, handing the result back to the Vert.x
+     * context of the caller, if any.
+     *
+     * @param body    The body to be mapped.
+     * @param mapping Maps the body.
+     * @return A future result of the mapping.
+     */
+    private <T> Single<T> offloaded(final Buffer body, final Callable<T> mapping) {
+        if (body == null || body.length() < options.getOffloadThreshold()) {
+            return Single.fromCallable(mapping);
+        }
+
+        final Context context = Vertx.currentContext();
+        final Single<T> offloaded = Single.fromCallable(mapping).subscribeOn(options.getMappingScheduler());
+
+        return context != null ? offloaded.observeOn(RxHelper.scheduler(context)) : offloaded;
+    }
+
+
+    /**
+     * Maps a response, reusing the previous result should the response not have changed, and holds the result for
+     * the next conditional request.
+     *
+     * @param key      The key the result is held under.
+     * @param previous The previous result, if any.
+     * @param response The response.
+     * @param digester Digests the content of the response.
+     * @param mapper   Maps the content of the response.
+     * @return The result.
+     */
+    private <T> T mapValidatedResponse(final Object key, final ValidatedResponse<T> previous,
+                                       final HttpResponse<?> response, final Supplier<byte[]> digester,
+                                       final Supplier<T> mapper) {
+        if (previous != null && response.statusCode() == NOT_MODIFIED_STATUS) {
+            LOG.trace("{} not modified.", key);
+
+            return previous.value();
+        }
+
+        if (!options.isConditionalRequests()) {
+            return mapper.get();
+        }
+
+        // Should the server not support validators, at least avoid decoding a body that has not changed.
+        final byte[] digest = digester.get();
+        final T value;
+
+        if (previous != null && digest != null && Arrays.equals(previous.digest(), digest)) {
+            LOG.trace("{} unchanged.", key);
+            value = previous.value();
+        } else {
+            value = mapper.get();
+        }
+
+        validatedResponses.put(key, new ValidatedResponse<>(response.getHeader(ETAG_HEADER_KEY),
+                response.getHeader(LAST_MODIFIED_HEADER_KEY), digest, value));
+
+        return value;
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private <T> ValidatedResponse<T> validatedResponse(final Object key) {
+        return (ValidatedResponse<T>) validatedResponses.get(key);
+    }
+
+
+    private static byte[] digest(final Buffer body) {
+        if (body == null) {
+            return null;
+        }
+
+        final MessageDigest digest = newDigest();
+
+        // Digest the underlying bytes in place rather than copying them out of the buffer.
+        digest.update(body.getDelegate().getByteBuf().nioBuffer());
+
+        return digest.digest();
+    }
+
+
+    /**
+     * Digests the fields of an outage held in a table, separated so that no two different runs of outages digest
+     * alike.
+     */
+    private static void digestOutage(final MessageDigest digest, final JsonObject outageJson) {
+        final Object id = outageJson.getValue("id");
+        // Distinguishes a string ID from a number with the same digits.
+        final String fields = (id instanceof String ? "\"" : "") + id + '\u001f' + outageJson.getString("begin") +
+                '\u001f' + outageJson.getString("end") + '\u001e';
+
+        digest.update(fields.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException nsae) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(nsae);
+        }
+    }
+
+
+    /**
+     * Applies the handling common to all requests to an exchange with an endpoint.
+     *
+     * @param endpoint The endpoint the exchange is with.
+     * @param exchange The exchange, which must not start until subscribed to.
+     * @return The exchange with request handling applied.
+     */
+    private <T> Single<HttpResponse<T>> send(final ApiEndpoint endpoint, final Single<HttpResponse<T>> exchange) {
+        final RateLimiter rateLimiter = options.getRateLimiter(endpoint);
+
+        // Waiting on the rate limiter is outside the circuit breaker so that deliberate delays are not taken as the
+        // endpoint being slow, while waiting on the bulkhead is inside as being queued is a symptom of slowness.
+        return rateLimiter.acquire().
+                andThen(Single.defer(() ->
+                {
+                    final long start = System.nanoTime();
+
+                    return options.getCircuitBreaker(endpoint).apply(options.getBulkhead(endpoint).apply(exchange)).
+                            doOnEvent((response, error) ->
+                                    recordRequest(endpoint, response, error, System.nanoTime() - start));
+                })).
+                doOnSuccess(response -> applyRateLimitHeaders(rateLimiter, response::getHeader)).
+                doOnError(error ->
+                {
+                    if (error instanceof TooManyRequestsException tooManyRequests && tooManyRequests.getRetryAfter() != null) {
+                        LOG.debug("{} requests paused for {}.", endpoint, tooManyRequests.getRetryAfter());
+                        rateLimiter.pause(tooManyRequests.getRetryAfter());
+                    }
+                });
+    }
+
+
+    private void recordRequest(final ApiEndpoint endpoint, final HttpResponse<?> response, final Throwable error,
+                               final long durationNanos) {
+        final String status = response != null ? Integer.toString(response.statusCode()) : errorStatus(error);
+
+        metrics().histogram(MetricNames.API_REQUEST_SECONDS, MetricNames.ENDPOINT_LABEL, endpoint.name(),
+                MetricNames.STATUS_LABEL, status).recordNanos(durationNanos);
+
+        if (response != null) {
+            // Streamed bodies are not held in the response so rely on the declared length of those.
+            final long received = response.body() instanceof Buffer body ? body.length() :
+                    parseContentLength(response.getHeader(CONTENT_LENGTH_HEADER_KEY));
+
+            if (received > 0L) {
+                metrics().counter(MetricNames.API_BYTES_RECEIVED, MetricNames.ENDPOINT_LABEL, endpoint.name()).
+                        increment(received);
+            }
+        }
+    }
+
+
+    /**
+     * The status reported for a request that failed, the status code where the error was raised for an error response.
+     */
+    static String errorStatus(final Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return "400";
+        } else if (error instanceof SecurityException) {
+            return "403";
+        } else if (error instanceof NotFoundException) {
+            return "404";
+        } else if (error instanceof TooManyRequestsException) {
+            return "429";
+        } else if (error instanceof CircuitOpenException) {
+            return "circuit_open";
+        } else if (error instanceof BulkheadFullException) {
+            return "bulkhead_full";
+        } else if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+
+        return "error";
+    }
+
+
+    /**
+     * The error raised for an error response giving a message in its body.
+     *
+     * @param statusCode The status code of the response.
+     * @param message    The message given.
+     * @param retryAfter The value of the response's Retry-After header, if any.
+     */
+    static RuntimeException errorResponse(final int statusCode, final String message, final String retryAfter) {
+        return switch (statusCode) {
+            case 400 -> new IllegalArgumentException(message);
+            // Key not valid should be a 401, doing something not permitted to a valid key should be a 403.
+            case 403 -> new SecurityException(message);
+            case 404 -> new NotFoundException(message);
+            case 429 -> new TooManyRequestsException(message, parseRetryAfter(retryAfter));
+            default -> new RuntimeException(message);
+        };
+    }
+
+
+    private static long parseContentLength(final String contentLength) {
+        try {
+            return contentLength != null ? Long.parseLong(contentLength.strip()) : 0L;
+        } catch (final NumberFormatException nfe) {
+            return 0L;
+        }
+    }
+
+
+    /**
+     * Applies the endpoint's retry policy to a call, counting the retries made.
+     */
+    private <T> Single<T> retried(final ApiEndpoint endpoint, final Single<T> call) {
+        return Single.defer(() ->
+        {
+            final AtomicBoolean attempted = new AtomicBoolean();
+
+            return options.getRetryPolicy(endpoint).
+                    apply(call.doOnSubscribe(subscription -> countRetry(endpoint, attempted)));
+        });
+    }
+
+
+    /**
+     * Applies the endpoint's retry policy to a streaming call, counting the retries made.
+     */
+    private <T> Flowable<T> retried(final ApiEndpoint endpoint, final Flowable<T> call) {
+        return Flowable.defer(() ->
+        {
+            final AtomicBoolean attempted = new AtomicBoolean();
+
+            return options.getRetryPolicy(endpoint).
+                    apply(call.doOnSubscribe(subscription -> countRetry(endpoint, attempted)));
+        });
+    }
+
+
+    private void countRetry(final ApiEndpoint endpoint, final AtomicBoolean attempted) {
+        if (attempted.getAndSet(true)) {
+            metrics().counter(MetricNames.API_RETRIES, MetricNames.ENDPOINT_LABEL, endpoint.name()).increment();
+        }
+    }
+
+
+    private MetricsRegistry metrics() {
+        return options.getMetrics();
+    }
+
+
+    /**
+     * Pauses the rate limiter when a response reports that no more requests are allowed until the limit resets.
+     *
+     * @param rateLimiter The rate limiter of the endpoint responding.
+     * @param headers     Looks up the value of a header of the response by name, {@code null} if absent.
+     */
+    static void applyRateLimitHeaders(final RateLimiter rateLimiter, final Function<String, String> headers) {
+        final String remaining = firstHeader(headers, RATE_LIMIT_REMAINING_HEADER_KEYS);
+        final String reset = firstHeader(headers, RATE_LIMIT_RESET_HEADER_KEYS);
+
+        if (remaining != null && reset != null && remaining.strip().equals("0")) {
+            try {
+                final long resetValue = Long.parseLong(reset.strip());
+                // Some servers give the reset as an epoch time rather than a number of seconds to wait.
+                final long resetSeconds =
+                        resetValue > EPOCH_SECONDS_THRESHOLD ? resetValue - Instant.now().getEpochSecond() : resetValue;
+
+                if (resetSeconds > 0L) {
+                    rateLimiter.pause(Duration.ofSeconds(resetSeconds));
+                }
+            } catch (final NumberFormatException nfe) {
+                // Not a reset we understand so rely on the server reporting too many requests.
+            }
+        }
+    }
+
+
+    private static String firstHeader(final Function<String, String> headers, final List<String> keys) {
+        for (final String key : keys) {
+            final String value = headers.apply(key);
+
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Parses the value of a Retry-After header which may be either a number of seconds or an HTTP date.
+     *
+     * @return The period to wait or {@code null} if no valid period was given.
+     */
+    static Duration parseRetryAfter(final String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Duration.ofSeconds(Math.max(0L, Long.parseLong(retryAfter.strip())));
+        } catch (final NumberFormatException nfe) {
+            try {
+                final Duration untilDate =
+                        Duration.between(OffsetDateTime.now(),
+                                OffsetDateTime.parse(retryAfter.strip(), DateTimeFormatter.RFC_1123_DATE_TIME));
+
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (final DateTimeParseException dtpe) {
+                return null;
+            }
+        }
+    }
+
+
+    private Flowable<DeviceOutage> streamOutagesResponse() {
+        return streamOutageObjects(conditionalRequest(baseUri + OUTAGES_PATH, null), response ->
+        {
+        }, () ->
+        {
+        }).map(InterviewTestsMockApiDaoImpl::mapOutage);
+    }
+
+
+    /**
+     * Streams the outages as JSON objects.
+     *
+     * @param request      The request for the outages.
+     * @param onResponse   Given the response once the last outage has been received.
+     * @param onFirstEvent Run as the parser emits its first event, once the body has begun to be received.
+     * @return The outages.
+     */
+    private Flowable<JsonObject> streamOutageObjects(final HttpRequest<Buffer> request,
+                                                     final Consumer<HttpResponse<Void>> onResponse,
+                                                     final Action onFirstEvent) {
+        // Each element of the outages array is decoded as a JSON object in turn without building the array itself.
+        final JsonParser parser = JsonParser.newParser().objectValueMode();
+        final AtomicBoolean started = new AtomicBoolean();
+
+        return parser.toFlowable().
+                doOnNext(event ->
+                {
+                    if (!started.getAndSet(true)) {
+                        onFirstEvent.run();
+                    }
+                }).
+                filter(event -> event.type() == JsonEventType.VALUE).
+                map(JsonEvent::objectValue).
+                mergeWith(send(ApiEndpoint.OUTAGES, request.as(BodyCodec.jsonStream(parser)).rxSend()).
+                        doOnSuccess(onResponse).ignoreElement());
+    }
+
+
+    // The mapping of request and response bodies is package-private for benchmarking.
+
+    static List<DeviceOutage> mapOutagesResponse(final JsonArray response) {
+        return response.stream().map(outage -> mapOutage((JsonObject) outage)).toList();
+    }
+
+
+    static DeviceOutage mapOutage(final JsonObject outageJson) {
+        return new DeviceOutage(outageJson.getValue("id"), OffsetDateTimeCodec.parse(outageJson.getString("begin")),
+                OffsetDateTimeCodec.parse(outageJson.getString("end")));
+    }
+
+
+    static void addOutage(final OutageTable.Builder table, final JsonObject outageJson) {
+        addOutage(table, outageJson, NO_CUTOFF);
+    }
+
+
+    /**
+     * Adds an outage to a table should it begin at or after a cutoff.
+     *
+     * @param table        The table to add to.
+     * @param outageJson   The outage.
+     * @param cutoffMillis The cutoff as from {@link OutageTable#toCutoffMillis(OffsetDateTime)}.
+     * @return Whether the outage was added.
+     */
+    static boolean addOutage(final OutageTable.Builder table, final JsonObject outageJson, final long cutoffMillis) {
+        final String begin = outageJson.getString("begin");
+        final long beginMillis = OffsetDateTimeCodec.parseEpochMillis(begin);
+
+        if (beginMillis < cutoffMillis) {
+            return false;
+        }
+
+        final String end = outageJson.getString("end");
+
+        // Straight to the table's columns with no intermediate date-time objects.
+        if (end != null) {
+            table.add(outageJson.getValue("id"), beginMillis, OffsetDateTimeCodec.parseOffsetSeconds(begin),
+                    OffsetDateTimeCodec.parseEpochMillis(end), OffsetDateTimeCodec.parseOffsetSeconds(end), null);
+        } else {
+            table.addOngoing(outageJson.getValue("id"), beginMillis, OffsetDateTimeCodec.parseOffsetSeconds(begin),
+                    null);
+        }
+
+        return true;
+    }
+
+
+    static Map<Object, String> mapSiteInfoResponse(final JsonObject response) {
         return response.getJsonArray("devices").stream().map(JsonObject.class::cast).
                 collect(Collectors.toUnmodifiableMap(device -> device.getValue("id"),
                         device -> device.getString("name")));
@@ -148,7 +765,22 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
     private static final String SITE_OUTAGES_PATH = "/site-outages/";
     private static final String ACCEPT_HEADER_KEY = "Accept";
     private static final String CONTENT_TYPE_KEY = "Content-Type";
+    private static final String CONTENT_LENGTH_HEADER_KEY = "Content-Length";
     private static final String JSON_MEDIA_TYPE = "application/json";
+    private static final String RETRY_AFTER_HEADER_KEY = "Retry-After";
+    private static final String ETAG_HEADER_KEY = "ETag";
+    private static final String LAST_MODIFIED_HEADER_KEY = "Last-Modified";
+    private static final String IF_NONE_MATCH_HEADER_KEY = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER_KEY = "If-Modified-Since";
+    private static final int NOT_MODIFIED_STATUS = 304;
+    // Every outage begins at or after this.
+    private static final long NO_CUTOFF = Long.MIN_VALUE;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final List<String> RATE_LIMIT_REMAINING_HEADER_KEYS =
+            List.of("RateLimit-Remaining", "X-RateLimit-Remaining");
+    private static final List<String> RATE_LIMIT_RESET_HEADER_KEYS = List.of("RateLimit-Reset", "X-RateLimit-Reset");
+    // Resets larger than this are taken to be epoch seconds, it is a little over a year as a number of seconds.
+    private static final long EPOCH_SECONDS_THRESHOLD = 32_000_000L;
 
     private final Logger LOG = LoggerFactory.getLogger(InterviewTestsMockApiDaoImpl.class);
 
@@ -162,44 +794,41 @@ public class InterviewTestsMockApiDaoImpl implements InterviewTestsMockApiDao {
                             final String message =
                                     response.bodyAsJsonObject().getString("message");
 
-                            return
-                                    switch (result.response().statusCode()) {
-                                        case 400 -> new IllegalArgumentException(message);
-                                        // Key not valid should be a 401, doing something not permitted to a valid key should be a 403.
-                                        case 403 -> new SecurityException(message);
-                                        case 404 -> new NotFoundException(message);
-                                        case 429 -> new TooManyRequestsException(message);
-                                        default -> new RuntimeException(message);
-                                    };
+                            return errorResponse(response.statusCode(), message,
+                                    response.getHeader(RETRY_AFTER_HEADER_KEY));
                         }
 
                         return new RuntimeException(response.statusMessage());
                     }));
 
-    // The API requires 3 dp. for the fractional seconds even if the value is zero (and so optional).
-    // Fix 3 dp for fraction of a second.
-    private static final DateTimeFormatter ISO_LOCAL_TIME =
-            new DateTimeFormatterBuilder().appendValue(HOUR_OF_DAY, 2).appendLiteral(':').
-                    appendValue(MINUTE_OF_HOUR, 2).optionalStart().appendLiteral(':').
-                    appendValue(SECOND_OF_MINUTE, 2).optionalStart().
-                    appendFraction(NANO_OF_SECOND, 3, 3, true).
-                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
-                    withResolverStyle(ResolverStyle.STRICT);
-
     // Fix 3 dp for fraction of a second.
-    public static final DateTimeFormatter ISO_LOCAL_DATE_TIME =
-            new DateTimeFormatterBuilder().parseCaseInsensitive().append(DateTimeFormatter.ISO_LOCAL_DATE).appendLiteral('T').
-                    append(ISO_LOCAL_TIME).
-                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
-                    withResolverStyle(ResolverStyle.STRICT).withChronology(IsoChronology.INSTANCE);
+    public static final DateTimeFormatter ISO_LOCAL_DATE_TIME = OffsetDateTimeCodec.ISO_LOCAL_DATE_TIME;
 
     // Fix 3 dp for fraction of a second.
-    public static final DateTimeFormatter ISO_OFFSET_DATE_TIME =
-            new DateTimeFormatterBuilder().parseCaseInsensitive().append(ISO_LOCAL_DATE_TIME).appendOffsetId().
-                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
-                    withResolverStyle(ResolverStyle.STRICT).withChronology(IsoChronology.INSTANCE);
+    public static final DateTimeFormatter ISO_OFFSET_DATE_TIME = OffsetDateTimeCodec.ISO_OFFSET_DATE_TIME;
 
     private final String baseUri;
     private final String apiKey;
     private final WebClient webClient;
+    private final InterviewTestsMockApiDaoOptions options;
+
+    // The validators and mapped result of the last response from each URI requested, keyed by URI, or by
+    // OutageTableKey for tables, least recently used first.
+    private final Map<Object, ValidatedResponse<?>> validatedResponses;
+
+
+    private record ValidatedResponse<T>(String etag, String lastModified, byte[] digest, T value) {
+    }
+
+
+    private record OutageTableKey(String uri, long cutoffMillis) {
+    }
+
+
+    private record FilteredOutageTable(OutageTable outages, int excluded) {
+    }
+
+
+    private record ChunkResult(int chunk, Throwable error) {
+    }
 }
@@ -0,0 +1,344 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import uk.co.truenotfalse.dao.ApiEndpoint;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.resilience.Bulkhead;
+import uk.co.truenotfalse.resilience.CircuitBreaker;
+import uk.co.truenotfalse.resilience.RateLimiter;
+import uk.co.truenotfalse.resilience.RetryBudget;
+import uk.co.truenotfalse.resilience.RetryPolicy;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Options to configure an {@link InterviewTestsMockApiDaoImpl} instance with.  Any setting that may be configured per
+ * endpoint falls back to the setting for all endpoints when not set for a given endpoint, apart from circuit breakers
+ * and bulkheads which are always per endpoint so that one endpoint failing does not fail requests to the others.
+ */
+public class InterviewTestsMockApiDaoOptions {
+    /**
+     * The rate limiter requests to the given endpoint are subject to.
+     *
+     * @param endpoint The endpoint requests are to be made to.
+     */
+    public RateLimiter getRateLimiter(final ApiEndpoint endpoint) {
+        return rateLimiters.getOrDefault(endpoint, rateLimiter);
+    }
+
+    /**
+     * Sets the rate limiter shared by requests to every endpoint without a rate limiter of its own.  Defaults to
+     * {@link RateLimiter#unlimited()}.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setRateLimiter(final RateLimiter rateLimiter) {
+        Objects.requireNonNull(rateLimiter, "A rate limiter is required.");
+
+        this.rateLimiter = rateLimiter;
+
+        return this;
+    }
+
+    /**
+     * Sets the rate limiter for requests to the given endpoint.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setRateLimiter(final ApiEndpoint endpoint, final RateLimiter rateLimiter) {
+        Objects.requireNonNull(endpoint, "An endpoint is required.");
+        Objects.requireNonNull(rateLimiter, "A rate limiter is required.");
+
+        rateLimiters.put(endpoint, rateLimiter);
+
+        return this;
+    }
+
+
+    /**
+     * The retry policy failed requests to the given endpoint are subject to.
+     *
+     * @param endpoint The endpoint requests are to be made to.
+     */
+    public RetryPolicy getRetryPolicy(final ApiEndpoint endpoint) {
+        return retryPolicies.getOrDefault(endpoint, retryPolicy);
+    }
+
+    /**
+     * Sets the retry policy shared by requests to every endpoint without a retry policy of its own.  Defaults to
+     * retrying up to three times with jittered exponential backoff, subject to a budget allowing retries of a fifth of
+     * requests, and at least one retry a second.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setRetryPolicy(final RetryPolicy retryPolicy) {
+        Objects.requireNonNull(retryPolicy, "A retry policy is required.");
+
+        this.retryPolicy = retryPolicy;
+
+        return this;
+    }
+
+    /**
+     * Sets the retry policy for requests to the given endpoint.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setRetryPolicy(final ApiEndpoint endpoint, final RetryPolicy retryPolicy) {
+        Objects.requireNonNull(endpoint, "An endpoint is required.");
+        Objects.requireNonNull(retryPolicy, "A retry policy is required.");
+
+        retryPolicies.put(endpoint, retryPolicy);
+
+        return this;
+    }
+
+
+    /**
+     * The circuit breaker guarding requests to the given endpoint.
+     *
+     * @param endpoint The endpoint requests are to be made to.
+     */
+    public CircuitBreaker getCircuitBreaker(final ApiEndpoint endpoint) {
+        return circuitBreakers.get(endpoint);
+    }
+
+    /**
+     * Sets the circuit breaker guarding requests to the given endpoint.  Defaults to a circuit breaker named after the
+     * endpoint with its default settings.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setCircuitBreaker(final ApiEndpoint endpoint,
+                                                             final CircuitBreaker circuitBreaker) {
+        Objects.requireNonNull(endpoint, "An endpoint is required.");
+        Objects.requireNonNull(circuitBreaker, "A circuit breaker is required.");
+
+        circuitBreakers.put(endpoint, circuitBreaker);
+
+        return this;
+    }
+
+
+    /**
+     * The bulkhead limiting the requests in flight to the given endpoint.
+     *
+     * @param endpoint The endpoint requests are to be made to.
+     */
+    public Bulkhead getBulkhead(final ApiEndpoint endpoint) {
+        return bulkheads.get(endpoint);
+    }
+
+    /**
+     * Sets the bulkhead limiting the requests in flight to the given endpoint.  Defaults to 32 requests in flight with
+     * up to 1000 more waiting.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setBulkhead(final ApiEndpoint endpoint, final Bulkhead bulkhead) {
+        Objects.requireNonNull(endpoint, "An endpoint is required.");
+        Objects.requireNonNull(bulkhead, "A bulkhead is required.");
+
+        bulkheads.put(endpoint, bulkhead);
+
+        return this;
+    }
+
+
+    /**
+     * Whether requests for outages and site info are made conditional on the response having changed since the last
+     * request, reusing the last result if not.  The last result of each request is held to allow this, up to the
+     * {@linkplain #getMaxValidatedResponses() maximum}.  Outages streamed into a table are conditional too, the last
+     * table being reused, but outages streamed one by one are never held and so are always requested in full.
+     */
+    public boolean isConditionalRequests() {
+        return conditionalRequests;
+    }
+
+    /**
+     * @return This instance.
+     * @see #isConditionalRequests()
+     */
+    public InterviewTestsMockApiDaoOptions setConditionalRequests(final boolean conditionalRequests) {
+        this.conditionalRequests = conditionalRequests;
+
+        return this;
+    }
+
+
+    /**
+     * The maximum number of results held for {@linkplain #isConditionalRequests() conditional requests}, the least
+     * recently used being dropped first.  One is held for the outages and one for the info of each site updated.
+     */
+    public int getMaxValidatedResponses() {
+        return maxValidatedResponses;
+    }
+
+    /**
+     * Defaults to 1024.
+     *
+     * @return This instance.
+     * @see #getMaxValidatedResponses()
+     */
+    public InterviewTestsMockApiDaoOptions setMaxValidatedResponses(final int maxValidatedResponses) {
+        if (maxValidatedResponses < 1) {
+            throw new IllegalArgumentException("At least one validated response must be held.");
+        }
+
+        this.maxValidatedResponses = maxValidatedResponses;
+
+        return this;
+    }
+
+
+    /**
+     * The maximum number of outages sent in a single request when updating a site, zero for no maximum.  Larger
+     * updates are sent in chunks, each retried on its own, and fail with a
+     * {@link uk.co.truenotfalse.ChunkedUpdateException} giving the chunks that failed should any of them fail.  Only
+     * suited to servers that accept a site's outages in parts.
+     */
+    public int getMaxOutagesPerRequest() {
+        return maxOutagesPerRequest;
+    }
+
+    /**
+     * Defaults to zero.
+     *
+     * @return This instance.
+     * @see #getMaxOutagesPerRequest()
+     */
+    public InterviewTestsMockApiDaoOptions setMaxOutagesPerRequest(final int maxOutagesPerRequest) {
+        if (maxOutagesPerRequest < 0) {
+            throw new IllegalArgumentException("The maximum number of outages per request may not be negative.");
+        }
+
+        this.maxOutagesPerRequest = maxOutagesPerRequest;
+
+        return this;
+    }
+
+
+    /**
+     * The maximum number of chunks of an update to a site sent at once.
+     */
+    public int getUpdateConcurrency() {
+        return updateConcurrency;
+    }
+
+    /**
+     * Defaults to 4.
+     *
+     * @return This instance.
+     * @see #getUpdateConcurrency()
+     */
+    public InterviewTestsMockApiDaoOptions setUpdateConcurrency(final int updateConcurrency) {
+        if (updateConcurrency < 1) {
+            throw new IllegalArgumentException("The update concurrency must be at least one.");
+        }
+
+        this.updateConcurrency = updateConcurrency;
+
+        return this;
+    }
+
+
+    /**
+     * The size, in bytes, from which response bodies are decoded on the {@linkplain #getMappingScheduler() mapping
+     * scheduler} rather than on the thread that received them, typically a Vert.x event loop.  Decoding a large body
+     * takes long enough to hold up every other request handled by the event loop.
+     */
+    public int getOffloadThreshold() {
+        return offloadThreshold;
+    }
+
+    /**
+     * Defaults to 64 KiB.
+     *
+     * @return This instance.
+     * @see #getOffloadThreshold()
+     */
+    public InterviewTestsMockApiDaoOptions setOffloadThreshold(final int offloadThreshold) {
+        if (offloadThreshold < 0) {
+            throw new IllegalArgumentException("The offload threshold may not be negative.");
+        }
+
+        this.offloadThreshold = offloadThreshold;
+
+        return this;
+    }
+
+
+    /**
+     * The scheduler large response bodies are decoded on.  The result is handed back to the Vert.x context the
+     * response was received on, if any.
+     *
+     * @see #getOffloadThreshold()
+     */
+    public Scheduler getMappingScheduler() {
+        return mappingScheduler;
+    }
+
+    /**
+     * Defaults to the computation scheduler.
+     *
+     * @return This instance.
+     * @see #getMappingScheduler()
+     */
+    public InterviewTestsMockApiDaoOptions setMappingScheduler(final Scheduler mappingScheduler) {
+        Objects.requireNonNull(mappingScheduler, "A mapping scheduler is required.");
+
+        this.mappingScheduler = mappingScheduler;
+
+        return this;
+    }
+
+
+    /**
+     * The registry request metrics are recorded to.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the registry request metrics are recorded to.  Defaults to {@link MetricsRegistry#noop()}.
+     *
+     * @return This instance.
+     */
+    public InterviewTestsMockApiDaoOptions setMetrics(final MetricsRegistry metrics) {
+        Objects.requireNonNull(metrics, "A metrics registry is required.");
+
+        this.metrics = metrics;
+
+        return this;
+    }
+
+
+    private static <T> Map<ApiEndpoint, T> perEndpoint(final Function<ApiEndpoint, T> factory) {
+        return Arrays.stream(ApiEndpoint.values()).collect(
+                Collectors.toMap(Function.identity(), factory, (a, b) -> b, () -> new EnumMap<>(ApiEndpoint.class)));
+    }
+
+
+    private RateLimiter rateLimiter = RateLimiter.unlimited();
+    private final Map<ApiEndpoint, RateLimiter> rateLimiters = new EnumMap<>(ApiEndpoint.class);
+    private RetryPolicy retryPolicy = new RetryPolicy().setBudget(new RetryBudget(0.2, 1.0));
+    private final Map<ApiEndpoint, RetryPolicy> retryPolicies = new EnumMap<>(ApiEndpoint.class);
+    private final Map<ApiEndpoint, CircuitBreaker> circuitBreakers =
+            perEndpoint(endpoint -> new CircuitBreaker(endpoint.name()));
+    private final Map<ApiEndpoint, Bulkhead> bulkheads = perEndpoint(endpoint -> new Bulkhead(32, 1000));
+    private boolean conditionalRequests = true;
+    private int maxValidatedResponses = 1024;
+    private MetricsRegistry metrics = MetricsRegistry.noop();
+    private int maxOutagesPerRequest = 0;
+    private int updateConcurrency = 4;
+    private int offloadThreshold = 64 * 1024;
+    private Scheduler mappingScheduler = Schedulers.computation();
+}
@@ -0,0 +1,100 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+import uk.co.truenotfalse.util.SingleFlight;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Decorates an {@link InterviewTestsMockApiDao} so that concurrent identical requests share a single exchange with the
+ * API, and the decoding of its response.
+ * <p>
+ * Streams of outages, which a late subscriber would join part way through, and updates are passed straight through to
+ * the decorated DAO.
+ */
+public class SingleFlightInterviewTestsMockApiDao implements InterviewTestsMockApiDao {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao The DAO to decorate.
+     */
+    public SingleFlightInterviewTestsMockApiDao(final InterviewTestsMockApiDao apiDao) {
+        Objects.requireNonNull(apiDao, "An instance of API DAO is required.");
+
+        this.apiDao = apiDao;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<List<DeviceOutage>> getOutages() {
+        return outagesFlights.execute(Boolean.TRUE, apiDao::getOutages);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flowable<DeviceOutage> streamOutages() {
+        return apiDao.streamOutages();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable() {
+        return outageTableFlights.execute(Boolean.TRUE, apiDao::getOutageTable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        return filteredOutageTableFlights.execute(OutageTable.toCutoffMillis(cutoff),
+                () -> apiDao.getOutageTable(cutoff));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<Map<Object, String>> getSiteInfo(final String siteId) {
+        return siteInfoFlights.execute(siteId, () -> apiDao.getSiteInfo(siteId));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable updateSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        return apiDao.updateSiteOutages(siteId, outageUpdates);
+    }
+
+
+    private final InterviewTestsMockApiDao apiDao;
+
+    // There is only the one outage list so its calls all share the same key.
+    private final SingleFlight<Boolean, List<DeviceOutage>> outagesFlights = new SingleFlight<>();
+    private final SingleFlight<Boolean, OutageTable> outageTableFlights = new SingleFlight<>();
+    // Cutoffs that select the same outages share a key.
+    private final SingleFlight<Long, OutageTable> filteredOutageTableFlights = new SingleFlight<>();
+    private final SingleFlight<String, Map<Object, String>> siteInfoFlights = new SingleFlight<>();
+}
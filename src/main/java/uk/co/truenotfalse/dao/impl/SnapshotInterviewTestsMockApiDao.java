@@ -0,0 +1,326 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.impl.SnapshotStore.Snapshot;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Decorates an {@link InterviewTestsMockApiDao} to keep snapshots of the outage tables and site info fetched in a
+ * {@link SnapshotStore} so that they outlive the process.
+ * <p>
+ * Should a fetch fail for want of a healthy API, the latest snapshot is served instead provided it is no older than a
+ * maximum age.  With warm starts, the first request for the outages, or for a site's info, is served straight from
+ * its snapshot while it is fetched afresh in the background, so that a restarted process has something to work on
+ * without waiting for the feed.  Later requests are always fetched.
+ * <p>
+ * Snapshots are loaded and saved in the background, a fetched value being passed on without waiting for it to be
+ * saved, so a process about to exit should first {@linkplain #awaitSaves() await the saves}.  A value that has not
+ * changed since it was last saved is not saved again.
+ * <p>
+ * All other requests are passed straight through to the decorated DAO.
+ */
+public class SnapshotInterviewTestsMockApiDao implements InterviewTestsMockApiDao {
+    /**
+     * Creates an instance of this class loading and saving snapshots on, and reading the time from, the IO
+     * scheduler.
+     *
+     * @param apiDao    The DAO to decorate.
+     * @param store     The store to keep snapshots in.
+     * @param maxAge    The age beyond which a snapshot is no longer served.
+     * @param warmStart Whether the first request for each snapshot is served from it rather than fetched.
+     */
+    public SnapshotInterviewTestsMockApiDao(final InterviewTestsMockApiDao apiDao, final SnapshotStore store,
+                                            final Duration maxAge, final boolean warmStart) {
+        this(apiDao, store, maxAge, warmStart, Schedulers.io());
+    }
+
+
+    /**
+     * Creates an instance of this class.  The snapshot of the outages, if any, is loaded straight away.
+     *
+     * @param apiDao    The DAO to decorate.
+     * @param store     The store to keep snapshots in.
+     * @param maxAge    The age beyond which a snapshot is no longer served.
+     * @param warmStart Whether the first request for each snapshot is served from it rather than fetched.
+     * @param scheduler The scheduler to load and save snapshots on and read the time from.
+     */
+    public SnapshotInterviewTestsMockApiDao(final InterviewTestsMockApiDao apiDao, final SnapshotStore store,
+                                            final Duration maxAge, final boolean warmStart,
+                                            final Scheduler scheduler) {
+        Objects.requireNonNull(apiDao, "An instance of API DAO is required.");
+        Objects.requireNonNull(store, "A snapshot store is required.");
+        Objects.requireNonNull(maxAge, "A maximum age is required.");
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        if (maxAge.isNegative()) {
+            throw new IllegalArgumentException("The maximum age may not be negative.");
+        }
+
+        this.apiDao = apiDao;
+        this.store = store;
+        this.maxAge = maxAge.toMillis();
+        this.warmStart = warmStart;
+        this.scheduler = scheduler;
+        this.outages = new SnapshotEntry<>("the outages", store::loadOutages,
+                snapshot -> store.saveOutages(snapshot.value(), snapshot.savedAt()));
+
+        synchronized (outages) {
+            outages.get();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<List<DeviceOutage>> getOutages() {
+        return apiDao.getOutages();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flowable<DeviceOutage> streamOutages() {
+        return apiDao.streamOutages();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable() {
+        return fetch(outages, apiDao.getOutageTable());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        LOG.trace("getOutageTable({}) called.", cutoff);
+
+        final long cutoffMillis = OutageTable.toCutoffMillis(cutoff);
+
+        return Single.defer(() -> fetch(filteredOutages.computeIfAbsent(cutoffMillis, key ->
+                        new SnapshotEntry<>("the outages from " + cutoff, () -> store.loadOutages(cutoff),
+                                snapshot -> store.saveOutages(snapshot.value(), cutoff, snapshot.savedAt()))),
+                apiDao.getOutageTable(cutoff)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<Map<Object, String>> getSiteInfo(final String siteId) {
+        LOG.trace("getSiteInfo('{}') called.", siteId);
+
+        return Single.defer(() -> fetch(siteInfo.computeIfAbsent(siteId, key ->
+                        new SnapshotEntry<>("the site info of '" + siteId + '\'', () -> store.loadSiteInfo(siteId),
+                                snapshot -> store.saveSiteInfo(siteId, snapshot.value(), snapshot.savedAt()))),
+                apiDao.getSiteInfo(siteId)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable updateSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        return apiDao.updateSiteOutages(siteId, outageUpdates);
+    }
+
+
+    /**
+     * Waits for the snapshots being saved in the background, as before the process exits.
+     *
+     * @return A future result that completes once the snapshots being saved when subscribed to have been saved, or
+     * have failed to be.
+     */
+    public Completable awaitSaves() {
+        return Completable.defer(() -> Completable.merge(List.copyOf(pendingSaves)));
+    }
+
+
+    private <T> Single<T> fetch(final SnapshotEntry<T> entry, final Single<T> request) {
+        return load(entry).andThen(Single.defer(() ->
+        {
+            final long now = scheduler.now(TimeUnit.MILLISECONDS);
+            final Snapshot<T> snapshot;
+            final boolean serveFirst;
+
+            synchronized (entry) {
+                snapshot = entry.get();
+                serveFirst = warmStart && !entry.warmStarted && snapshot != null &&
+                        now - snapshot.savedAt() <= maxAge;
+                entry.warmStarted = true;
+            }
+
+            final Single<T> fetched = request.doOnSuccess(value -> save(entry, value));
+
+            if (serveFirst) {
+                LOG.info("Serving {} from a snapshot {} seconds old while it is fetched afresh.",
+                        entry.description, (now - snapshot.savedAt()) / 1000L);
+                fetched.subscribe(value -> LOG.debug("Fetched {} afresh.", entry.description),
+                        error -> LOG.warn("Failed to fetch {} afresh.", entry.description, error));
+
+                return Single.just(snapshot.value());
+            }
+
+            return fetched.onErrorResumeNext(error ->
+            {
+                if (snapshot == null || now - snapshot.savedAt() > maxAge || !isUnavailable(error)) {
+                    return Single.error(error);
+                }
+
+                LOG.warn("Failed to fetch {}, serving a snapshot {} seconds old.", entry.description,
+                        (now - snapshot.savedAt()) / 1000L, error);
+
+                return Single.just(snapshot.value());
+            });
+        }));
+    }
+
+
+    /**
+     * Loads the snapshot of an entry from the store should it not have been already.  Reading a snapshot blocks so
+     * is kept off the calling thread, which may be an event loop.
+     */
+    private Completable load(final SnapshotEntry<?> entry) {
+        synchronized (entry) {
+            if (entry.loaded) {
+                return Completable.complete();
+            }
+        }
+
+        return Completable.fromAction(() ->
+        {
+            synchronized (entry) {
+                entry.get();
+            }
+        }).subscribeOn(scheduler);
+    }
+
+
+    /**
+     * Saves a snapshot of a value in the background, unless it is the same as the snapshot already saved.
+     */
+    private <T> void save(final SnapshotEntry<T> entry, final T value) {
+        final Snapshot<T> snapshot = new Snapshot<>(value, scheduler.now(TimeUnit.MILLISECONDS));
+        final boolean unchanged;
+
+        synchronized (entry) {
+            // A conditional request that found nothing changed gives back the very same value, otherwise the values
+            // are compared.  An unchanged value is still saved once the saved snapshot is half way to being too old
+            // to serve, so that it stays fit to fall back on.
+            unchanged = entry.snapshot != null && Objects.equals(entry.snapshot.value(), value) &&
+                    snapshot.savedAt() - entry.savedAt < maxAge / 2L;
+            entry.snapshot = snapshot;
+
+            if (!unchanged) {
+                entry.savedAt = snapshot.savedAt();
+            }
+        }
+
+        if (unchanged) {
+            LOG.trace("Not saving {} as it is unchanged.", entry.description);
+            return;
+        }
+
+        // Saving a large table takes a while so is kept off the thread the response was handled on.  A snapshot that
+        // cannot be saved is no reason to fail the request.
+        final Completable saving = Completable.fromAction(() -> entry.saver.accept(snapshot)).subscribeOn(scheduler).
+                doOnComplete(() -> LOG.trace("Saved a snapshot of {}.", entry.description)).
+                doOnError(error -> LOG.warn("Failed to save a snapshot of {}.", entry.description, error)).
+                onErrorComplete().
+                cache();
+
+        pendingSaves.add(saving);
+        saving.subscribe(() -> pendingSaves.remove(saving));
+    }
+
+
+    /**
+     * Whether an error is down to the API being unavailable rather than the request being at fault.
+     */
+    private static boolean isUnavailable(final Throwable error) {
+        return !(error instanceof IllegalArgumentException || error instanceof SecurityException ||
+                error instanceof NotFoundException);
+    }
+
+
+    private static final class SnapshotEntry<T> {
+        private SnapshotEntry(final String description, final Supplier<Snapshot<T>> loader,
+                              final Consumer<Snapshot<T>> saver) {
+            this.description = description;
+            this.loader = loader;
+            this.saver = saver;
+        }
+
+
+        /**
+         * The latest snapshot, loaded from the store on first use.  Guarded by this entry.
+         */
+        private Snapshot<T> get() {
+            if (!loaded) {
+                snapshot = loader.get();
+                savedAt = snapshot != null ? snapshot.savedAt() : 0L;
+                loaded = true;
+            }
+
+            return snapshot;
+        }
+
+
+        private final String description;
+        private final Supplier<Snapshot<T>> loader;
+        private final Consumer<Snapshot<T>> saver;
+
+        // Guarded by this entry.
+        private Snapshot<T> snapshot;
+        // When the snapshot in the store was fetched.
+        private long savedAt;
+        private boolean loaded;
+        private boolean warmStarted;
+    }
+
+
+    private final Logger LOG = LoggerFactory.getLogger(SnapshotInterviewTestsMockApiDao.class);
+
+    private final InterviewTestsMockApiDao apiDao;
+    private final SnapshotStore store;
+    private final long maxAge;
+    private final boolean warmStart;
+    private final Scheduler scheduler;
+    private final SnapshotEntry<OutageTable> outages;
+    // Keyed by cutoff, as milliseconds since the epoch.
+    private final Map<Long, SnapshotEntry<OutageTable>> filteredOutages = new ConcurrentHashMap<>();
+    private final Map<String, SnapshotEntry<Map<Object, String>>> siteInfo = new ConcurrentHashMap<>();
+    private final Set<Completable> pendingSaves = ConcurrentHashMap.newKeySet();
+}
@@ -0,0 +1,253 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Keeps snapshots of the last outages and site info fetched in a local directory so that they survive restarts.
+ * Outages fetched with a cutoff are held apart from the whole feed, a snapshot for each cutoff.
+ * <p>
+ * The outages are held in a compact binary form of their {@link OutageTable} which is read through a memory-mapped
+ * file, so loading even a large feed costs little more than copying its columns.  Site info, being small, is held as
+ * a JSON file per site.  Snapshots are replaced, via a temporary file, each time they are saved and any snapshot that
+ * cannot be read is treated as absent.
+ */
+public class SnapshotStore {
+    /**
+     * A snapshot of a value.
+     *
+     * @param value   The value.
+     * @param savedAt When the value was fetched, as milliseconds since the epoch.
+     */
+    public record Snapshot<T>(T value, long savedAt) {
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param directory The directory to keep snapshots in, which is created when first saved to if need be.
+     */
+    public SnapshotStore(final Path directory) {
+        Objects.requireNonNull(directory, "A directory is required.");
+
+        this.directory = directory;
+    }
+
+
+    /**
+     * Loads the snapshot of the outages.
+     *
+     * @return The snapshot or {@code null} if there is none that can be read.
+     */
+    public Snapshot<OutageTable> loadOutages() {
+        return loadOutages(null);
+    }
+
+
+    /**
+     * Loads the snapshot of the outages that begin at or after a cutoff.
+     *
+     * @param cutoff The cutoff the outages were fetched with or {@code null} for every outage.
+     * @return The snapshot or {@code null} if there is none that can be read.
+     */
+    public Snapshot<OutageTable> loadOutages(final OffsetDateTime cutoff) {
+        final Path file = outagesFile(cutoff);
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+
+            if (snapshot.remaining() < HEADER_LENGTH || snapshot.getInt() != OUTAGES_MAGIC) {
+                LOG.warn("Ignoring {} as it is not an outages snapshot.", file);
+
+                return null;
+            }
+            if (snapshot.getInt() != OUTAGES_VERSION) {
+                LOG.info("Ignoring {} as it was written by another version.", file);
+
+                return null;
+            }
+
+            final long savedAt = snapshot.getLong();
+            final OutageTable outages = OutageTable.readFrom(snapshot);
+
+            LOG.debug("Loaded a snapshot of {} outages from {}.", outages.size(), file);
+
+            return new Snapshot<>(outages, savedAt);
+        } catch (final NoSuchFileException nsfe) {
+            return null;
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.warn("Ignoring {} as it could not be read.", file, e);
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Saves a snapshot of the outages, replacing any existing snapshot.
+     *
+     * @param outages The outages.
+     * @param savedAt When the outages were fetched, as milliseconds since the epoch.
+     * @throws UncheckedIOException If the snapshot could not be saved.
+     */
+    public void saveOutages(final OutageTable outages, final long savedAt) {
+        saveOutages(outages, null, savedAt);
+    }
+
+
+    /**
+     * Saves a snapshot of the outages that begin at or after a cutoff, replacing any existing snapshot for the same
+     * cutoff.
+     *
+     * @param outages The outages.
+     * @param cutoff  The cutoff the outages were fetched with or {@code null} for every outage.
+     * @param savedAt When the outages were fetched, as milliseconds since the epoch.
+     * @throws UncheckedIOException If the snapshot could not be saved.
+     */
+    public synchronized void saveOutages(final OutageTable outages, final OffsetDateTime cutoff, final long savedAt) {
+        Objects.requireNonNull(outages, "A table of outages is required.");
+
+        final Path file = outagesFile(cutoff);
+
+        try {
+            final Path temporaryFile = temporaryFile(file);
+
+            try (final DataOutputStream output =
+                         new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile),
+                                 WRITE_BUFFER_SIZE))) {
+                output.writeInt(OUTAGES_MAGIC);
+                output.writeInt(OUTAGES_VERSION);
+                output.writeLong(savedAt);
+                outages.writeTo(output);
+            }
+
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Unable to write outages snapshot to " + file + '.', ioe);
+        }
+    }
+
+
+    /**
+     * Loads the snapshot of a site's info.
+     *
+     * @param siteId The ID of the site.
+     * @return The snapshot or {@code null} if there is none that can be read.
+     */
+    public Snapshot<Map<Object, String>> loadSiteInfo(final String siteId) {
+        final Path file = siteInfoFile(siteId);
+
+        try {
+            final JsonObject snapshot = new JsonObject(Files.readString(file, StandardCharsets.UTF_8));
+            final Map<Object, String> siteInfo = new HashMap<>();
+
+            for (final Object device : snapshot.getJsonArray("devices")) {
+                final JsonObject deviceJson = (JsonObject) device;
+
+                siteInfo.put(deviceJson.getValue("id"), deviceJson.getString("name"));
+            }
+
+            return new Snapshot<>(Map.copyOf(siteInfo), snapshot.getLong("savedAt"));
+        } catch (final NoSuchFileException nsfe) {
+            return null;
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Ignoring {} as it could not be read.", file, e);
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Saves a snapshot of a site's info, replacing any existing snapshot.
+     *
+     * @param siteId   The ID of the site.
+     * @param siteInfo The site's info.
+     * @param savedAt  When the info was fetched, as milliseconds since the epoch.
+     * @throws UncheckedIOException If the snapshot could not be saved.
+     */
+    public synchronized void saveSiteInfo(final String siteId, final Map<Object, String> siteInfo,
+                                          final long savedAt) {
+        Objects.requireNonNull(siteInfo, "Site info is required.");
+
+        final JsonArray devices = new JsonArray();
+
+        // Devices are held as a list, rather than an object, so that IDs keep their types.
+        siteInfo.forEach((id, name) -> devices.add(new JsonObject().put("id", id).put("name", name)));
+
+        final Path file = siteInfoFile(siteId);
+
+        try {
+            final Path temporaryFile = temporaryFile(file);
+
+            Files.writeString(temporaryFile, new JsonObject().put("savedAt", savedAt).put("devices", devices).encode(),
+                    StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Unable to write site info snapshot to " + file + '.', ioe);
+        }
+    }
+
+
+    private Path outagesFile(final OffsetDateTime cutoff) {
+        // Cutoffs that select the same outages share a snapshot.
+        return directory.resolve(cutoff != null ?
+                FILTERED_OUTAGES_FILE_PREFIX + OutageTable.toCutoffMillis(cutoff) + FILTERED_OUTAGES_FILE_SUFFIX :
+                OUTAGES_FILE);
+    }
+
+
+    private Path siteInfoFile(final String siteId) {
+        Objects.requireNonNull(siteId, "A site ID is required.");
+
+        // Encoded so that any site ID is a safe file name, dots included so that an ID may not name a parent.
+        return directory.resolve(SITE_INFO_DIRECTORY).
+                resolve(URLEncoder.encode(siteId, StandardCharsets.UTF_8).replace(".", "%2E").replace("*", "%2A") +
+                        ".json");
+    }
+
+
+    private static Path temporaryFile(final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+
+    private static final String OUTAGES_FILE = "outages.snapshot";
+    private static final String FILTERED_OUTAGES_FILE_PREFIX = "outages-from-";
+    private static final String FILTERED_OUTAGES_FILE_SUFFIX = ".snapshot";
+    private static final String SITE_INFO_DIRECTORY = "site-info";
+    // "OUTS"
+    private static final int OUTAGES_MAGIC = 0x4F555453;
+    private static final int OUTAGES_VERSION = 1;
+    private static final int HEADER_LENGTH = 2 * Integer.BYTES + Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private final Path directory;
+}
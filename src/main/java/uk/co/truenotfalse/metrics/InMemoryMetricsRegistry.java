@@ -0,0 +1,134 @@
+package uk.co.truenotfalse.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A {@link MetricsRegistry} holding its metrics in memory.  Counts are held in adders so that recording from many
+ * threads at once does not contend.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    /**
+     * Creates an instance of this class with histogram buckets suited to durations in seconds, from five milliseconds
+     * to ten seconds.
+     */
+    public InMemoryMetricsRegistry() {
+        this(DEFAULT_BUCKET_BOUNDS);
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param bucketBounds The inclusive upper bound of each histogram bucket, in ascending order.  Values above them
+     *                     all are counted in a further bucket.
+     */
+    public InMemoryMetricsRegistry(final double... bucketBounds) {
+        Objects.requireNonNull(bucketBounds, "Bucket bounds are required.");
+
+        for (int i = 1; i < bucketBounds.length; i++) {
+            if (!(bucketBounds[i] > bucketBounds[i - 1])) {
+                throw new IllegalArgumentException("Bucket bounds must be in ascending order.");
+            }
+        }
+
+        this.bucketBounds = bucketBounds.clone();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Counter counter(final String name, final String... labels) {
+        return counters.computeIfAbsent(MetricId.of(name, labels), id -> new AdderCounter());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Histogram histogram(final String name, final String... labels) {
+        return histograms.computeIfAbsent(MetricId.of(name, labels), id -> new BucketedHistogram(bucketBounds));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(
+                counters.entrySet().stream().sorted(Map.Entry.comparingByKey()).
+                        map(counter -> new MetricsSnapshot.CounterSnapshot(counter.getKey().name(),
+                                counter.getKey().labels(), counter.getValue().count.sum())).toList(),
+                histograms.entrySet().stream().sorted(Map.Entry.comparingByKey()).
+                        map(histogram -> histogram.getValue().snapshot(histogram.getKey())).toList());
+    }
+
+
+    private static final double[] DEFAULT_BUCKET_BOUNDS =
+            {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0};
+
+    private final double[] bucketBounds;
+    private final Map<MetricId, AdderCounter> counters = new ConcurrentHashMap<>();
+    private final Map<MetricId, BucketedHistogram> histograms = new ConcurrentHashMap<>();
+
+
+    private static final class AdderCounter implements Counter {
+        @Override
+        public void increment(final long amount) {
+            if (amount < 0L) {
+                throw new IllegalArgumentException("A counter may not be decreased.");
+            }
+
+            count.add(amount);
+        }
+
+
+        private final LongAdder count = new LongAdder();
+    }
+
+
+    private static final class BucketedHistogram implements Histogram {
+        private BucketedHistogram(final double[] bucketBounds) {
+            this.bucketBounds = bucketBounds;
+            this.bucketCounts = new LongAdder[bucketBounds.length + 1];
+
+            Arrays.setAll(bucketCounts, bucket -> new LongAdder());
+        }
+
+
+        @Override
+        public void record(final double value) {
+            final int bucket = Arrays.binarySearch(bucketBounds, value);
+
+            // A value equal to a bound belongs to that bound's bucket, otherwise to the first bucket bounded above it.
+            bucketCounts[bucket >= 0 ? bucket : -bucket - 1].increment();
+            sum.add(value);
+        }
+
+
+        private MetricsSnapshot.HistogramSnapshot snapshot(final MetricId id) {
+            final long[] counts = new long[bucketCounts.length];
+
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                counts[bucket] = bucketCounts[bucket].sum();
+            }
+
+            return new MetricsSnapshot.HistogramSnapshot(id.name(), id.labels(), bucketBounds.clone(), counts,
+                    Arrays.stream(counts).sum(), sum.sum());
+        }
+
+
+        private final double[] bucketBounds;
+        private final LongAdder[] bucketCounts;
+        private final DoubleAdder sum = new DoubleAdder();
+    }
+}
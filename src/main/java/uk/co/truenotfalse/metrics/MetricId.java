@@ -0,0 +1,50 @@
+package uk.co.truenotfalse.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * The name and labels identifying a metric.
+ */
+record MetricId(String name, Map<String, String> labels) implements Comparable<MetricId> {
+    static MetricId of(final String name, final String... labels) {
+        Objects.requireNonNull(name, "A metric name is required.");
+        Objects.requireNonNull(labels, "Labels are required.");
+
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("'" + name + "' is not a valid metric name.");
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs.");
+        }
+
+        final Map<String, String> labelMap = new TreeMap<>();
+
+        for (int i = 0; i < labels.length; i += 2) {
+            if (labels[i] == null || !LABEL_NAME_PATTERN.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("'" + labels[i] + "' is not a valid label name.");
+            }
+
+            labelMap.put(labels[i], Objects.requireNonNull(labels[i + 1], "A label value is required."));
+        }
+
+        return new MetricId(name, Collections.unmodifiableMap(labelMap));
+    }
+
+
+    @Override
+    public int compareTo(final MetricId other) {
+        final int byName = name.compareTo(other.name);
+
+        // The labels are held sorted so their string forms sort consistently.
+        return byName != 0 ? byName : labels.toString().compareTo(other.labels.toString());
+    }
+
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+}
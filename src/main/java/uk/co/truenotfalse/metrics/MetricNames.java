@@ -0,0 +1,49 @@
+package uk.co.truenotfalse.metrics;
+
+/**
+ * The names, and label names, of the metrics recorded by the agent.  Durations are recorded in seconds.
+ */
+public final class MetricNames {
+    /**
+     * A histogram of the duration of each request to the API, labelled by endpoint and status.  Its count is the number
+     * of requests made.
+     */
+    public static final String API_REQUEST_SECONDS = "outage_agent_api_request_seconds";
+    /**
+     * A count of the requests to the API that were retries, labelled by endpoint.
+     */
+    public static final String API_RETRIES = "outage_agent_api_retries_total";
+    /**
+     * A count of the bytes of request bodies sent to the API, labelled by endpoint.
+     */
+    public static final String API_BYTES_SENT = "outage_agent_api_sent_bytes_total";
+    /**
+     * A count of the bytes of response bodies received from the API, labelled by endpoint.
+     */
+    public static final String API_BYTES_RECEIVED = "outage_agent_api_received_bytes_total";
+    /**
+     * A histogram of the time taken to decode response bodies, labelled by endpoint.
+     */
+    public static final String API_PARSE_SECONDS = "outage_agent_api_parse_seconds";
+    /**
+     * A count of the outages excluded from updates for beginning before the cutoff.
+     */
+    public static final String OUTAGES_FILTERED = "outage_agent_outages_filtered_total";
+    /**
+     * A count of the outages left out of a site's update for being of devices not in the site.
+     */
+    public static final String OUTAGES_DROPPED = "outage_agent_outages_dropped_total";
+    /**
+     * A histogram of the duration of each site update from start to finish, labelled by outcome.
+     */
+    public static final String SITE_UPDATE_SECONDS = "outage_agent_site_update_seconds";
+
+    public static final String ENDPOINT_LABEL = "endpoint";
+    public static final String STATUS_LABEL = "status";
+    public static final String OUTCOME_LABEL = "outcome";
+
+
+    private MetricNames() {
+        throw new UnsupportedOperationException("Instance of MetricNames may not be instantiated.");
+    }
+}
@@ -0,0 +1,92 @@
+package uk.co.truenotfalse.metrics;
+
+import java.util.List;
+
+
+/**
+ * A registry of the metrics recorded by the agent.  Metrics are identified by a name and a set of labels, given as
+ * alternating label names and values, and are created the first time they are asked for.  Implementations must be safe
+ * to record to from any thread.
+ */
+public interface MetricsRegistry {
+    /**
+     * The counter with the given name and labels.
+     *
+     * @param name   The name of the counter.
+     * @param labels Alternating label names and values.
+     */
+    Counter counter(String name, String... labels);
+
+    /**
+     * The histogram with the given name and labels.
+     *
+     * @param name   The name of the histogram.
+     * @param labels Alternating label names and values.
+     */
+    Histogram histogram(String name, String... labels);
+
+    /**
+     * A snapshot of every metric recorded so far.
+     */
+    MetricsSnapshot snapshot();
+
+
+    /**
+     * A registry that records nothing.
+     *
+     * @return A registry whose metrics discard whatever is recorded to them.
+     */
+    static MetricsRegistry noop() {
+        return NOOP;
+    }
+
+
+    /**
+     * A count that only increases.
+     */
+    interface Counter {
+        void increment(long amount);
+
+        default void increment() {
+            increment(1L);
+        }
+    }
+
+
+    /**
+     * A distribution of values, such as durations in seconds, counted into buckets.
+     */
+    interface Histogram {
+        void record(double value);
+
+        /**
+         * Records a duration as a number of seconds.
+         *
+         * @param nanos The duration in nanoseconds.
+         */
+        default void recordNanos(final long nanos) {
+            record(nanos / 1e9);
+        }
+    }
+
+
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        private final Counter counter = amount -> {};
+        private final Histogram histogram = value -> {};
+
+        @Override
+        public Counter counter(final String name, final String... labels) {
+            return counter;
+        }
+
+        @Override
+        public Histogram histogram(final String name, final String... labels) {
+            return histogram;
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            return new MetricsSnapshot(List.of(), List.of());
+        }
+    };
+}
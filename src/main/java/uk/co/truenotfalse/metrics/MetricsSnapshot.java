@@ -0,0 +1,133 @@
+package uk.co.truenotfalse.metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * The values of a registry's metrics at a point in time, ordered by name and then labels.
+ *
+ * @param counters   The counters.
+ * @param histograms The histograms.
+ */
+public record MetricsSnapshot(List<CounterSnapshot> counters, List<HistogramSnapshot> histograms) {
+    public MetricsSnapshot {
+        counters = List.copyOf(counters);
+        histograms = List.copyOf(histograms);
+    }
+
+
+    /**
+     * The count of a counter.
+     *
+     * @param name   The name of the counter.
+     * @param labels Alternating label names and values.
+     * @return The count, zero for a counter that has not been recorded to.
+     */
+    public long count(final String name, final String... labels) {
+        final Map<String, String> labelMap = MetricId.of(name, labels).labels();
+
+        return counters.stream().filter(counter -> counter.name().equals(name) && counter.labels().equals(labelMap)).
+                mapToLong(CounterSnapshot::count).findFirst().orElse(0L);
+    }
+
+
+    /**
+     * A histogram.
+     *
+     * @param name   The name of the histogram.
+     * @param labels Alternating label names and values.
+     * @return The histogram or {@code null} for one that has not been recorded to.
+     */
+    public HistogramSnapshot histogram(final String name, final String... labels) {
+        final Map<String, String> labelMap = MetricId.of(name, labels).labels();
+
+        return histograms.stream().
+                filter(histogram -> histogram.name().equals(name) && histogram.labels().equals(labelMap)).
+                findFirst().orElse(null);
+    }
+
+
+    /**
+     * The value of a counter.
+     */
+    public record CounterSnapshot(String name, Map<String, String> labels, long count) {
+    }
+
+
+    /**
+     * The value of a histogram.
+     *
+     * @param bucketBounds The inclusive upper bound of each bucket, in ascending order.
+     * @param bucketCounts The number of values in each bucket, with one more count than bounds for values above them
+     *                     all.
+     * @param count        The number of values recorded.
+     * @param sum          The sum of the values recorded.
+     */
+    public record HistogramSnapshot(String name, Map<String, String> labels, double[] bucketBounds, long[] bucketCounts,
+                                    long count, double sum) {
+        public HistogramSnapshot {
+            Objects.requireNonNull(bucketBounds, "Bucket bounds are required.");
+            Objects.requireNonNull(bucketCounts, "Bucket counts are required.");
+
+            if (bucketCounts.length != bucketBounds.length + 1) {
+                throw new IllegalArgumentException("There must be one more bucket count than bucket bounds.");
+            }
+        }
+
+
+        /**
+         * An estimate of a quantile of the values, interpolated within the bucket it falls in.
+         *
+         * @param quantile The quantile, between zero and one.
+         * @return The estimate, or NaN if no values have been recorded.
+         */
+        public double quantile(final double quantile) {
+            if (count == 0L) {
+                return Double.NaN;
+            }
+
+            final double rank = quantile * count;
+            long below = 0L;
+
+            for (int bucket = 0; bucket < bucketBounds.length; bucket++) {
+                if (below + bucketCounts[bucket] >= rank) {
+                    final double lower = bucket == 0 ? 0.0 : bucketBounds[bucket - 1];
+
+                    return lower + (bucketBounds[bucket] - lower) *
+                            (bucketCounts[bucket] == 0L ? 0.0 : (rank - below) / bucketCounts[bucket]);
+                }
+
+                below += bucketCounts[bucket];
+            }
+
+            // Above every bound so the best that can be said is that it is at least the largest.
+            return bucketBounds.length > 0 ? bucketBounds[bucketBounds.length - 1] : Double.NaN;
+        }
+
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof HistogramSnapshot histogram && name.equals(histogram.name) &&
+                    labels.equals(histogram.labels) && Arrays.equals(bucketBounds, histogram.bucketBounds) &&
+                    Arrays.equals(bucketCounts, histogram.bucketCounts) && count == histogram.count &&
+                    Double.compare(sum, histogram.sum) == 0;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, labels, Arrays.hashCode(bucketBounds), Arrays.hashCode(bucketCounts), count, sum);
+        }
+
+
+        @Override
+        public String toString() {
+            return "HistogramSnapshot[name=" + name + ", labels=" + labels + ", bucketBounds=" +
+                    Arrays.toString(bucketBounds) + ", bucketCounts=" + Arrays.toString(bucketCounts) + ", count=" +
+                    count + ", sum=" + sum + ']';
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package uk.co.truenotfalse.metrics;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.core.http.HttpServer;
+import io.vertx.rxjava3.core.http.HttpServerRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+
+/**
+ * Serves a registry's metrics over HTTP, in the Prometheus text format, at {@value #PATH}.  Intended to be scraped
+ * locally so, by default, only listens on the loopback interface.
+ */
+public class PrometheusMetricsEndpoint {
+    /**
+     * Creates an instance of this class listening on the loopback interface.
+     *
+     * @param vertx    The Vert.x instance to serve requests with.
+     * @param registry The registry whose metrics are served.
+     * @param port     The port to listen on.
+     */
+    public PrometheusMetricsEndpoint(final Vertx vertx, final MetricsRegistry registry, final int port) {
+        this(vertx, registry, LOOPBACK_HOST, port);
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param vertx    The Vert.x instance to serve requests with.
+     * @param registry The registry whose metrics are served.
+     * @param host     The host to listen on.
+     * @param port     The port to listen on, zero for any free port.
+     */
+    public PrometheusMetricsEndpoint(final Vertx vertx, final MetricsRegistry registry, final String host,
+                                     final int port) {
+        Objects.requireNonNull(vertx, "A Vert.x instance is required.");
+        Objects.requireNonNull(registry, "A metrics registry is required.");
+        Objects.requireNonNull(host, "A host is required.");
+
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("The port must be between 0 and 65535.");
+        }
+
+        this.vertx = vertx;
+        this.registry = registry;
+        this.host = host;
+        this.port = port;
+    }
+
+
+    /**
+     * Starts listening for requests.
+     *
+     * @return A future result that completes once listening.
+     */
+    public synchronized Completable start() {
+        if (server != null) {
+            return Completable.error(new IllegalStateException("The metrics endpoint is already started."));
+        }
+
+        server = vertx.createHttpServer().requestHandler(this::handle);
+
+        return server.rxListen(port, host).
+                doOnSuccess(listening ->
+                        LOG.info("Serving metrics at http://{}:{}{}.", host, listening.actualPort(), PATH)).
+                ignoreElement();
+    }
+
+
+    /**
+     * Stops listening for requests.
+     *
+     * @return A future result that completes once stopped.
+     */
+    public synchronized Completable stop() {
+        final HttpServer stopping = server;
+
+        server = null;
+
+        return stopping != null ? stopping.rxClose() : Completable.complete();
+    }
+
+
+    /**
+     * The port listened on, only known once started.
+     */
+    public synchronized int getActualPort() {
+        return server != null ? server.actualPort() : 0;
+    }
+
+
+    private void handle(final HttpServerRequest request) {
+        if (!PATH.equals(request.path())) {
+            request.response().setStatusCode(404).end();
+        } else if (request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) {
+            request.response().setStatusCode(405).putHeader("Allow", "GET, HEAD").end();
+        } else {
+            request.response().putHeader("Content-Type", PrometheusTextFormat.CONTENT_TYPE).
+                    end(PrometheusTextFormat.format(registry.snapshot()));
+        }
+    }
+
+
+    /**
+     * The path metrics are served at.
+     */
+    public static final String PATH = "/metrics";
+
+    private static final String LOOPBACK_HOST = "127.0.0.1";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrometheusMetricsEndpoint.class);
+
+    private final Vertx vertx;
+    private final MetricsRegistry registry;
+    private final String host;
+    private final int port;
+
+    private HttpServer server;
+}
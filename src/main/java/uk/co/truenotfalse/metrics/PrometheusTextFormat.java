@@ -0,0 +1,146 @@
+package uk.co.truenotfalse.metrics;
+
+import java.util.Map;
+
+
+/**
+ * Writes metrics in the Prometheus text exposition format.
+ */
+public final class PrometheusTextFormat {
+    /**
+     * The media type of the format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+
+    /**
+     * Formats a snapshot of metrics.
+     *
+     * @param snapshot The snapshot to format.
+     * @return The metrics in the text format.
+     */
+    public static String format(final MetricsSnapshot snapshot) {
+        final StringBuilder text = new StringBuilder();
+
+        write(snapshot, text);
+
+        return text.toString();
+    }
+
+
+    /**
+     * Writes a snapshot of metrics.
+     *
+     * @param snapshot The snapshot to write.
+     * @param text     Where to write the metrics to.
+     */
+    public static void write(final MetricsSnapshot snapshot, final StringBuilder text) {
+        String previousName = null;
+
+        for (final MetricsSnapshot.CounterSnapshot counter : snapshot.counters()) {
+            if (!counter.name().equals(previousName)) {
+                text.append("# TYPE ").append(counter.name()).append(" counter\n");
+                previousName = counter.name();
+            }
+
+            text.append(counter.name());
+            writeLabels(counter.labels(), null, null, text);
+            text.append(' ').append(counter.count()).append('\n');
+        }
+
+        previousName = null;
+
+        for (final MetricsSnapshot.HistogramSnapshot histogram : snapshot.histograms()) {
+            if (!histogram.name().equals(previousName)) {
+                text.append("# TYPE ").append(histogram.name()).append(" histogram\n");
+                previousName = histogram.name();
+            }
+
+            // Prometheus buckets are cumulative.
+            long cumulativeCount = 0L;
+
+            for (int bucket = 0; bucket < histogram.bucketCounts().length; bucket++) {
+                cumulativeCount += histogram.bucketCounts()[bucket];
+
+                text.append(histogram.name()).append("_bucket");
+                writeLabels(histogram.labels(), "le",
+                        bucket < histogram.bucketBounds().length ? formatDouble(histogram.bucketBounds()[bucket]) :
+                                "+Inf", text);
+                text.append(' ').append(cumulativeCount).append('\n');
+            }
+
+            text.append(histogram.name()).append("_sum");
+            writeLabels(histogram.labels(), null, null, text);
+            text.append(' ').append(formatDouble(histogram.sum())).append('\n');
+            text.append(histogram.name()).append("_count");
+            writeLabels(histogram.labels(), null, null, text);
+            text.append(' ').append(histogram.count()).append('\n');
+        }
+    }
+
+
+    private static void writeLabels(final Map<String, String> labels, final String extraName, final String extraValue,
+                                    final StringBuilder text) {
+        if (labels.isEmpty() && extraName == null) {
+            return;
+        }
+
+        text.append('{');
+
+        boolean first = true;
+
+        for (final Map.Entry<String, String> label : labels.entrySet()) {
+            if (!first) {
+                text.append(',');
+            }
+
+            writeLabel(label.getKey(), label.getValue(), text);
+            first = false;
+        }
+
+        if (extraName != null) {
+            if (!first) {
+                text.append(',');
+            }
+
+            writeLabel(extraName, extraValue, text);
+        }
+
+        text.append('}');
+    }
+
+
+    private static void writeLabel(final String name, final String value, final StringBuilder text) {
+        text.append(name).append("=\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '"' -> text.append("\\\"");
+                case '\n' -> text.append("\\n");
+                default -> text.append(c);
+            }
+        }
+
+        text.append('"');
+    }
+
+
+    private static String formatDouble(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0.0 ? "+Inf" : "-Inf";
+        }
+
+        return Double.toString(value);
+    }
+
+
+    private PrometheusTextFormat() {
+        throw new UnsupportedOperationException("Instance of PrometheusTextFormat may not be instantiated.");
+    }
+}
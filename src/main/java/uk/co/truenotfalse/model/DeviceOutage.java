@@ -6,23 +6,46 @@ import java.util.Objects;
 
 /**
  * Represents a period of outage for a device with given ID.
+ * <p>
+ * Outages are immutable so a single list of them may be shared, e.g. between sites being updated concurrently, and
+ * naming an outage gives a copy rather than changing it.
  */
-public class DeviceOutage {
+public final class DeviceOutage {
     /**
-     * Creates an instance of this class.
+     * Creates an instance of this class without a device name.
      *
      * @see #getId()
      * @see #getBegin()
      * @see #getEnd()
      */
     public DeviceOutage(final Object id, final OffsetDateTime begin, final OffsetDateTime end) {
+        this(id, begin, end, null);
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @see #getId()
+     * @see #getBegin()
+     * @see #getEnd()
+     * @see #getDeviceName()
+     */
+    public DeviceOutage(final Object id, final OffsetDateTime begin, final OffsetDateTime end,
+                        final String deviceName) {
         Objects.requireNonNull(id, "An object ID is required.");
         Objects.requireNonNull(begin, "The beginning of an outage is required.");
         // I assume an outage can be ongoing and that this is indicated by a null value?
 
+        if (deviceName != null && deviceName.isBlank()) {
+            // Assume a device name of only whitespace is not meaningful.
+            throw new IllegalArgumentException("A meaningful device name is required.");
+        }
+
         this.id = id;
         this.begin = begin;
         this.end = end;
+        this.deviceName = deviceName;
     }
 
 
@@ -57,18 +80,16 @@ public class DeviceOutage {
 
 
     /**
+     * Names the outage.
+     *
+     * @param name The name of the device.
+     * @return A copy of this outage with the device name given, or this outage if it already has that name.
      * @see #getDeviceName()
      */
-    // Generally, I prefer immutable value and data objects but has this is a simple app with a transient life-time,
-    // I have gone with a partially mutable object.
-    public void setDeviceName(final String name) {
-        // For later initialization so do not allow to be set to null.
-        if ((name != null && name.isBlank()) || null != deviceName) {
-            // Assume a device name of only whitespace is not meaningful.
-            throw new IllegalArgumentException("A meaningful device name is required.");
-        }
+    public DeviceOutage withDeviceName(final String name) {
+        Objects.requireNonNull(name, "A device name is required.");
 
-        deviceName = name;
+        return name.equals(deviceName) ? this : new DeviceOutage(id, begin, end, name);
     }
 
 
@@ -100,5 +121,5 @@ public class DeviceOutage {
     private final Object id;
     private final OffsetDateTime begin;
     private final OffsetDateTime end;
-    private String deviceName;
+    private final String deviceName;
 }
@@ -0,0 +1,421 @@
+package uk.co.truenotfalse.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+
+/**
+ * An immutable index of device outages supporting time window queries and lookup by device.
+ * <p>
+ * Outages are held sorted by the beginning of their period and arranged as an implicit, balanced interval tree where
+ * each node records the latest end in its subtree.  Cutoff and range queries on the beginning of outages take
+ * O(log n + k) time, as do overlap queries, where k is the number of outages found.  An outage with no end is treated
+ * as ongoing and so overlaps any window after its beginning.  Outage periods and query windows are both taken to
+ * include their beginning but not their end.
+ * <p>
+ * Time window query results are in order of the beginning of the outages.  Outages beginning at the same instant,
+ * and the results of device lookups, are in the order of the list, or the rows of the table, the index was built
+ * from.  An index built from a table holds its rows where they are, copying to outage objects only the outages
+ * found.
+ */
+public class OutageIntervalIndex {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param outages The outages to index.
+     */
+    public OutageIntervalIndex(final List<DeviceOutage> outages) {
+        this(Objects.requireNonNull(outages, "A list of outages is required.").toArray(DeviceOutage[]::new));
+    }
+
+
+    /**
+     * Creates an instance of this class indexing the rows of a table where they are.
+     *
+     * @param outages The outages to index.
+     */
+    public OutageIntervalIndex(final OutageTable outages) {
+        this(Objects.requireNonNull(outages, "A table of outages is required.").size(), outages::getId,
+                row -> millisToNanos(outages.getBeginMillis(row)), row -> millisToNanos(outages.getEndMillis(row)),
+                row -> outages.row(row).toDeviceOutage());
+    }
+
+
+    private OutageIntervalIndex(final DeviceOutage[] listed) {
+        this(listed.length, position -> listed[position].getId(), position -> toNanos(listed[position].getBegin()),
+                position -> listed[position].getEnd() != null ? toNanos(listed[position].getEnd()) : Long.MAX_VALUE,
+                position -> listed[position]);
+    }
+
+
+    /**
+     * Creates an instance of this class indexing outages by their listed position.
+     *
+     * @param size      The number of outages listed.
+     * @param ids       The device ID of the outage at a position.
+     * @param beginning The beginning of the outage at a position, in nanoseconds since the epoch.
+     * @param ending    The end of the outage at a position, in nanoseconds since the epoch, or {@link Long#MAX_VALUE}
+     *                  if ongoing.
+     * @param listed    The outage at a position.
+     */
+    private OutageIntervalIndex(final int size, final IntFunction<Object> ids, final IntToLongFunction beginning,
+                                final IntToLongFunction ending, final IntFunction<DeviceOutage> listed) {
+        final long[] listedBegins = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            listedBegins[i] = beginning.applyAsLong(i);
+        }
+
+        // Sorting is stable so outages beginning at the same instant keep their listed order.
+        this.order = sortedPositions(listedBegins);
+        this.begins = new long[size];
+        this.ends = new long[size];
+        this.maxEnds = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            this.begins[i] = listedBegins[order[i]];
+            this.ends[i] = ending.applyAsLong(order[i]);
+        }
+
+        buildMaxEnds(0, size - 1);
+
+        final Map<Object, List<Integer>> byDevice = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            byDevice.computeIfAbsent(ids.apply(i), id -> new ArrayList<>()).add(i);
+        }
+
+        this.listed = listed;
+        this.listedBegins = listedBegins;
+        this.deviceListings = new HashMap<>();
+        byDevice.forEach((id, listings) -> deviceListings.put(id, listings.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+
+    /**
+     * The number of outages indexed.
+     */
+    public int size() {
+        return order.length;
+    }
+
+
+    /**
+     * The IDs of every device with an outage in the index.
+     */
+    public Set<Object> getDeviceIds() {
+        return Collections.unmodifiableSet(deviceListings.keySet());
+    }
+
+
+    /**
+     * Finds the outages that begin at or after a cutoff.
+     *
+     * @param cutoff The earliest beginning of the outages to find.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> beginningFrom(final OffsetDateTime cutoff) {
+        Objects.requireNonNull(cutoff, "A cutoff is required.");
+
+        return new SortedOutages(lowerBound(toNanos(cutoff)), order.length);
+    }
+
+
+    /**
+     * Finds the outages that begin within a window.
+     *
+     * @param from The beginning of the window.
+     * @param to   The end of the window.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> beginningWithin(final OffsetDateTime from, final OffsetDateTime to) {
+        Objects.requireNonNull(from, "The beginning of the window is required.");
+        Objects.requireNonNull(to, "The end of the window is required.");
+
+        final int first = lowerBound(toNanos(from));
+        final int last = Math.max(first, lowerBound(toNanos(to)));
+
+        return new SortedOutages(first, last);
+    }
+
+
+    /**
+     * Finds the outages whose periods overlap a window.
+     *
+     * @param from The beginning of the window.
+     * @param to   The end of the window.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> overlapping(final OffsetDateTime from, final OffsetDateTime to) {
+        Objects.requireNonNull(from, "The beginning of the window is required.");
+        Objects.requireNonNull(to, "The end of the window is required.");
+
+        final List<DeviceOutage> found = new ArrayList<>();
+
+        collectOverlapping(0, order.length - 1, toNanos(from), toNanos(to), found);
+
+        return Collections.unmodifiableList(found);
+    }
+
+
+    /**
+     * Finds the outages of a device whose periods overlap a window.
+     *
+     * @param deviceId The ID of the device.
+     * @param from     The beginning of the window.
+     * @param to       The end of the window.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> overlapping(final Object deviceId, final OffsetDateTime from, final OffsetDateTime to) {
+        if (!deviceListings.containsKey(deviceId)) {
+            return List.of();
+        }
+
+        // Built on first use as most devices are unlikely to ever be queried this way.
+        return deviceIndexes.computeIfAbsent(deviceId, id -> new OutageIntervalIndex(forDevice(id))).
+                overlapping(from, to);
+    }
+
+
+    /**
+     * Finds the outages of a device.
+     *
+     * @param deviceId The ID of the device.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> forDevice(final Object deviceId) {
+        return forDevices(List.of(deviceId));
+    }
+
+
+    /**
+     * Finds the outages of any of a number of devices.  This takes time proportional to the number of outages found
+     * rather than the number of outages indexed.
+     *
+     * @param deviceIds The IDs of the devices.
+     * @return The outages found.
+     */
+    public List<DeviceOutage> forDevices(final Collection<?> deviceIds) {
+        return listings(deviceIds).mapToObj(listed).toList();
+    }
+
+
+    /**
+     * Finds the outages of any of a number of devices that begin at or after a cutoff.  This takes time proportional
+     * to the number of outages of the devices rather than the number of outages indexed.
+     *
+     * @param deviceIds The IDs of the devices.
+     * @param cutoff    The earliest beginning of the outages to find.
+     * @return The outages found, in the order of the list or table the index was built from.
+     */
+    public List<DeviceOutage> forDevices(final Collection<?> deviceIds, final OffsetDateTime cutoff) {
+        Objects.requireNonNull(cutoff, "A cutoff is required.");
+
+        final long from = toNanos(cutoff);
+
+        return listings(deviceIds).filter(position -> listedBegins[position] >= from).mapToObj(listed).toList();
+    }
+
+
+    /**
+     * @return The listed positions of the outages of the given devices, in order.
+     */
+    private IntStream listings(final Collection<?> deviceIds) {
+        Objects.requireNonNull(deviceIds, "A collection of device IDs is required.");
+
+        return new LinkedHashSet<>(deviceIds).stream().map(deviceListings::get).filter(Objects::nonNull).
+                flatMapToInt(Arrays::stream).sorted();
+    }
+
+
+    private long buildMaxEnds(final int lo, final int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+
+        maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+
+        return maxEnds[mid];
+    }
+
+
+    private void collectOverlapping(final int lo, final int hi, final long from, final long to,
+                                    final List<DeviceOutage> found) {
+        if (lo > hi) {
+            return;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+
+        // Nothing in this subtree ends after the window begins.
+        if (maxEnds[mid] <= from) {
+            return;
+        }
+
+        collectOverlapping(lo, mid - 1, from, to, found);
+
+        // This outage and everything to its right begin at or after the window ends.
+        if (begins[mid] >= to) {
+            return;
+        }
+
+        if (ends[mid] > from) {
+            found.add(listed.apply(order[mid]));
+        }
+
+        collectOverlapping(mid + 1, hi, from, to, found);
+    }
+
+
+    /**
+     * @return The index of the first outage beginning at or after the given time.
+     */
+    private int lowerBound(final long time) {
+        int lo = 0;
+        int hi = begins.length;
+
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+
+            if (begins[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+
+    /**
+     * Sorts positions by time without boxing either.
+     *
+     * @param times The times to sort by.
+     * @return The positions of the times in order of time, the positions of equal times in ascending order.
+     */
+    private static int[] sortedPositions(final long[] times) {
+        int[] order = new int[times.length];
+        int[] merged = new int[times.length];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        // A bottom up merge sort, each pass merging pairs of runs sorted by the pass before.
+        for (int width = 1; width < times.length; width <<= 1) {
+            for (int lo = 0; lo < times.length; lo += width << 1) {
+                final int mid = Math.min(lo + width, times.length);
+                final int hi = Math.min(mid + width, times.length);
+                int left = lo;
+                int right = mid;
+                int out = lo;
+
+                // Taking from the left run on equal times keeps the sort stable.
+                while (left < mid && right < hi) {
+                    merged[out++] = times[order[right]] < times[order[left]] ? order[right++] : order[left++];
+                }
+
+                System.arraycopy(order, left, merged, out, mid - left);
+                System.arraycopy(order, right, merged, out + mid - left, hi - right);
+            }
+
+            final int[] sorted = merged;
+
+            merged = order;
+            order = sorted;
+        }
+
+        return order;
+    }
+
+
+    /**
+     * Converts milliseconds since the epoch to nanoseconds, saturating for times too far from the epoch.
+     */
+    private static long millisToNanos(final long epochMillis) {
+        try {
+            return Math.multiplyExact(epochMillis, 1_000_000L);
+        } catch (final ArithmeticException ae) {
+            return epochMillis < 0L ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+
+    /**
+     * Converts a date-time to nanoseconds since the epoch, saturating for date-times too far from the epoch.
+     */
+    private static long toNanos(final OffsetDateTime dateTime) {
+        final Instant instant = dateTime.toInstant();
+
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (final ArithmeticException ae) {
+            return instant.getEpochSecond() < 0L ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+
+    // Sorted by beginning, the listed positions of the outages and their periods.
+    private final int[] order;
+    private final long[] begins;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    // By listed position.
+    private final IntFunction<DeviceOutage> listed;
+    private final long[] listedBegins;
+    private final Map<Object, int[]> deviceListings;
+    private final Map<Object, OutageIntervalIndex> deviceIndexes = new ConcurrentHashMap<>();
+
+
+    /**
+     * A view of a range of the outages in order of beginning, copying table rows to outage objects as they are read.
+     */
+    private final class SortedOutages extends AbstractList<DeviceOutage> implements RandomAccess {
+        private SortedOutages(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DeviceOutage get(final int index) {
+            return listed.apply(order[from + Objects.checkIndex(index, to - from)]);
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+
+        private final int from;
+        private final int to;
+    }
+}
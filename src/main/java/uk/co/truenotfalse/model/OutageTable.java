@@ -0,0 +1,777 @@
+package uk.co.truenotfalse.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+
+/**
+ * A compact, column oriented table of device outages.
+ * <p>
+ * Rather than an object graph per outage, beginnings and ends are held as epoch milliseconds and offsets in primitive
+ * arrays while device IDs and names are dictionary encoded, so each outage costs a few tens of bytes however large the
+ * feed.  Times are held to the millisecond, the precision of the API.  Rows are read through a {@link Row} view which,
+ * when iterating, is reused for every row and so must not be retained.
+ * <p>
+ * Tables are immutable, filtering or naming a table gives a new table.
+ */
+public final class OutageTable implements Iterable<OutageTable.Row> {
+    private OutageTable(final Object[] ids, final String[] names, final int size, final int[] idCodes,
+                        final int[] nameCodes, final long[] begins, final int[] beginOffsets, final long[] ends,
+                        final int[] endOffsets) {
+        this.ids = ids;
+        this.names = names;
+        this.size = size;
+        this.idCodes = idCodes;
+        this.nameCodes = nameCodes;
+        this.begins = begins;
+        this.beginOffsets = beginOffsets;
+        this.ends = ends;
+        this.endOffsets = endOffsets;
+    }
+
+
+    /**
+     * Creates a table of the given outages, including any device names.
+     *
+     * @param outages The outages to hold in the table.
+     * @return The table of outages.
+     */
+    public static OutageTable of(final List<DeviceOutage> outages) {
+        Objects.requireNonNull(outages, "A list of outages is required.");
+
+        final Builder builder = new Builder(outages.size());
+
+        outages.forEach(builder::add);
+
+        return builder.build();
+    }
+
+
+    /**
+     * The number of outages in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * The ID of the device that experienced the outage in the given row.
+     */
+    public Object getId(final int row) {
+        return ids[idCodes[checkRow(row)]];
+    }
+
+
+    /**
+     * The beginning of the outage in the given row as milliseconds since the epoch.
+     */
+    public long getBeginMillis(final int row) {
+        return begins[checkRow(row)];
+    }
+
+
+    /**
+     * The beginning of the outage in the given row.
+     */
+    public OffsetDateTime getBegin(final int row) {
+        return toDateTime(getBeginMillis(row), beginOffsets[row]);
+    }
+
+
+    /**
+     * Whether the outage in the given row has ended.
+     */
+    public boolean hasEnd(final int row) {
+        return ends[checkRow(row)] != NO_END;
+    }
+
+
+    /**
+     * The end of the outage in the given row.
+     *
+     * @return The end of the outage or {@code null} if the outage is ongoing.
+     */
+    public OffsetDateTime getEnd(final int row) {
+        return hasEnd(row) ? toDateTime(ends[row], endOffsets[row]) : null;
+    }
+
+
+    /**
+     * The end of the outage in the given row as milliseconds since the epoch.
+     *
+     * @return The end of the outage or {@link Long#MAX_VALUE} if the outage is ongoing.
+     */
+    public long getEndMillis(final int row) {
+        return hasEnd(row) ? ends[row] : Long.MAX_VALUE;
+    }
+
+
+    /**
+     * The name of the device that experienced the outage in the given row.
+     *
+     * @return The name of the device or {@code null} if no name has been attached.
+     */
+    public String getDeviceName(final int row) {
+        final int nameCode = nameCodes[checkRow(row)];
+
+        return nameCode != NO_NAME ? names[nameCode] : null;
+    }
+
+
+    /**
+     * Gets a view of a row.  Unlike the view given when iterating, this view is not reused.
+     *
+     * @param row The index of the row.
+     * @return A view of the row.
+     */
+    public Row row(final int row) {
+        return new Row(this).moveTo(checkRow(row));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A single view is moved from row to row so views must not be retained once the iteration has moved on.
+     */
+    @Override
+    public Iterator<Row> iterator() {
+        final Row view = new Row(this);
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+
+            @Override
+            public Row next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                return view.moveTo(next++);
+            }
+
+
+            private int next;
+        };
+    }
+
+
+    /**
+     * Selects a contiguous range of rows, e.g. to process a large table in parts.
+     *
+     * @param fromRow The first row selected.
+     * @param toRow   The row after the last row selected.
+     * @return A table of the outages in the range, in their existing order.
+     */
+    public OutageTable rows(final int fromRow, final int toRow) {
+        Objects.checkFromToIndex(fromRow, toRow, size);
+
+        // The dictionaries are shared, they are never modified once built.
+        return new OutageTable(ids, names, toRow - fromRow, Arrays.copyOfRange(idCodes, fromRow, toRow),
+                Arrays.copyOfRange(nameCodes, fromRow, toRow), Arrays.copyOfRange(begins, fromRow, toRow),
+                Arrays.copyOfRange(beginOffsets, fromRow, toRow), Arrays.copyOfRange(ends, fromRow, toRow),
+                Arrays.copyOfRange(endOffsets, fromRow, toRow));
+    }
+
+
+    /**
+     * Selects the outages that begin at or after a cutoff.
+     *
+     * @param cutoff Outages beginning before this date-time are excluded.
+     * @return A table of the outages selected, in their existing order.
+     */
+    public OutageTable beginningFrom(final OffsetDateTime cutoff) {
+        final long cutoffMillis = toCutoffMillis(cutoff);
+        final int[] selected = new int[size];
+        int count = 0;
+
+        for (int row = 0; row < size; row++) {
+            if (begins[row] >= cutoffMillis) {
+                selected[count++] = row;
+            }
+        }
+
+        return select(selected, count, names, nameCodes);
+    }
+
+
+    /**
+     * The earliest beginning, as milliseconds since the epoch, of the outages that begin at or after a cutoff.  The
+     * beginnings are whole milliseconds so any fraction of a millisecond in the cutoff rounds it up.
+     *
+     * @param cutoff The cutoff.
+     * @return The earliest beginning of the outages at or after the cutoff.
+     */
+    public static long toCutoffMillis(final OffsetDateTime cutoff) {
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        final Instant cutoffInstant = cutoff.toInstant();
+
+        return cutoffInstant.toEpochMilli() + (cutoffInstant.getNano() % NANOS_PER_MILLI != 0 ? 1L : 0L);
+    }
+
+
+    /**
+     * Attaches names to outages, excluding outages of devices without a name.
+     *
+     * @param deviceNames Device names mapped to device IDs.
+     * @return A table of the named outages, in their existing order.
+     */
+    public OutageTable withDeviceNames(final Map<Object, String> deviceNames) {
+        Objects.requireNonNull(deviceNames, "A map of device names is required.");
+
+        // Resolve each device once rather than once per outage.
+        final Map<String, Integer> nameDictionary = new HashMap<>();
+        final int[] nameCodesByIdCode = new int[ids.length];
+
+        for (int idCode = 0; idCode < ids.length; idCode++) {
+            final String deviceName = deviceNames.get(ids[idCode]);
+
+            nameCodesByIdCode[idCode] =
+                    deviceName != null ? nameDictionary.computeIfAbsent(deviceName, name -> nameDictionary.size()) :
+                            NO_NAME;
+        }
+
+        final String[] newNames = new String[nameDictionary.size()];
+
+        nameDictionary.forEach((name, nameCode) -> newNames[nameCode] = name);
+
+        final int[] selected = new int[size];
+        final int[] newNameCodes = new int[size];
+        int count = 0;
+
+        for (int row = 0; row < size; row++) {
+            final int nameCode = nameCodesByIdCode[idCodes[row]];
+
+            if (nameCode != NO_NAME) {
+                newNameCodes[row] = nameCode;
+                selected[count++] = row;
+            }
+        }
+
+        return select(selected, count, newNames, newNameCodes);
+    }
+
+
+    /**
+     * Converts the table to a list of outages, including any device names.
+     */
+    public List<DeviceOutage> toDeviceOutages() {
+        final List<DeviceOutage> outages = new ArrayList<>(size);
+
+        for (final Row row : this) {
+            outages.add(row.toDeviceOutage());
+        }
+
+        return outages;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tables are equal when they hold the same outages, including device names, in the same order.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof OutageTable table) || size != table.size) {
+            return false;
+        }
+
+        // The columns are compared in bulk first, the dictionaries may be in a different order so are compared by row.
+        if (!Arrays.equals(begins, table.begins) || !Arrays.equals(ends, table.ends) ||
+                !Arrays.equals(beginOffsets, table.beginOffsets) || !Arrays.equals(endOffsets, table.endOffsets)) {
+            return false;
+        }
+
+        for (int row = 0; row < size; row++) {
+            if (!getId(row).equals(table.getId(row)) || !Objects.equals(getDeviceName(row), table.getDeviceName(row))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(begins) + Arrays.hashCode(ends);
+    }
+
+
+    /**
+     * Writes the table in a compact binary form, the dictionaries followed by the columns, from which it may be read
+     * by {@link #readFrom(ByteBuffer)}.
+     *
+     * @param output The output to write to.
+     * @throws IOException              Should the table not be written.
+     * @throws IllegalArgumentException Should a device ID be of a type other than a string or number.
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(ids.length);
+
+        for (final Object id : ids) {
+            if (id instanceof String stringId) {
+                output.writeByte(STRING_ID);
+                writeString(output, stringId);
+            } else if (id instanceof Integer intId) {
+                output.writeByte(INT_ID);
+                output.writeInt(intId);
+            } else if (id instanceof Long longId) {
+                output.writeByte(LONG_ID);
+                output.writeLong(longId);
+            } else if (id instanceof Double doubleId) {
+                output.writeByte(DOUBLE_ID);
+                output.writeDouble(doubleId);
+            } else {
+                throw new IllegalArgumentException("Device IDs of type " + id.getClass().getName() +
+                        " may not be written.");
+            }
+        }
+
+        output.writeInt(names.length);
+
+        for (final String name : names) {
+            writeString(output, name);
+        }
+
+        output.writeInt(size);
+
+        for (int row = 0; row < size; row++) {
+            output.writeInt(idCodes[row]);
+        }
+        for (int row = 0; row < size; row++) {
+            output.writeInt(nameCodes[row]);
+        }
+        for (int row = 0; row < size; row++) {
+            output.writeLong(begins[row]);
+        }
+        for (int row = 0; row < size; row++) {
+            output.writeInt(beginOffsets[row]);
+        }
+        for (int row = 0; row < size; row++) {
+            output.writeLong(ends[row]);
+        }
+        for (int row = 0; row < size; row++) {
+            output.writeInt(endOffsets[row]);
+        }
+    }
+
+
+    /**
+     * Reads a table written by {@link #writeTo(DataOutput)}.  The columns are copied in bulk so reading from a
+     * memory-mapped file costs little more than the copy.
+     *
+     * @param input The buffer to read from, big-endian, which is left positioned after the table.
+     * @return The table read.
+     * @throws IllegalArgumentException Should the buffer not hold a valid table.
+     */
+    public static OutageTable readFrom(final ByteBuffer input) {
+        Objects.requireNonNull(input, "An input buffer is required.");
+
+        try {
+            final Object[] ids = new Object[checkCount(input, input.getInt())];
+
+            for (int idCode = 0; idCode < ids.length; idCode++) {
+                final byte type = input.get();
+
+                ids[idCode] = switch (type) {
+                    case STRING_ID -> readString(input);
+                    case INT_ID -> input.getInt();
+                    case LONG_ID -> input.getLong();
+                    case DOUBLE_ID -> input.getDouble();
+                    default -> throw new IllegalArgumentException("Unknown device ID type " + type + '.');
+                };
+            }
+
+            final String[] names = new String[checkCount(input, input.getInt())];
+
+            for (int nameCode = 0; nameCode < names.length; nameCode++) {
+                names[nameCode] = readString(input);
+            }
+
+            final int size = checkCount(input, input.getInt());
+            final int[] idCodes = new int[size];
+            final int[] nameCodes = new int[size];
+            final long[] begins = new long[size];
+            final int[] beginOffsets = new int[size];
+            final long[] ends = new long[size];
+            final int[] endOffsets = new int[size];
+
+            readInts(input, idCodes);
+            readInts(input, nameCodes);
+            readLongs(input, begins);
+            readInts(input, beginOffsets);
+            readLongs(input, ends);
+            readInts(input, endOffsets);
+
+            for (int row = 0; row < size; row++) {
+                if (idCodes[row] < 0 || idCodes[row] >= ids.length || nameCodes[row] < NO_NAME ||
+                        nameCodes[row] >= names.length) {
+                    throw new IllegalArgumentException("Row " + row + " refers to an unknown device ID or name.");
+                }
+            }
+
+            return new OutageTable(ids, names, size, idCodes, nameCodes, begins, beginOffsets, ends, endOffsets);
+        } catch (final BufferUnderflowException bue) {
+            throw new IllegalArgumentException("The table is truncated.", bue);
+        }
+    }
+
+
+    private OutageTable select(final int[] selected, final int count, final String[] newNames,
+                               final int[] newNameCodes) {
+        final int[] selectedIdCodes = new int[count];
+        final int[] selectedNameCodes = new int[count];
+        final long[] selectedBegins = new long[count];
+        final int[] selectedBeginOffsets = new int[count];
+        final long[] selectedEnds = new long[count];
+        final int[] selectedEndOffsets = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            final int row = selected[i];
+
+            selectedIdCodes[i] = idCodes[row];
+            selectedNameCodes[i] = newNameCodes[row];
+            selectedBegins[i] = begins[row];
+            selectedBeginOffsets[i] = beginOffsets[row];
+            selectedEnds[i] = ends[row];
+            selectedEndOffsets[i] = endOffsets[row];
+        }
+
+        // The device ID dictionary is shared, it is never modified once built.
+        return new OutageTable(ids, newNames, count, selectedIdCodes, selectedNameCodes, selectedBegins,
+                selectedBeginOffsets, selectedEnds, selectedEndOffsets);
+    }
+
+
+    private int checkRow(final int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+
+    private static void writeString(final DataOutput output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+
+    private static String readString(final ByteBuffer input) {
+        final byte[] bytes = new byte[checkCount(input, input.getInt())];
+
+        input.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    private static void readInts(final ByteBuffer input, final int[] column) {
+        input.asIntBuffer().get(column);
+        input.position(input.position() + column.length * Integer.BYTES);
+    }
+
+
+    private static void readLongs(final ByteBuffer input, final long[] column) {
+        input.asLongBuffer().get(column);
+        input.position(input.position() + column.length * Long.BYTES);
+    }
+
+
+    /**
+     * Checks a count read is no more than the bytes remaining, so that a corrupt count cannot cause a huge allocation.
+     */
+    private static int checkCount(final ByteBuffer input, final int count) {
+        if (count < 0 || count > input.remaining()) {
+            throw new IllegalArgumentException("A count of " + count + " is not valid.");
+        }
+
+        return count;
+    }
+
+
+    private static OffsetDateTime toDateTime(final long epochMillis, final int offsetSeconds) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+
+    private static final long NO_END = Long.MIN_VALUE;
+    private static final int NO_NAME = -1;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private static final byte STRING_ID = 0;
+    private static final byte INT_ID = 1;
+    private static final byte LONG_ID = 2;
+    private static final byte DOUBLE_ID = 3;
+
+    // Dictionaries.
+    private final Object[] ids;
+    private final String[] names;
+
+    // Columns.
+    private final int size;
+    private final int[] idCodes;
+    private final int[] nameCodes;
+    private final long[] begins;
+    private final int[] beginOffsets;
+    private final long[] ends;
+    private final int[] endOffsets;
+
+
+    /**
+     * A view of a row of an outage table.
+     */
+    public static final class Row {
+        private Row(final OutageTable table) {
+            this.table = table;
+        }
+
+
+        private Row moveTo(final int row) {
+            this.row = row;
+
+            return this;
+        }
+
+
+        /**
+         * The index of the row in its table.
+         */
+        public int getIndex() {
+            return row;
+        }
+
+
+        /**
+         * @see OutageTable#getId(int)
+         */
+        public Object getId() {
+            return table.getId(row);
+        }
+
+
+        /**
+         * @see OutageTable#getBeginMillis(int)
+         */
+        public long getBeginMillis() {
+            return table.getBeginMillis(row);
+        }
+
+
+        /**
+         * @see OutageTable#getBegin(int)
+         */
+        public OffsetDateTime getBegin() {
+            return table.getBegin(row);
+        }
+
+
+        /**
+         * @see OutageTable#getEnd(int)
+         */
+        public OffsetDateTime getEnd() {
+            return table.getEnd(row);
+        }
+
+
+        /**
+         * @see OutageTable#getDeviceName(int)
+         */
+        public String getDeviceName() {
+            return table.getDeviceName(row);
+        }
+
+
+        /**
+         * Copies the row to an outage object.
+         */
+        public DeviceOutage toDeviceOutage() {
+            return new DeviceOutage(getId(), getBegin(), getEnd(), getDeviceName());
+        }
+
+
+        private final OutageTable table;
+        private int row;
+    }
+
+
+    /**
+     * Builds outage tables a row at a time.
+     */
+    public static final class Builder {
+        /**
+         * Creates an instance of this class.
+         */
+        public Builder() {
+            this(16);
+        }
+
+
+        /**
+         * Creates an instance of this class.
+         *
+         * @param expectedSize The number of outages expected to be added.
+         */
+        public Builder(final int expectedSize) {
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("The expected size may not be negative.");
+            }
+
+            final int capacity = Math.max(expectedSize, 1);
+
+            idCodes = new int[capacity];
+            nameCodes = new int[capacity];
+            begins = new long[capacity];
+            beginOffsets = new int[capacity];
+            ends = new long[capacity];
+            endOffsets = new int[capacity];
+        }
+
+
+        /**
+         * Adds an outage, including any device name.
+         *
+         * @param outage The outage to add.
+         * @return This builder.
+         */
+        public Builder add(final DeviceOutage outage) {
+            Objects.requireNonNull(outage, "An outage is required.");
+
+            return add(outage.getId(), outage.getBegin(), outage.getEnd(), outage.getDeviceName());
+        }
+
+
+        /**
+         * Adds an outage.
+         *
+         * @param id         The ID of the device that experienced the outage.
+         * @param begin      The beginning of the outage.
+         * @param end        The end of the outage or {@code null} if it is ongoing.
+         * @param deviceName The name of the device or {@code null} if not known.
+         * @return This builder.
+         */
+        public Builder add(final Object id, final OffsetDateTime begin, final OffsetDateTime end,
+                           final String deviceName) {
+            Objects.requireNonNull(begin, "The beginning of an outage is required.");
+
+            return add(id, begin.toInstant().toEpochMilli(), begin.getOffset().getTotalSeconds(),
+                    end != null ? end.toInstant().toEpochMilli() : NO_END,
+                    end != null ? end.getOffset().getTotalSeconds() : 0, deviceName);
+        }
+
+
+        /**
+         * Adds an outage that has ended, given as instants and offsets rather than date-times.
+         *
+         * @param id                 The ID of the device that experienced the outage.
+         * @param beginMillis        The beginning of the outage as milliseconds since the epoch.
+         * @param beginOffsetSeconds The offset of the beginning of the outage as a number of seconds.
+         * @param endMillis          The end of the outage as milliseconds since the epoch.
+         * @param endOffsetSeconds   The offset of the end of the outage as a number of seconds.
+         * @param deviceName         The name of the device or {@code null} if not known.
+         * @return This builder.
+         */
+        public Builder add(final Object id, final long beginMillis, final int beginOffsetSeconds, final long endMillis,
+                           final int endOffsetSeconds, final String deviceName) {
+            Objects.requireNonNull(id, "An object ID is required.");
+
+            if (size == begins.length) {
+                grow();
+            }
+
+            idCodes[size] = idDictionary.computeIfAbsent(id, key -> idDictionary.size());
+            nameCodes[size] =
+                    deviceName != null ? nameDictionary.computeIfAbsent(deviceName, key -> nameDictionary.size()) :
+                            NO_NAME;
+            begins[size] = beginMillis;
+            beginOffsets[size] = beginOffsetSeconds;
+            ends[size] = endMillis;
+            endOffsets[size] = endOffsetSeconds;
+            size++;
+
+            return this;
+        }
+
+
+        /**
+         * Adds an outage that is ongoing, given as an instant and offset rather than a date-time.
+         *
+         * @param id                 The ID of the device that experienced the outage.
+         * @param beginMillis        The beginning of the outage as milliseconds since the epoch.
+         * @param beginOffsetSeconds The offset of the beginning of the outage as a number of seconds.
+         * @param deviceName         The name of the device or {@code null} if not known.
+         * @return This builder.
+         */
+        public Builder addOngoing(final Object id, final long beginMillis, final int beginOffsetSeconds,
+                                  final String deviceName) {
+            return add(id, beginMillis, beginOffsetSeconds, NO_END, 0, deviceName);
+        }
+
+
+        /**
+         * Builds a table of the outages added so far.
+         */
+        public OutageTable build() {
+            final Object[] ids = new Object[idDictionary.size()];
+            final String[] names = new String[nameDictionary.size()];
+
+            idDictionary.forEach((id, idCode) -> ids[idCode] = id);
+            nameDictionary.forEach((name, nameCode) -> names[nameCode] = name);
+
+            return new OutageTable(ids, names, size, Arrays.copyOf(idCodes, size), Arrays.copyOf(nameCodes, size),
+                    Arrays.copyOf(begins, size), Arrays.copyOf(beginOffsets, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(endOffsets, size));
+        }
+
+
+        private void grow() {
+            final int capacity = begins.length + (begins.length >> 1) + 1;
+
+            idCodes = Arrays.copyOf(idCodes, capacity);
+            nameCodes = Arrays.copyOf(nameCodes, capacity);
+            begins = Arrays.copyOf(begins, capacity);
+            beginOffsets = Arrays.copyOf(beginOffsets, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            endOffsets = Arrays.copyOf(endOffsets, capacity);
+        }
+
+
+        private final Map<Object, Integer> idDictionary = new HashMap<>();
+        private final Map<String, Integer> nameDictionary = new HashMap<>();
+
+        private int size;
+        private int[] idCodes;
+        private int[] nameCodes;
+        private long[] begins;
+        private int[] beginOffsets;
+        private long[] ends;
+        private int[] endOffsets;
+    }
+}
@@ -0,0 +1,150 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
+import uk.co.truenotfalse.BulkheadFullException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * Limits the number of calls in flight at once so that a slow dependency cannot tie up every connection and request.
+ * Calls beyond the limit wait, without blocking, in a bounded queue for a call in flight to finish and are refused
+ * with a {@link BulkheadFullException} once the queue is full.
+ */
+public class Bulkhead {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param maxConcurrentCalls The maximum number of calls in flight at once.
+     * @param maxQueuedCalls     The maximum number of calls waiting to be made, may be zero to refuse calls at once.
+     */
+    public Bulkhead(final int maxConcurrentCalls, final int maxQueuedCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("At least one concurrent call must be permitted.");
+        }
+        if (maxQueuedCalls < 0) {
+            throw new IllegalArgumentException("The maximum number of queued calls may not be negative.");
+        }
+
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxQueuedCalls = maxQueuedCalls;
+    }
+
+
+    /**
+     * A bulkhead that does not limit calls.
+     */
+    public static Bulkhead unlimited() {
+        return UNLIMITED;
+    }
+
+
+    /**
+     * Applies the bulkhead to a call.
+     *
+     * @param call The call, which is not made until it is permitted.
+     * @return The call, which fails with a {@link BulkheadFullException} if it may not be made or queued.
+     */
+    public <T> Single<T> apply(final Single<T> call) {
+        if (this == UNLIMITED) {
+            return call;
+        }
+
+        return Single.defer(() ->
+        {
+            final Permit permit = new Permit();
+
+            if (!acquire(permit)) {
+                return Single.error(new BulkheadFullException(
+                        "Too many calls in flight, " + maxConcurrentCalls + " are permitted with " + maxQueuedCalls +
+                        " queued."));
+            }
+
+            // The permit is released however the call ends, including being disposed of while still queued.
+            return permit.granted.andThen(call).doFinally(() -> release(permit));
+        });
+    }
+
+
+    /**
+     * @return The number of calls in flight.
+     */
+    public synchronized int getConcurrentCalls() {
+        return concurrentCalls;
+    }
+
+
+    /**
+     * @return The number of calls waiting to be made.
+     */
+    public synchronized int getQueuedCalls() {
+        return queue.size();
+    }
+
+
+    private boolean acquire(final Permit permit) {
+        synchronized (this) {
+            if (concurrentCalls >= maxConcurrentCalls) {
+                if (queue.size() >= maxQueuedCalls) {
+                    return false;
+                }
+
+                queue.add(permit);
+
+                return true;
+            }
+
+            concurrentCalls++;
+            permit.held = true;
+        }
+
+        permit.granted.onComplete();
+
+        return true;
+    }
+
+
+    private void release(final Permit permit) {
+        Permit next = null;
+
+        synchronized (this) {
+            if (!permit.held) {
+                queue.remove(permit);
+
+                return;
+            }
+
+            permit.held = false;
+            next = queue.poll();
+
+            // A waiting call takes over the permit rather than it being given up.
+            if (next != null) {
+                next.held = true;
+            } else {
+                concurrentCalls--;
+            }
+        }
+
+        if (next != null) {
+            next.granted.onComplete();
+        }
+    }
+
+
+    private static final Bulkhead UNLIMITED = new Bulkhead(Integer.MAX_VALUE, 0);
+
+    private final int maxConcurrentCalls;
+    private final int maxQueuedCalls;
+
+    private final Deque<Permit> queue = new ArrayDeque<>();
+    private int concurrentCalls;
+
+
+    private static final class Permit {
+        private final CompletableSubject granted = CompletableSubject.create();
+        // Guarded by the bulkhead.
+        private boolean held;
+    }
+}
@@ -0,0 +1,412 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.BulkheadFullException;
+import uk.co.truenotfalse.CircuitOpenException;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A circuit breaker that stops calls being made to a dependency that is failing, or responding slowly, so that callers
+ * fail fast rather than each waiting out timeouts and retries.
+ * <p>
+ * While closed, the outcomes of the most recent calls are recorded and, once enough have been made, the circuit opens
+ * should the proportion of failed calls or of slow calls reach its threshold.  While open, calls are refused with a
+ * {@link CircuitOpenException}.  Once the open period is over the circuit is half-open and permits a few trial calls,
+ * closing again if they fare well enough and opening again if not.
+ * <p>
+ * Errors that are the caller's fault, such as a bad request or a resource not found, are not recorded as failures by
+ * default as they say nothing of the dependency's health.  Circuit breakers are configured with their setters and
+ * should not be changed once in use.
+ */
+public class CircuitBreaker {
+    /**
+     * The states of a circuit.
+     */
+    public enum State {
+        /**
+         * Calls are made and their outcomes recorded.
+         */
+        CLOSED,
+        /**
+         * Calls are refused.
+         */
+        OPEN,
+        /**
+         * A limited number of trial calls are made to decide whether to close the circuit.
+         */
+        HALF_OPEN
+    }
+
+
+    /**
+     * Creates an instance of this class reading the time from the computation scheduler.
+     *
+     * @param name The name of the circuit, used in errors and logging.
+     */
+    public CircuitBreaker(final String name) {
+        this(name, Schedulers.computation());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param name      The name of the circuit, used in errors and logging.
+     * @param scheduler The scheduler to read the time from.
+     */
+    public CircuitBreaker(final String name, final Scheduler scheduler) {
+        Objects.requireNonNull(name, "A name is required.");
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        this.name = name;
+        this.scheduler = scheduler;
+        recordedAsFailure.put(IllegalArgumentException.class, false);
+        recordedAsFailure.put(SecurityException.class, false);
+        recordedAsFailure.put(NotFoundException.class, false);
+        // Throttling is handled by pausing requests rather than by opening the circuit.
+        recordedAsFailure.put(TooManyRequestsException.class, false);
+        recordedAsFailure.put(BulkheadFullException.class, false);
+        reset(State.CLOSED);
+    }
+
+
+    /**
+     * Applies the circuit breaker to a call.
+     *
+     * @param call The call, which is not made while the circuit is open.
+     * @return The call, which fails with a {@link CircuitOpenException} if it may not be made.
+     */
+    public <T> Single<T> apply(final Single<T> call) {
+        return Single.defer(() ->
+        {
+            final long generation = tryAcquirePermission();
+
+            if (generation < 0L) {
+                return Single.error(new CircuitOpenException("The " + name + " circuit is open."));
+            }
+
+            final long start = scheduler.now(TimeUnit.MILLISECONDS);
+
+            return call.doOnEvent((value, error) ->
+                            record(generation, scheduler.now(TimeUnit.MILLISECONDS) - start,
+                                    error != null && isRecordedAsFailure(error))).
+                    doOnDispose(() -> releasePermission(generation));
+        });
+    }
+
+
+    /**
+     * The state of the circuit, moving from open to half-open should the open period be over.
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && scheduler.now(TimeUnit.MILLISECONDS) - openedAt >= openDuration.toMillis()) {
+            transition(State.HALF_OPEN);
+        }
+
+        return state;
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Whether an error is recorded as a failed call, based on the most specific of its types that this has been set
+     * for.
+     */
+    public boolean isRecordedAsFailure(final Throwable error) {
+        for (Class<?> type = error.getClass(); type != null; type = type.getSuperclass()) {
+            final Boolean typeRecorded = recordedAsFailure.get(type);
+
+            if (typeRecorded != null) {
+                return typeRecorded;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * @return The generation of the state the permission was granted in, or -1 if a call is not permitted.
+     */
+    private synchronized long tryAcquirePermission() {
+        return switch (getState()) {
+            case CLOSED -> generation;
+            case OPEN -> -1L;
+            case HALF_OPEN -> {
+                if (trialCalls >= halfOpenCalls) {
+                    yield -1L;
+                }
+
+                trialCalls++;
+
+                yield generation;
+            }
+        };
+    }
+
+
+    private synchronized void releasePermission(final long callGeneration) {
+        // A trial call that was abandoned leaves its place for another.
+        if (callGeneration == generation && state == State.HALF_OPEN) {
+            trialCalls--;
+        }
+    }
+
+
+    private synchronized void record(final long callGeneration, final long durationMillis, final boolean failed) {
+        // Outcomes of calls made before the circuit last changed state say nothing of its current state.
+        if (callGeneration != generation) {
+            return;
+        }
+
+        final boolean slow = durationMillis >= slowCallDuration.toMillis();
+
+        outcomes[nextOutcome] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+        windowCalls = Math.min(windowCalls + 1, outcomes.length);
+
+        int failedCalls = 0;
+        int slowCalls = 0;
+
+        for (int i = 0; i < windowCalls; i++) {
+            failedCalls += outcomes[i] & FAILED;
+            slowCalls += (outcomes[i] & SLOW) >> 1;
+        }
+
+        final boolean unhealthy = failedCalls >= failureRateThreshold * windowCalls ||
+                slowCalls >= slowCallRateThreshold * windowCalls;
+
+        if (state == State.HALF_OPEN) {
+            if (unhealthy) {
+                transition(State.OPEN);
+            } else if (windowCalls == outcomes.length) {
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED && windowCalls >= minimumCalls && unhealthy) {
+            LOG.warn("The {} circuit has opened after {} failed and {} slow calls out of {}.", name, failedCalls,
+                    slowCalls, windowCalls);
+            transition(State.OPEN);
+        }
+    }
+
+
+    private void transition(final State state) {
+        LOG.info("The {} circuit is now {}.", name, state);
+        reset(state);
+    }
+
+
+    private void reset(final State state) {
+        this.state = state;
+        generation++;
+        openedAt = scheduler.now(TimeUnit.MILLISECONDS);
+        trialCalls = 0;
+        windowCalls = 0;
+        nextOutcome = 0;
+        outcomes = new byte[state == State.HALF_OPEN ? halfOpenCalls : windowSize];
+    }
+
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the number of most recent calls the failure and slow call rates are taken over.  Defaults to 20.
+     *
+     * @return This instance.
+     */
+    public synchronized CircuitBreaker setWindowSize(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("The window must hold at least one call.");
+        }
+
+        this.windowSize = windowSize;
+        reset(state);
+
+        return this;
+    }
+
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Sets the number of calls that must be recorded before the circuit may open.  Defaults to 10.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setMinimumCalls(final int minimumCalls) {
+        if (minimumCalls < 1) {
+            throw new IllegalArgumentException("At least one call must be recorded.");
+        }
+
+        this.minimumCalls = minimumCalls;
+
+        return this;
+    }
+
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Sets the proportion of failed calls at which the circuit opens.  Defaults to 0.5.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setFailureRateThreshold(final double failureRateThreshold) {
+        this.failureRateThreshold = rate(failureRateThreshold);
+
+        return this;
+    }
+
+
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    /**
+     * Sets how long a call must take to be recorded as slow.  Defaults to five seconds.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setSlowCallDuration(final Duration slowCallDuration) {
+        Objects.requireNonNull(slowCallDuration, "A slow call duration is required.");
+
+        if (slowCallDuration.isNegative() || slowCallDuration.isZero()) {
+            throw new IllegalArgumentException("The slow call duration must be positive.");
+        }
+
+        this.slowCallDuration = slowCallDuration;
+
+        return this;
+    }
+
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * Sets the proportion of slow calls at which the circuit opens.  Defaults to 0.8.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setSlowCallRateThreshold(final double slowCallRateThreshold) {
+        this.slowCallRateThreshold = rate(slowCallRateThreshold);
+
+        return this;
+    }
+
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Sets how long the circuit stays open before permitting trial calls.  Defaults to 30 seconds.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setOpenDuration(final Duration openDuration) {
+        Objects.requireNonNull(openDuration, "An open duration is required.");
+
+        if (openDuration.isNegative()) {
+            throw new IllegalArgumentException("The open duration may not be negative.");
+        }
+
+        this.openDuration = openDuration;
+
+        return this;
+    }
+
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    /**
+     * Sets the number of trial calls made while half-open.  Defaults to 3.
+     *
+     * @return This instance.
+     */
+    public synchronized CircuitBreaker setHalfOpenCalls(final int halfOpenCalls) {
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("At least one trial call must be permitted.");
+        }
+
+        this.halfOpenCalls = halfOpenCalls;
+        reset(state);
+
+        return this;
+    }
+
+
+    /**
+     * Sets whether errors of a type, and its subtypes unless set otherwise, are recorded as failed calls.
+     *
+     * @return This instance.
+     */
+    public CircuitBreaker setRecordedAsFailure(final Class<? extends Throwable> type, final boolean recordedAsFailure) {
+        Objects.requireNonNull(type, "An error type is required.");
+
+        this.recordedAsFailure.put(type, recordedAsFailure);
+
+        return this;
+    }
+
+
+    private static double rate(final double rate) {
+        if (!(rate > 0.0) || rate > 1.0) {
+            throw new IllegalArgumentException("A rate threshold must be greater than zero and at most one.");
+        }
+
+        return rate;
+    }
+
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final Scheduler scheduler;
+    private final Map<Class<?>, Boolean> recordedAsFailure = new LinkedHashMap<>();
+
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private double failureRateThreshold = 0.5;
+    private Duration slowCallDuration = Duration.ofSeconds(5L);
+    private double slowCallRateThreshold = 0.8;
+    private Duration openDuration = Duration.ofSeconds(30L);
+    private int halfOpenCalls = 3;
+
+    // Guarded by this instance.
+    private State state;
+    private long generation;
+    private long openedAt;
+    private int trialCalls;
+    private int windowCalls;
+    private int nextOutcome;
+    private byte[] outcomes;
+}
@@ -0,0 +1,49 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Completable;
+
+import java.time.Duration;
+
+
+/**
+ * Shapes the rate at which requests are made.  Permission to make a request is acquired without blocking so a
+ * limiter may be used from an event loop.
+ */
+public interface RateLimiter {
+    /**
+     * Acquires permission to make a single request.
+     *
+     * @return A future result that completes once the request may be made.
+     */
+    Completable acquire();
+
+    /**
+     * Prevents any further permission being granted for the given duration e.g. when the remote server has asked
+     * for requests to be retried after a period.
+     *
+     * @param duration The period to withhold permission for.
+     */
+    void pause(Duration duration);
+
+
+    /**
+     * A rate limiter that grants permission immediately and ignores pauses.
+     *
+     * @return A rate limiter that does not limit the rate of requests.
+     */
+    static RateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+
+    RateLimiter UNLIMITED = new RateLimiter() {
+        @Override
+        public Completable acquire() {
+            return Completable.complete();
+        }
+
+        @Override
+        public void pause(final Duration duration) {
+        }
+    };
+}
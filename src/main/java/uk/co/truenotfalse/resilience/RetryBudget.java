@@ -0,0 +1,128 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Caps retries as a fraction of the requests made, so that when many requests are failing retries cannot multiply the
+ * load on a struggling server.  Requests and retries are counted over a sliding window of ten seconds and a retry is
+ * permitted while the retries in the window are fewer than the given ratio of the requests, plus a minimum number of
+ * retries per second permitted regardless of traffic so that a quiet client may still retry.
+ * <p>
+ * Budgets are intended to be shared by all the requests of a client.
+ */
+public class RetryBudget {
+    /**
+     * Creates an instance of this class reading the time from the computation scheduler.
+     *
+     * @param ratio               The maximum number of retries per request made.
+     * @param minRetriesPerSecond The number of retries per second permitted regardless of the requests made.
+     */
+    public RetryBudget(final double ratio, final double minRetriesPerSecond) {
+        this(ratio, minRetriesPerSecond, Schedulers.computation());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param ratio               The maximum number of retries per request made.
+     * @param minRetriesPerSecond The number of retries per second permitted regardless of the requests made.
+     * @param scheduler           The scheduler to read the time from.
+     */
+    public RetryBudget(final double ratio, final double minRetriesPerSecond, final Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        if (!(ratio >= 0.0) || !(minRetriesPerSecond >= 0.0)) {
+            throw new IllegalArgumentException("A retry budget may not be negative.");
+        }
+
+        this.ratio = ratio;
+        this.minRetries = minRetriesPerSecond * WINDOW_SECONDS;
+        this.scheduler = scheduler;
+    }
+
+
+    /**
+     * A budget that permits every retry.
+     */
+    public static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+
+    /**
+     * Records a request being made, whether a first attempt or a retry.
+     */
+    public synchronized void recordRequest() {
+        if (this == UNLIMITED) {
+            return;
+        }
+
+        requests[bucket()]++;
+    }
+
+
+    /**
+     * Takes a retry from the budget.
+     *
+     * @return Whether a retry is permitted.
+     */
+    public synchronized boolean tryAcquireRetry() {
+        if (this == UNLIMITED) {
+            return true;
+        }
+
+        final int bucket = bucket();
+        long requestCount = 0L;
+        long retryCount = 0L;
+
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            requestCount += requests[i];
+            retryCount += retries[i];
+        }
+
+        if (retryCount + 1 > minRetries + ratio * requestCount) {
+            return false;
+        }
+
+        retries[bucket]++;
+
+        return true;
+    }
+
+
+    /**
+     * @return The bucket of the current second, having cleared any buckets that have left the window.
+     */
+    private int bucket() {
+        final long second = scheduler.now(TimeUnit.SECONDS);
+
+        for (long expired = Math.max(currentSecond + 1L, second - WINDOW_SECONDS + 1L); expired <= second; expired++) {
+            final int bucket = (int) Math.floorMod(expired, (long) WINDOW_SECONDS);
+
+            requests[bucket] = 0L;
+            retries[bucket] = 0L;
+        }
+
+        currentSecond = Math.max(currentSecond, second);
+
+        return (int) Math.floorMod(currentSecond, (long) WINDOW_SECONDS);
+    }
+
+
+    private static final int WINDOW_SECONDS = 10;
+    private static final RetryBudget UNLIMITED = new RetryBudget(0.0, 0.0);
+
+    private final double ratio;
+    private final double minRetries;
+    private final Scheduler scheduler;
+
+    private final long[] requests = new long[WINDOW_SECONDS];
+    private final long[] retries = new long[WINDOW_SECONDS];
+    private long currentSecond = Long.MIN_VALUE / 2L;
+}
@@ -0,0 +1,352 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.reactivestreams.Publisher;
+import uk.co.truenotfalse.BulkheadFullException;
+import uk.co.truenotfalse.CircuitOpenException;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * A policy for retrying failed calls with exponentially increasing, jittered, delays.
+ * <p>
+ * Only errors of retryable types are retried, by default anything other than a bad request, a forbidden request, a
+ * resource not found, which no number of retries will change, or a call refused by a circuit breaker or bulkhead, which
+ * is refused so that the caller may move on.  The delay before a retry is at least any period the
+ * server asked for with a Too Many Requests response.  Retries are also subject to a {@link RetryBudget} and, should a
+ * deadline be set, no call may take longer than its deadline nor is a retry attempted that could not begin before it.
+ * <p>
+ * Policies are configured with their setters and should not be changed once in use.
+ */
+public class RetryPolicy {
+    /**
+     * How delays between retries are randomised so that clients that failed together do not retry together.
+     */
+    public enum Jitter {
+        /**
+         * Delays are exactly exponential.
+         */
+        NONE,
+        /**
+         * Delays are chosen at random between zero and the exponential delay.
+         */
+        FULL,
+        /**
+         * Delays are chosen at random between the base delay and three times the previous delay.
+         */
+        DECORRELATED
+    }
+
+
+    /**
+     * Creates an instance of this class timing delays with the computation scheduler.
+     */
+    public RetryPolicy() {
+        this(Schedulers.computation());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param scheduler The scheduler to read the time from and to time delays with.
+     */
+    public RetryPolicy(final Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        this.scheduler = scheduler;
+        retryable.put(IllegalArgumentException.class, false);
+        retryable.put(SecurityException.class, false);
+        retryable.put(NotFoundException.class, false);
+        retryable.put(CircuitOpenException.class, false);
+        retryable.put(BulkheadFullException.class, false);
+    }
+
+
+    /**
+     * Applies the policy to a call.
+     *
+     * @param call The call, which is made again on each retry.
+     * @return The call with retries.  Should a deadline be set, the call fails with a
+     * {@link java.util.concurrent.TimeoutException} once it passes.
+     */
+    public <T> Single<T> apply(final Single<T> call) {
+        final Single<T> retried = call.doOnSubscribe(subscription -> budget.recordRequest()).retryWhen(retries(() -> true));
+
+        return deadline != null ? retried.timeout(deadline.toMillis(), TimeUnit.MILLISECONDS, scheduler) : retried;
+    }
+
+
+    /**
+     * Applies the policy to a streaming call.  Retrying once items have been emitted would repeat them so failures are
+     * only retried before then.  Any deadline limits when a retry may begin but not how long the stream may take.
+     *
+     * @param call The call, which is made again on each retry.
+     * @return The call with retries.
+     */
+    public <T> Flowable<T> apply(final Flowable<T> call) {
+        return Flowable.defer(() ->
+        {
+            final AtomicBoolean emitted = new AtomicBoolean();
+
+            return call.doOnSubscribe(subscription -> budget.recordRequest()).doOnNext(item -> emitted.set(true)).
+                    retryWhen(retries(() -> !emitted.get()));
+        });
+    }
+
+
+    /**
+     * The delay before the given retry.
+     *
+     * @param retry         The number of the retry, counting from one.
+     * @param previousDelay The delay in milliseconds before the previous retry, or the base delay before the first.
+     * @return The delay in milliseconds.
+     */
+    long delayMillis(final int retry, final long previousDelay) {
+        final long base = baseDelay.toMillis();
+        final long max = maxDelay.toMillis();
+        final double exponential = Math.min(max, base * Math.pow(multiplier, retry - 1));
+
+        return switch (jitter) {
+            case NONE -> Math.round(exponential);
+            case FULL -> Math.round(ThreadLocalRandom.current().nextDouble() * exponential);
+            case DECORRELATED -> Math.min(max,
+                    base + Math.round(ThreadLocalRandom.current().nextDouble() * Math.max(0L, previousDelay * 3L - base)));
+        };
+    }
+
+
+    /**
+     * Whether an error may be retried, based on the most specific of its types that retryability has been set for.
+     */
+    public boolean isRetryable(final Throwable error) {
+        for (Class<?> type = error.getClass(); type != null; type = type.getSuperclass()) {
+            final Boolean typeRetryable = retryable.get(type);
+
+            if (typeRetryable != null) {
+                return typeRetryable;
+            }
+        }
+
+        return true;
+    }
+
+
+    private Function<Flowable<Throwable>, Publisher<?>> retries(final BooleanSupplier retryPermitted) {
+        return errors ->
+        {
+            final long start = scheduler.now(TimeUnit.MILLISECONDS);
+            final AtomicInteger retry = new AtomicInteger();
+            final AtomicLong previousDelay = new AtomicLong(baseDelay.toMillis());
+
+            return errors.concatMap(error ->
+            {
+                if (retry.incrementAndGet() > maxRetries || !retryPermitted.getAsBoolean() || !isRetryable(error)) {
+                    return Flowable.error(error);
+                }
+
+                long delay = delayMillis(retry.get(), previousDelay.get());
+
+                if (error instanceof TooManyRequestsException tooManyRequests && tooManyRequests.getRetryAfter() != null) {
+                    delay = Math.max(delay, tooManyRequests.getRetryAfter().toMillis());
+                }
+
+                if (deadline != null && scheduler.now(TimeUnit.MILLISECONDS) + delay - start >= deadline.toMillis()) {
+                    return Flowable.error(error);
+                }
+
+                // Taken last so the budget is only spent on retries that will be made.
+                if (!budget.tryAcquireRetry()) {
+                    return Flowable.error(error);
+                }
+
+                previousDelay.set(delay);
+
+                return Flowable.timer(delay, TimeUnit.MILLISECONDS, scheduler);
+            });
+        };
+    }
+
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the maximum number of retries of a call.  Defaults to 3.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setMaxRetries(final int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("The maximum number of retries may not be negative.");
+        }
+
+        this.maxRetries = maxRetries;
+
+        return this;
+    }
+
+
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    /**
+     * Sets the delay before the first retry, before jitter.  Defaults to one second.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setBaseDelay(final Duration baseDelay) {
+        Objects.requireNonNull(baseDelay, "A base delay is required.");
+
+        if (baseDelay.isNegative()) {
+            throw new IllegalArgumentException("The base delay may not be negative.");
+        }
+
+        this.baseDelay = baseDelay;
+
+        return this;
+    }
+
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets the maximum delay before a retry, excluding any period asked for by the server.  Defaults to 30 seconds.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setMaxDelay(final Duration maxDelay) {
+        Objects.requireNonNull(maxDelay, "A maximum delay is required.");
+
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("The maximum delay may not be negative.");
+        }
+
+        this.maxDelay = maxDelay;
+
+        return this;
+    }
+
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Sets the factor each delay increases by over the previous.  Defaults to 2.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setMultiplier(final double multiplier) {
+        if (!(multiplier >= 1.0)) {
+            throw new IllegalArgumentException("The multiplier must be at least one.");
+        }
+
+        this.multiplier = multiplier;
+
+        return this;
+    }
+
+
+    public Jitter getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Sets how delays are randomised.  Defaults to {@link Jitter#FULL}.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setJitter(final Jitter jitter) {
+        Objects.requireNonNull(jitter, "A jitter is required.");
+
+        this.jitter = jitter;
+
+        return this;
+    }
+
+
+    /**
+     * Sets whether errors of a type, and its subtypes unless set otherwise, may be retried.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setRetryable(final Class<? extends Throwable> type, final boolean retryable) {
+        Objects.requireNonNull(type, "An error type is required.");
+
+        this.retryable.put(type, retryable);
+
+        return this;
+    }
+
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the longest a call, including its retries, may take.  Defaults to none.
+     *
+     * @param deadline The deadline or {@code null} for none.
+     * @return This instance.
+     */
+    public RetryPolicy setDeadline(final Duration deadline) {
+        if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+            throw new IllegalArgumentException("A deadline must be positive.");
+        }
+
+        this.deadline = deadline;
+
+        return this;
+    }
+
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the budget retries are taken from.  Defaults to {@link RetryBudget#unlimited()}.
+     *
+     * @return This instance.
+     */
+    public RetryPolicy setBudget(final RetryBudget budget) {
+        Objects.requireNonNull(budget, "A retry budget is required.");
+
+        this.budget = budget;
+
+        return this;
+    }
+
+
+    private final Scheduler scheduler;
+    private final Map<Class<?>, Boolean> retryable = new LinkedHashMap<>();
+
+    private int maxRetries = 3;
+    private Duration baseDelay = Duration.ofSeconds(1L);
+    private Duration maxDelay = Duration.ofSeconds(30L);
+    private double multiplier = 2.0;
+    private Jitter jitter = Jitter.FULL;
+    private Duration deadline;
+    private RetryBudget budget = RetryBudget.unlimited();
+}
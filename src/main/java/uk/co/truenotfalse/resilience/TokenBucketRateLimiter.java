@@ -0,0 +1,119 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A {@link RateLimiter} using a token bucket.  The bucket refills at a steady rate up to a maximum burst size and each
+ * request takes a token.  When the bucket is empty a request reserves the next token to become available and is
+ * delayed on a timer until then, so requests are spaced out rather than rejected and no thread is ever blocked.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+    /**
+     * Creates an instance of this class timing delays with the computation scheduler.
+     *
+     * @param permitsPerSecond The steady rate at which requests are permitted.
+     * @param burst            The maximum number of requests permitted at once after a quiet period.
+     */
+    public TokenBucketRateLimiter(final double permitsPerSecond, final int burst) {
+        this(permitsPerSecond, burst, Schedulers.computation());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param permitsPerSecond The steady rate at which requests are permitted.
+     * @param burst            The maximum number of requests permitted at once after a quiet period.
+     * @param scheduler        The scheduler to read the time from and to time delays with.
+     */
+    public TokenBucketRateLimiter(final double permitsPerSecond, final int burst, final Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "A scheduler is required.");
+
+        if (!(permitsPerSecond > 0.0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("A positive rate is required.");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("A burst of at least one is required.");
+        }
+
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1L) / permitsPerSecond;
+        this.burst = burst;
+        this.scheduler = scheduler;
+        this.tokens = burst;
+        this.lastRefill = scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable acquire() {
+        return Completable.defer(() ->
+        {
+            final long delay = reserve();
+
+            return delay > 0L ? Completable.timer(delay, TimeUnit.NANOSECONDS, scheduler) : Completable.complete();
+        });
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The bucket is emptied and does not refill until the pause is over.  Requests that have already been granted a
+     * delayed permission are not affected.
+     */
+    @Override
+    public synchronized void pause(final Duration duration) {
+        Objects.requireNonNull(duration, "A duration is required.");
+
+        final long now = scheduler.now(TimeUnit.NANOSECONDS);
+
+        refill(now);
+
+        tokens = Math.min(tokens, 0.0);
+        lastRefill = Math.max(lastRefill, now + duration.toNanos());
+    }
+
+
+    /**
+     * Takes a token, possibly one that is not yet available.
+     *
+     * @return The delay, in nanoseconds, until the token taken is available.
+     */
+    private synchronized long reserve() {
+        final long now = scheduler.now(TimeUnit.NANOSECONDS);
+
+        refill(now);
+        tokens -= 1.0;
+
+        // The refill time may be in the future while paused.
+        final long available = lastRefill + (tokens < 0.0 ? (long) Math.ceil(-tokens * nanosPerPermit) : 0L);
+
+        return available - now;
+    }
+
+
+    private void refill(final long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / nanosPerPermit);
+            lastRefill = now;
+        }
+    }
+
+
+    private final double nanosPerPermit;
+    private final int burst;
+    private final Scheduler scheduler;
+
+    private double tokens;
+    private long lastRefill;
+}
@@ -0,0 +1,351 @@
+package uk.co.truenotfalse.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Locale;
+
+import static java.time.temporal.ChronoField.*;
+
+
+/**
+ * Parses and formats ISO offset date-times in the fixed shape used by the interview tests mock API,
+ * {@code yyyy-MM-ddTHH:mm:ss.SSS} followed by {@code Z} or an offset such as {@code +01:00}.
+ * <p>
+ * Date-times of exactly that shape are parsed and formatted directly, character by character, without the
+ * intermediate objects of a {@link DateTimeFormatter}.  Anything else is handed to {@link #ISO_OFFSET_DATE_TIME}, so
+ * the results are always those of that formatter, including exactly three decimal places of seconds when formatting.
+ */
+public final class OffsetDateTimeCodec {
+    /**
+     * Parses a date-time.
+     *
+     * @param text The text to parse.
+     * @return The date-time parsed.
+     * @throws DateTimeParseException Should the text not be a valid date-time.
+     */
+    public static OffsetDateTime parse(final CharSequence text) {
+        if (!isFixedShape(text)) {
+            return OffsetDateTime.parse(text, ISO_OFFSET_DATE_TIME);
+        }
+
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+
+        validateDate(text, year, month, day);
+
+        try {
+            return OffsetDateTime.of(year, month, day, digits(text, 11, 2), digits(text, 14, 2), digits(text, 17, 2),
+                    digits(text, 20, 3) * NANOS_PER_MILLI, ZoneOffset.ofTotalSeconds(offsetSeconds(text)));
+        } catch (final DateTimeException dte) {
+            throw new DateTimeParseException(dte.getMessage(), text, 0, dte);
+        }
+    }
+
+
+    /**
+     * Parses a date-time to the instant it represents.
+     *
+     * @param text The text to parse.
+     * @return The date-time parsed as milliseconds since the epoch.
+     * @throws DateTimeParseException Should the text not be a valid date-time.
+     */
+    public static long parseEpochMillis(final CharSequence text) {
+        if (!isFixedShape(text)) {
+            return OffsetDateTime.parse(text, ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        }
+
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        final int offsetSeconds = offsetSeconds(text);
+
+        validateDate(text, year, month, day);
+
+        if (hour > 23 || minute > 59 || second > 59 || Math.abs(offsetSeconds) > MAX_OFFSET_SECONDS) {
+            throw new DateTimeParseException("Invalid time or offset.", text, 0);
+        }
+
+        final long localSeconds = daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+
+        return (localSeconds - offsetSeconds) * 1000L + digits(text, 20, 3);
+    }
+
+
+    /**
+     * Parses the offset of a date-time.
+     *
+     * @param text The text to parse.
+     * @return The offset parsed as a number of seconds.
+     * @throws DateTimeParseException Should the text not be a valid date-time.  Only the shape of the text before the
+     *                                offset is checked.
+     */
+    public static int parseOffsetSeconds(final CharSequence text) {
+        if (!isFixedShape(text)) {
+            return OffsetDateTime.parse(text, ISO_OFFSET_DATE_TIME).getOffset().getTotalSeconds();
+        }
+
+        return offsetSeconds(text);
+    }
+
+
+    /**
+     * Formats a date-time.
+     *
+     * @param dateTime The date-time to format.
+     * @return The date-time formatted.
+     */
+    public static String format(final OffsetDateTime dateTime) {
+        final StringBuilder text = new StringBuilder(MAX_LENGTH);
+
+        formatTo(dateTime, text);
+
+        return text.toString();
+    }
+
+
+    /**
+     * Formats a date-time, appending it to a buffer.
+     *
+     * @param dateTime The date-time to format.
+     * @param text     The buffer to append to.
+     */
+    public static void formatTo(final OffsetDateTime dateTime, final StringBuilder text) {
+        final int year = dateTime.getYear();
+
+        if (year < 0 || year > 9999) {
+            ISO_OFFSET_DATE_TIME.formatTo(dateTime, text);
+
+            return;
+        }
+
+        appendDateTime(text, year, dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(),
+                dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / NANOS_PER_MILLI,
+                dateTime.getOffset().getTotalSeconds());
+    }
+
+
+    /**
+     * Formats an instant with an offset, appending it to a buffer.
+     *
+     * @param epochMillis   The instant as milliseconds since the epoch.
+     * @param offsetSeconds The offset to format the instant with as a number of seconds.
+     * @param text          The buffer to append to.
+     */
+    public static void formatTo(final long epochMillis, final int offsetSeconds, final StringBuilder text) {
+        final long localMillis = epochMillis + offsetSeconds * 1000L;
+        final long days = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        final int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+        // Convert days since the epoch to a civil date.
+        final long shifted = days + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        final long dayOfEra = shifted - era * DAYS_PER_ERA;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long marchMonth = (5 * dayOfYear + 2) / 153;
+        final int day = (int) (dayOfYear - (153 * marchMonth + 2) / 5 + 1);
+        final int month = (int) (marchMonth < 10 ? marchMonth + 3 : marchMonth - 9);
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0L || year > 9999L) {
+            ISO_OFFSET_DATE_TIME.formatTo(OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis),
+                    ZoneOffset.ofTotalSeconds(offsetSeconds)), text);
+
+            return;
+        }
+
+        appendDateTime(text, (int) year, month, day, millisOfDay / 3_600_000, millisOfDay / 60_000 % 60,
+                millisOfDay / 1000 % 60, millisOfDay % 1000, offsetSeconds);
+    }
+
+
+    private static void appendDateTime(final StringBuilder text, final int year, final int month, final int day,
+                                       final int hour, final int minute, final int second, final int millis,
+                                       final int offsetSeconds) {
+        appendDigits(text, year, 4);
+        appendDigits(text.append('-'), month, 2);
+        appendDigits(text.append('-'), day, 2);
+        appendDigits(text.append('T'), hour, 2);
+        appendDigits(text.append(':'), minute, 2);
+        appendDigits(text.append(':'), second, 2);
+        appendDigits(text.append('.'), millis, 3);
+
+        if (offsetSeconds == 0) {
+            text.append('Z');
+
+            return;
+        }
+
+        // As for an offset ID, seconds are only included when not zero.
+        final int absoluteOffset = Math.abs(offsetSeconds);
+
+        appendDigits(text.append(offsetSeconds < 0 ? '-' : '+'), absoluteOffset / 3600, 2);
+        appendDigits(text.append(':'), absoluteOffset / 60 % 60, 2);
+
+        if (absoluteOffset % 60 != 0) {
+            appendDigits(text.append(':'), absoluteOffset % 60, 2);
+        }
+    }
+
+
+    private static void appendDigits(final StringBuilder text, final int value, final int width) {
+        for (int divisor = POWERS_OF_TEN[width - 1]; divisor > 0; divisor /= 10) {
+            text.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+
+    /**
+     * Whether text is of the fixed shape handled directly, the values of fields are not checked.
+     */
+    private static boolean isFixedShape(final CharSequence text) {
+        final int length = text.length();
+
+        if (length != 24 && length != 29 && length != 32) {
+            return false;
+        }
+
+        for (int i = 0; i < 23; i++) {
+            final char c = text.charAt(i);
+            final char separator = SHAPE.charAt(i);
+
+            if (separator == '0' ? c < '0' || c > '9' : c != separator) {
+                return false;
+            }
+        }
+
+        final char sign = text.charAt(23);
+
+        if (length == 24) {
+            return sign == 'Z';
+        }
+
+        return (sign == '+' || sign == '-') && isDigits(text, 24, 2) && text.charAt(26) == ':' &&
+                isDigits(text, 27, 2) && (length == 29 || text.charAt(29) == ':' && isDigits(text, 30, 2));
+    }
+
+
+    private static boolean isDigits(final CharSequence text, final int from, final int count) {
+        for (int i = from; i < from + count; i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private static int digits(final CharSequence text, final int from, final int count) {
+        int value = 0;
+
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + text.charAt(i) - '0';
+        }
+
+        return value;
+    }
+
+
+    private static int offsetSeconds(final CharSequence text) {
+        if (text.length() == 24) {
+            return 0;
+        }
+
+        final int minutes = digits(text, 27, 2);
+        final int seconds = text.length() == 32 ? digits(text, 30, 2) : 0;
+
+        if (minutes > 59 || seconds > 59) {
+            throw new DateTimeParseException("Invalid offset.", text, 23);
+        }
+
+        final int totalSeconds = digits(text, 24, 2) * 3600 + minutes * 60 + seconds;
+
+        return text.charAt(23) == '-' ? -totalSeconds : totalSeconds;
+    }
+
+
+    private static void validateDate(final CharSequence text, final int year, final int month, final int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new DateTimeParseException("Invalid date.", text, 0);
+        }
+    }
+
+
+    private static int lengthOfMonth(final int year, final int month) {
+        return switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+
+    /**
+     * Converts a civil date to days since the epoch.
+     */
+    private static long daysFromCivil(final int year, final int month, final int day) {
+        final long marchYear = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(marchYear, 400);
+        final long yearOfEra = marchYear - era * 400;
+        final long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+
+    private OffsetDateTimeCodec() {
+        throw new UnsupportedOperationException("Instance of OffsetDateTimeCodec may not be instantiated.");
+    }
+
+
+    // The API requires 3 dp. for the fractional seconds even if the value is zero (and so optional).
+    // Fix 3 dp for fraction of a second.
+    private static final DateTimeFormatter ISO_LOCAL_TIME =
+            new DateTimeFormatterBuilder().appendValue(HOUR_OF_DAY, 2).appendLiteral(':').
+                    appendValue(MINUTE_OF_HOUR, 2).optionalStart().appendLiteral(':').
+                    appendValue(SECOND_OF_MINUTE, 2).optionalStart().
+                    appendFraction(NANO_OF_SECOND, 3, 3, true).
+                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
+                    withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * ISO local date-time formatter with exactly 3 dp. for the fraction of a second.
+     */
+    public static final DateTimeFormatter ISO_LOCAL_DATE_TIME =
+            new DateTimeFormatterBuilder().parseCaseInsensitive().append(DateTimeFormatter.ISO_LOCAL_DATE).appendLiteral('T').
+                    append(ISO_LOCAL_TIME).
+                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
+                    withResolverStyle(ResolverStyle.STRICT).withChronology(IsoChronology.INSTANCE);
+
+    /**
+     * ISO offset date-time formatter with exactly 3 dp. for the fraction of a second.
+     */
+    public static final DateTimeFormatter ISO_OFFSET_DATE_TIME =
+            new DateTimeFormatterBuilder().parseCaseInsensitive().append(ISO_LOCAL_DATE_TIME).appendOffsetId().
+                    toFormatter(Locale.getDefault(Locale.Category.FORMAT)).
+                    withResolverStyle(ResolverStyle.STRICT).withChronology(IsoChronology.INSTANCE);
+
+    private static final String SHAPE = "0000-00-00T00:00:00.000";
+    private static final int MAX_LENGTH = 32;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000};
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long MILLIS_PER_DAY = SECONDS_PER_DAY * 1000L;
+    private static final long DAYS_PER_ERA = 146_097L;
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+}
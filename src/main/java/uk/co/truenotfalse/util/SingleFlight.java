@@ -0,0 +1,58 @@
+package uk.co.truenotfalse.util;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.functions.Supplier;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Coalesces concurrent identical calls so that they share a single execution.
+ * <p>
+ * While a call for a key is in flight, further subscribers for the same key join it rather than starting another and
+ * all receive its result or error.  Once the call finishes, the next subscriber for the key starts a fresh call, so
+ * results are never cached beyond the life of a call.  A call is cancelled should every subscriber to it dispose.
+ *
+ * @param <K> The type of the keys identifying calls.
+ * @param <T> The type of the results of calls.
+ */
+public class SingleFlight<K, T> {
+    /**
+     * Makes a call, or joins the call in flight for the same key.
+     *
+     * @param key  The key identifying the call.
+     * @param call Supplies the call to make should none be in flight, it is not invoked otherwise.
+     * @return A future result of the call, the call is made on subscription.
+     */
+    public Single<T> execute(final K key, final Supplier<Single<T>> call) {
+        Objects.requireNonNull(key, "A key is required.");
+        Objects.requireNonNull(call, "A call is required.");
+
+        return Single.defer(() -> inFlight.computeIfAbsent(key, absent -> share(key, call)));
+    }
+
+
+    /**
+     * The number of calls currently in flight.
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+
+    private Single<T> share(final K key, final Supplier<Single<T>> call) {
+        final AtomicReference<Single<T>> shared = new AtomicReference<>();
+
+        // Ends the call's flight however it finishes, including when every subscriber has disposed.
+        shared.set(Single.defer(call).doFinally(() -> inFlight.remove(key, shared.get())).
+                toFlowable().publish().refCount().singleOrError());
+
+        return shared.get();
+    }
+
+
+    private final Map<K, Single<T>> inFlight = new ConcurrentHashMap<>();
+}
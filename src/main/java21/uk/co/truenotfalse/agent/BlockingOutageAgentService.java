@@ -0,0 +1,292 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.exceptions.CompositeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.dao.BlockingInterviewTestsMockApiDao;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageIntervalIndex;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+
+/**
+ * A synchronous counterpart of {@link OutageAgentService} that updates sites with plain blocking code, each site on a
+ * virtual thread of its own, through a {@link BlockingInterviewTestsMockApiDao}.  Every call blocks until the updates
+ * it makes have finished.
+ */
+public class BlockingOutageAgentService {
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao The DAO instance to use for communicating with the interview tests mock API.
+     */
+    public BlockingOutageAgentService(final BlockingInterviewTestsMockApiDao apiDao) {
+        this(apiDao, new InMemoryPostedOutagesStore());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao        The DAO instance to use for communicating with the interview tests mock API.
+     * @param postedOutages The record of outages posted to each site.  A site is only posted to when its outages
+     *                      differ from those last posted to it.
+     */
+    public BlockingOutageAgentService(final BlockingInterviewTestsMockApiDao apiDao,
+                                      final PostedOutagesStore postedOutages) {
+        this(apiDao, postedOutages, MetricsRegistry.noop());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiDao        The DAO instance to use for communicating with the interview tests mock API.
+     * @param postedOutages The record of outages posted to each site.  A site is only posted to when its outages
+     *                      differ from those last posted to it.
+     * @param metrics       The registry to record the outages filtered and dropped, and site update durations, to.
+     */
+    public BlockingOutageAgentService(final BlockingInterviewTestsMockApiDao apiDao,
+                                      final PostedOutagesStore postedOutages, final MetricsRegistry metrics) {
+        Objects.requireNonNull(apiDao, "An instance of API DAO is required.");
+        Objects.requireNonNull(postedOutages, "A posted outages store is required.");
+        Objects.requireNonNull(metrics, "A metrics registry is required.");
+
+        this.apiDao = apiDao;
+        this.postedOutages = postedOutages;
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * Updates the outages of a site.  The outages and the site info are requested concurrently.
+     *
+     * @param siteId The ID of the site to update.
+     * @param cutoff Outages beginning before this date-time are excluded from the update.
+     */
+    public void updateOutages(final String siteId, final OffsetDateTime cutoff) {
+        LOG.debug("updateOutages('{}', {}) called.", siteId, cutoff);
+
+        Objects.requireNonNull(siteId, "A site ID is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        if (siteId.isBlank()) {
+            throw new IllegalArgumentException("A meaningful site ID is required.");
+        }
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<OutageTable> outages = executor.submit(() -> apiDao.fetchOutageTable(cutoff));
+
+            updateSiteOutages(siteId, info ->
+            {
+                final OutageTable current = join(outages);
+                final List<DeviceOutage> named = current.withDeviceNames(info).toDeviceOutages();
+
+                metrics.counter(MetricNames.OUTAGES_DROPPED).increment(current.size() - named.size());
+
+                return named;
+            });
+        }
+
+        postedOutages.save().blockingAwait();
+    }
+
+
+    /**
+     * Updates the outages of a number of sites.  The outage list is only requested once and is shared between all the
+     * sites, the site info requests and updates are then made concurrently.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time.
+     * @throws CompositeException Should more than one site fail to update, otherwise the error of the one site that
+     *                            failed is thrown.  A failure to update one site does not prevent the remaining sites
+     *                            being updated.
+     */
+    public void updateOutages(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                              final int maxConcurrency) {
+        final List<Throwable> errors =
+                updateSites(siteIds, cutoff, maxConcurrency).stream().filter(result -> !result.isSuccess()).
+                        map(SiteUpdateResult::error).toList();
+
+        if (errors.size() == 1 && errors.get(0) instanceof RuntimeException error) {
+            throw error;
+        } else if (!errors.isEmpty()) {
+            throw new CompositeException(errors);
+        }
+    }
+
+
+    /**
+     * Updates the outages of a number of sites reporting the outcome for each site.  The outage list is only requested
+     * once and is shared between all the sites, the site info requests and updates are then made concurrently.
+     *
+     * @param siteIds        The IDs of the sites to update.  Duplicates are ignored.
+     * @param cutoff         Outages beginning before this date-time are excluded from the updates.
+     * @param maxConcurrency The maximum number of sites to be updating at any one time.
+     * @return The outcome of each site update, in the order the sites were given.  A failure to update one site does
+     * not prevent the remaining sites being updated.
+     */
+    public List<SiteUpdateResult> updateSites(final Collection<String> siteIds, final OffsetDateTime cutoff,
+                                              final int maxConcurrency) {
+        LOG.debug("updateSites({} sites, {}, {}) called.", siteIds != null ? siteIds.size() : 0, cutoff,
+                maxConcurrency);
+
+        Objects.requireNonNull(siteIds, "A collection of site IDs is required.");
+        Objects.requireNonNull(cutoff, "A cutoff date-time is required.");
+
+        if (siteIds.stream().anyMatch(siteId -> siteId == null || siteId.isBlank())) {
+            throw new IllegalArgumentException("Only meaningful site IDs may be updated.");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least one.");
+        }
+
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final List<Future<SiteUpdateResult>> results = new ArrayList<>();
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Requested once for every site, the outages before the cutoff being dropped as they are decoded.  The
+            // rows of the table are indexed by device so that each site only visits the outages of its own devices
+            // rather than the whole feed.
+            final Future<OutageIntervalIndex> indexedOutages =
+                    executor.submit(() -> new OutageIntervalIndex(apiDao.fetchOutageTable(cutoff)));
+
+            // A thread per site is cheap, the permits limit how many are updating at once.
+            for (final String siteId : new LinkedHashSet<>(siteIds)) {
+                results.add(executor.submit(() ->
+                {
+                    permits.acquire();
+
+                    try {
+                        updateSiteOutages(siteId, info ->
+                        {
+                            final OutageIntervalIndex index = join(indexedOutages);
+                            final List<DeviceOutage> named =
+                                    OutageAgentService.attachDeviceNames(index.forDevices(info.keySet(), cutoff),
+                                            info);
+
+                            metrics.counter(MetricNames.OUTAGES_DROPPED).increment(index.beginningFrom(cutoff).size() -
+                                    named.size());
+
+                            return named;
+                        });
+                        LOG.info("Updated {}.", siteId);
+
+                        return new SiteUpdateResult(siteId, null);
+                    } catch (final RuntimeException re) {
+                        LOG.warn("Failed to update {}.", siteId, re);
+
+                        return new SiteUpdateResult(siteId, re);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        // The outages posted are saved once for the whole batch.
+        postedOutages.save().blockingAwait();
+
+        return results.stream().map(BlockingOutageAgentService::join).toList();
+    }
+
+
+    /**
+     * Posts the outages of a site's devices to it.
+     *
+     * @param siteId      The ID of the site.
+     * @param siteOutages Selects the outages of the site's devices, named, given its site info.
+     */
+    private void updateSiteOutages(final String siteId,
+                                   final Function<Map<Object, String>, List<DeviceOutage>> siteOutages) {
+        final long start = System.nanoTime();
+        boolean success = false;
+
+        try {
+            postIfChanged(siteId, siteOutages.apply(apiDao.fetchSiteInfo(siteId)));
+            success = true;
+        } finally {
+            metrics.histogram(MetricNames.SITE_UPDATE_SECONDS, MetricNames.OUTCOME_LABEL,
+                    success ? "success" : "failure").recordNanos(System.nanoTime() - start);
+        }
+    }
+
+
+    /**
+     * Posts outages to a site unless they are the same as the outages last posted to it.
+     */
+    private void postIfChanged(final String siteId, final List<DeviceOutage> outages) {
+        // Outage equality does not include the device name so that is compared separately as the mapped value.
+        final Map<DeviceOutage, String> named = new HashMap<>();
+
+        outages.forEach(outage -> named.put(outage, outage.getDeviceName()));
+
+        if (named.equals(postedOutages.get(siteId))) {
+            LOG.debug("The outages of {} are unchanged, no update is required.", siteId);
+
+            return;
+        }
+
+        // The API expects the full set of outages for a site so, once anything has changed, all of them are posted.
+        apiDao.sendSiteOutages(siteId, outages);
+
+        // The post has already succeeded so a failure to record it is only logged, at worst the same outages are
+        // posted again.
+        try {
+            postedOutages.put(siteId, named);
+        } catch (final RuntimeException re) {
+            LOG.warn("Unable to record the outages posted to {}.", siteId, re);
+        }
+    }
+
+
+    /**
+     * Waits for the result of a task, rethrowing any exception it failed with as it is.
+     */
+    private static <T> T join(final Future<T> task) {
+        try {
+            return task.get();
+        } catch (final ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (ee.getCause() instanceof Error error) {
+                throw error;
+            }
+
+            throw new IllegalStateException(ee.getCause());
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+
+            final CancellationException cancelled = new CancellationException("Interrupted while waiting.");
+
+            cancelled.initCause(ie);
+            throw cancelled;
+        }
+    }
+
+
+    private final Logger LOG = LoggerFactory.getLogger(BlockingOutageAgentService.class);
+
+    private final BlockingInterviewTestsMockApiDao apiDao;
+    private final PostedOutagesStore postedOutages;
+    private final MetricsRegistry metrics;
+}
@@ -0,0 +1,56 @@
+package uk.co.truenotfalse.dao;
+
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Interface for a client accessing endpoints of the remote Interview Tests Mock API with blocking calls.  Each call
+ * blocks the calling thread until the exchange has finished, so is best made on a virtual thread, and fails with the
+ * same exceptions as the equivalent call of {@link InterviewTestsMockApiDao}.
+ */
+public interface BlockingInterviewTestsMockApiDao {
+    /**
+     * Fetches a list of known device outages in the system.
+     *
+     * @return The list of known device outages.
+     */
+    List<DeviceOutage> fetchOutages();
+
+    /**
+     * Fetches the known device outages in the system as a compact table.
+     *
+     * @return The table of known device outages.
+     */
+    OutageTable fetchOutageTable();
+
+    /**
+     * Fetches the known device outages in the system that begin at or after a cutoff as a compact table.
+     *
+     * @param cutoff Outages beginning before this date-time are excluded from the table.
+     * @return The table of known device outages.
+     */
+    default OutageTable fetchOutageTable(final OffsetDateTime cutoff) {
+        return fetchOutageTable().beginningFrom(cutoff);
+    }
+
+    /**
+     * Fetches the device info for the named site.  This is, currently, simply device names mapped to their IDs.
+     *
+     * @param siteId The ID of the site e.g. kingfisher
+     * @return A map of device IDs to their names.
+     */
+    Map<Object, String> fetchSiteInfo(String siteId);
+
+    /**
+     * Updates the outage information with names for the named site.
+     *
+     * @param siteId        The ID of the site to update.
+     * @param outageUpdates The device information to update the site with.
+     */
+    void sendSiteOutages(String siteId, List<DeviceOutage> outageUpdates);
+}
@@ -0,0 +1,432 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.truenotfalse.ChunkedUpdateException;
+import uk.co.truenotfalse.TooManyRequestsException;
+import uk.co.truenotfalse.dao.ApiEndpoint;
+import uk.co.truenotfalse.dao.BlockingInterviewTestsMockApiDao;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+import uk.co.truenotfalse.resilience.RateLimiter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+
+/**
+ * Implementation of the {@link InterviewTestsMockApiDao} and {@link BlockingInterviewTestsMockApiDao} interfaces using
+ * the JDK's {@link HttpClient} with plain blocking code on virtual threads.
+ * <p>
+ * The blocking calls make their requests on the calling thread, which should itself be virtual as it is parked for
+ * the duration of each exchange.  The asynchronous calls simply make the blocking call on a new virtual thread.
+ * Requests are subject to the rate limiters, bulkheads, circuit breakers and retry policies of the options as they are
+ * with {@link InterviewTestsMockApiDaoImpl}, each attempt being made on a virtual thread of its own.  Responses are
+ * always requested, and decoded, in full on the thread that received them, conditional requests and the offloading of
+ * decoding are not supported.
+ */
+public class HttpClientInterviewTestsMockApiDao implements InterviewTestsMockApiDao, BlockingInterviewTestsMockApiDao {
+    /**
+     * Creates an instance of this class with default options.
+     *
+     * @param apiKey     The API key to authorize requests with.
+     * @param baseUri    The base URI to use for request endpoints.
+     * @param httpClient The HTTP client instance to use for making requests.
+     */
+    public HttpClientInterviewTestsMockApiDao(final String apiKey, final String baseUri, final HttpClient httpClient) {
+        this(apiKey, baseUri, httpClient, new InterviewTestsMockApiDaoOptions());
+    }
+
+
+    /**
+     * Creates an instance of this class.
+     *
+     * @param apiKey     The API key to authorize requests with.
+     * @param baseUri    The base URI to use for request endpoints.
+     * @param httpClient The HTTP client instance to use for making requests.
+     * @param options    The options to configure request handling with.  Conditional requests, the offload threshold
+     *                   and the mapping scheduler are ignored.
+     */
+    public HttpClientInterviewTestsMockApiDao(final String apiKey, final String baseUri, final HttpClient httpClient,
+                                              final InterviewTestsMockApiDaoOptions options) {
+        LOG.trace("Creating instance with base URI of '{}'.", baseUri);
+
+        Objects.requireNonNull(apiKey, "An API key is required.");
+        Objects.requireNonNull(baseUri, "A base URI is required.");
+        Objects.requireNonNull(httpClient, "An HTTP client instance is required.");
+        Objects.requireNonNull(options, "Options are required.");
+
+        if (apiKey.isBlank()) {
+            throw new IllegalArgumentException("A non-blank API key is required.");
+        }
+        if (baseUri.isBlank()) {
+            throw new IllegalArgumentException("A non-blank base URI is required.");
+        }
+
+        this.baseUri = baseUri;
+        this.apiKey = apiKey;
+        this.httpClient = httpClient;
+        this.options = options;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<DeviceOutage> fetchOutages() {
+        LOG.trace("fetchOutages() called.");
+
+        return call(ApiEndpoint.OUTAGES, get(baseUri + OUTAGES_PATH),
+                body -> InterviewTestsMockApiDaoImpl.mapOutagesResponse(new JsonArray(body)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutageTable fetchOutageTable() {
+        LOG.trace("fetchOutageTable() called.");
+
+        return fetchOutageTable(Long.MIN_VALUE);
+    }
+
+
+    /**
+     * {@inheritDoc}  The outages before the cutoff are skipped as the table is built, and are counted.
+     */
+    @Override
+    public OutageTable fetchOutageTable(final OffsetDateTime cutoff) {
+        LOG.trace("fetchOutageTable({}) called.", cutoff);
+
+        return fetchOutageTable(OutageTable.toCutoffMillis(cutoff));
+    }
+
+
+    private OutageTable fetchOutageTable(final long cutoffMillis) {
+        return call(ApiEndpoint.OUTAGES, get(baseUri + OUTAGES_PATH), body ->
+        {
+            final JsonArray outagesJson = new JsonArray(body);
+            final OutageTable.Builder table = new OutageTable.Builder(outagesJson.size());
+            int excluded = 0;
+
+            for (int i = 0; i < outagesJson.size(); i++) {
+                if (!InterviewTestsMockApiDaoImpl.addOutage(table, outagesJson.getJsonObject(i), cutoffMillis)) {
+                    excluded++;
+                }
+            }
+
+            metrics().counter(MetricNames.OUTAGES_FILTERED).increment(excluded);
+
+            return table.build();
+        });
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Object, String> fetchSiteInfo(final String siteId) {
+        LOG.trace("fetchSiteInfo('{}') called.", siteId);
+
+        return call(ApiEndpoint.SITE_INFO, get(baseUri + SITE_INFO_PATH + siteId),
+                body -> InterviewTestsMockApiDaoImpl.mapSiteInfoResponse(new JsonObject(body)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sendSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        LOG.trace("sendSiteOutages('{}', ...) called.", siteId);
+
+        final int chunkSize = options.getMaxOutagesPerRequest();
+
+        if (chunkSize == 0 || outageUpdates.size() <= chunkSize) {
+            postSiteOutages(siteId, outageUpdates);
+            return;
+        }
+
+        final int chunks = (outageUpdates.size() - 1) / chunkSize + 1;
+        final Semaphore permits = new Semaphore(options.getUpdateConcurrency());
+        final Map<Integer, Throwable> failedChunks = new ConcurrentHashMap<>();
+
+        LOG.debug("Sending update to /site-outages/{} in {} chunks.", siteId, chunks);
+
+        // Each chunk is posted, and retried, on a virtual thread of its own.  Closing the executor waits for them all.
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                final List<DeviceOutage> chunkUpdates = outageUpdates.subList(chunk * chunkSize,
+                        Math.min(outageUpdates.size(), (chunk + 1) * chunkSize));
+                final int chunkIndex = chunk;
+
+                permits.acquireUninterruptibly();
+                executor.execute(() ->
+                {
+                    try {
+                        postSiteOutages(siteId, chunkUpdates);
+                    } catch (final RuntimeException re) {
+                        failedChunks.put(chunkIndex, re);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        if (!failedChunks.isEmpty()) {
+            throw new ChunkedUpdateException(siteId, chunks, failedChunks);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<List<DeviceOutage>> getOutages() {
+        return onVirtualThread(this::fetchOutages);
+    }
+
+
+    /**
+     * {@inheritDoc}  The outages are only emitted once the whole list has been received.
+     */
+    @Override
+    public Flowable<DeviceOutage> streamOutages() {
+        return onVirtualThread(this::fetchOutages).flattenAsFlowable(outages -> outages);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable() {
+        return onVirtualThread(this::fetchOutageTable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<OutageTable> getOutageTable(final OffsetDateTime cutoff) {
+        return onVirtualThread(() -> fetchOutageTable(cutoff));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Single<Map<Object, String>> getSiteInfo(final String siteId) {
+        return onVirtualThread(() -> fetchSiteInfo(siteId));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Completable updateSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        return Completable.fromAction(() -> sendSiteOutages(siteId, outageUpdates)).subscribeOn(VIRTUAL_THREADS);
+    }
+
+
+    private void postSiteOutages(final String siteId, final List<DeviceOutage> outageUpdates) {
+        final Buffer encodedBody = SiteOutagesJsonWriter.write(outageUpdates);
+
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Sending update to /site-outages/{}: {}", siteId, encodedBody);
+        }
+
+        metrics().counter(MetricNames.API_BYTES_SENT, MetricNames.ENDPOINT_LABEL, ApiEndpoint.SITE_OUTAGES.name()).
+                increment(encodedBody.length());
+
+        exchange(ApiEndpoint.SITE_OUTAGES,
+                request(baseUri + SITE_OUTAGES_PATH + siteId).header(CONTENT_TYPE_KEY, JSON_MEDIA_TYPE).
+                        POST(HttpRequest.BodyPublishers.ofByteArray(encodedBody.getBytes())).build());
+    }
+
+
+    private HttpRequest get(final String uri) {
+        return request(uri).GET().build();
+    }
+
+
+    private HttpRequest.Builder request(final String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).header(API_HEADER_KEY, apiKey).
+                header(ACCEPT_HEADER_KEY, JSON_MEDIA_TYPE).timeout(REQUEST_TIMEOUT);
+    }
+
+
+    /**
+     * Makes a request and maps the body of its response.
+     *
+     * @param endpoint   The endpoint being requested.
+     * @param request    The request.
+     * @param bodyMapper Maps the body of a response to the result.
+     * @return The mapped response.
+     */
+    private <T> T call(final ApiEndpoint endpoint, final HttpRequest request, final Function<Buffer, T> bodyMapper) {
+        final Buffer body = Buffer.buffer(exchange(endpoint, request).body());
+        final long start = System.nanoTime();
+
+        try {
+            return bodyMapper.apply(body);
+        } finally {
+            metrics().histogram(MetricNames.API_PARSE_SECONDS, MetricNames.ENDPOINT_LABEL, endpoint.name()).
+                    recordNanos(System.nanoTime() - start);
+        }
+    }
+
+
+    /**
+     * Makes a request, applying the handling common to all requests, blocking until the exchange has finished.
+     *
+     * @param endpoint The endpoint the exchange is with.
+     * @param request  The request.
+     * @return The successful response.
+     */
+    private HttpResponse<byte[]> exchange(final ApiEndpoint endpoint, final HttpRequest request) {
+        final RateLimiter rateLimiter = options.getRateLimiter(endpoint);
+        final AtomicBoolean attempted = new AtomicBoolean();
+        // The resilience of the options is shared with the Vert.x implementation so is applied through it, each
+        // attempt then being made with a plain blocking send.
+        final Single<HttpResponse<byte[]>> attempt =
+                rateLimiter.acquire().
+                        andThen(Single.defer(() ->
+                        {
+                            final long start = System.nanoTime();
+
+                            return options.getCircuitBreaker(endpoint).
+                                    apply(options.getBulkhead(endpoint).apply(onVirtualThread(() -> send(request)))).
+                                    doOnEvent((response, error) ->
+                                            recordRequest(endpoint, response, error, System.nanoTime() - start));
+                        })).
+                        doOnSuccess(response -> InterviewTestsMockApiDaoImpl.applyRateLimitHeaders(rateLimiter,
+                                key -> response.headers().firstValue(key).orElse(null))).
+                        doOnError(error ->
+                        {
+                            if (error instanceof TooManyRequestsException tooManyRequests &&
+                                    tooManyRequests.getRetryAfter() != null) {
+                                LOG.debug("{} requests paused for {}.", endpoint, tooManyRequests.getRetryAfter());
+                                rateLimiter.pause(tooManyRequests.getRetryAfter());
+                            }
+                        });
+
+        return options.getRetryPolicy(endpoint).
+                apply(attempt.doOnSubscribe(subscription ->
+                {
+                    if (attempted.getAndSet(true)) {
+                        metrics().counter(MetricNames.API_RETRIES, MetricNames.ENDPOINT_LABEL, endpoint.name()).
+                                increment();
+                    }
+                })).
+                blockingGet();
+    }
+
+
+    /**
+     * Sends a request, failing with the exception of {@link InterviewTestsMockApiDaoImpl} for any error response.
+     */
+    private HttpResponse<byte[]> send(final HttpRequest request) throws InterruptedException {
+        final HttpResponse<byte[]> response;
+
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Unable to request " + request.uri() + '.', ioe);
+        }
+
+        if (response.statusCode() >= 400) {
+            final boolean json =
+                    response.headers().firstValue(CONTENT_TYPE_KEY).filter(JSON_MEDIA_TYPE::equals).isPresent();
+
+            throw json ?
+                    InterviewTestsMockApiDaoImpl.errorResponse(response.statusCode(),
+                            new JsonObject(Buffer.buffer(response.body())).getString("message"),
+                            response.headers().firstValue(RETRY_AFTER_HEADER_KEY).orElse(null)) :
+                    new RuntimeException("Request failed with status " + response.statusCode() + '.');
+        }
+
+        return response;
+    }
+
+
+    private void recordRequest(final ApiEndpoint endpoint, final HttpResponse<byte[]> response, final Throwable error,
+                               final long durationNanos) {
+        final String status = response != null ? Integer.toString(response.statusCode()) :
+                InterviewTestsMockApiDaoImpl.errorStatus(error);
+
+        metrics().histogram(MetricNames.API_REQUEST_SECONDS, MetricNames.ENDPOINT_LABEL, endpoint.name(),
+                MetricNames.STATUS_LABEL, status).recordNanos(durationNanos);
+
+        if (response != null && response.body().length > 0) {
+            metrics().counter(MetricNames.API_BYTES_RECEIVED, MetricNames.ENDPOINT_LABEL, endpoint.name()).
+                    increment(response.body().length);
+        }
+    }
+
+
+    private MetricsRegistry metrics() {
+        return options.getMetrics();
+    }
+
+
+    private static <T> Single<T> onVirtualThread(final Callable<T> call) {
+        return Single.fromCallable(call).subscribeOn(VIRTUAL_THREADS);
+    }
+
+
+    private static final String API_HEADER_KEY = "x-api-key";
+    private static final String OUTAGES_PATH = "/outages";
+    private static final String SITE_INFO_PATH = "/site-info/";
+    private static final String SITE_OUTAGES_PATH = "/site-outages/";
+    private static final String ACCEPT_HEADER_KEY = "Accept";
+    private static final String CONTENT_TYPE_KEY = "Content-Type";
+    private static final String JSON_MEDIA_TYPE = "application/json";
+    private static final String RETRY_AFTER_HEADER_KEY = "Retry-After";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10L);
+
+    // Interruptible so that a call abandoned, e.g. on passing a retry deadline, does not leave its thread blocked.
+    private static final Scheduler VIRTUAL_THREADS = Schedulers.from(Executors.newVirtualThreadPerTaskExecutor(), true);
+
+    private final Logger LOG = LoggerFactory.getLogger(HttpClientInterviewTestsMockApiDao.class);
+
+    private final String baseUri;
+    private final String apiKey;
+    private final HttpClient httpClient;
+    private final InterviewTestsMockApiDaoOptions options;
+}
@@ -0,0 +1,115 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.rxjava3.core.Vertx;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith({VertxExtension.class, MockitoExtension.class})
+@DisplayName("OutageAgentDaemon tests")
+class OutageAgentDaemonTest {
+    private final String siteId = "norwich-pear-tree";
+    private final OffsetDateTime cutoff = OffsetDateTime.parse("2022-01-01T00:00:00.000Z", ISO_OFFSET_DATE_TIME);
+
+
+    @Test
+    @DisplayName("A site is not updated again while its previous update is in progress")
+    void siteNotUpdatedConcurrently(final Vertx vertx, @Mock final OutageAgentService agent) throws InterruptedException {
+        final PublishProcessor<SiteUpdateResult> results = PublishProcessor.create();
+
+        Mockito.when(agent.updateSites(anyCollection(), eq(cutoff), eq(1))).thenReturn(results);
+
+        final OutageAgentDaemon daemon =
+                new OutageAgentDaemon(vertx, agent, List.of(siteId), cutoff, Duration.ofMillis(10L), 1);
+
+        daemon.start();
+        TimeUnit.MILLISECONDS.sleep(100L);
+
+        Mockito.verify(agent, Mockito.times(1)).updateSites(anyCollection(), eq(cutoff), eq(1));
+        assertTrue(daemon.getSiteStates().get(siteId).isUpdating(), "The site was expected to be updating.");
+
+        results.onNext(new SiteUpdateResult(siteId, null));
+        results.onComplete();
+
+        Mockito.verify(agent, Mockito.timeout(1000L).atLeast(2)).updateSites(anyCollection(), eq(cutoff), eq(1));
+        assertNotNull(daemon.getSiteStates().get(siteId).getLastSuccess(), "The site was expected to have been updated.");
+
+        assertTrue(daemon.stop().blockingAwait(1L, TimeUnit.SECONDS), "The daemon was expected to stop.");
+    }
+
+
+    @Test
+    @DisplayName("A site finishing early is not freed by the end of the update it finished in")
+    void siteFinishingEarlyNotFreed(final Vertx vertx, @Mock final OutageAgentService agent) {
+        final String otherSiteId = "ipswich-orchard";
+        final PublishProcessor<SiteUpdateResult> bothResults = PublishProcessor.create();
+        final PublishProcessor<SiteUpdateResult> siteResults = PublishProcessor.create();
+        final PublishProcessor<SiteUpdateResult> otherSiteResults = PublishProcessor.create();
+
+        Mockito.when(agent.updateSites(eq(List.of(siteId, otherSiteId)), eq(cutoff), eq(2))).thenReturn(bothResults);
+        Mockito.when(agent.updateSites(eq(List.of(siteId)), eq(cutoff), eq(2))).thenReturn(siteResults);
+        Mockito.when(agent.updateSites(eq(List.of(otherSiteId)), eq(cutoff), eq(2))).thenReturn(otherSiteResults);
+
+        final OutageAgentDaemon daemon =
+                new OutageAgentDaemon(vertx, agent, List.of(siteId, otherSiteId), cutoff, Duration.ofMillis(10L), 2);
+
+        daemon.start();
+        bothResults.onNext(new SiteUpdateResult(siteId, null));
+        Mockito.verify(agent, Mockito.timeout(1000L)).updateSites(eq(List.of(siteId)), eq(cutoff), eq(2));
+
+        bothResults.onNext(new SiteUpdateResult(otherSiteId, null));
+        bothResults.onComplete();
+        Mockito.verify(agent, Mockito.timeout(1000L)).updateSites(eq(List.of(otherSiteId)), eq(cutoff), eq(2));
+
+        assertTrue(daemon.getSiteStates().get(siteId).isUpdating(), "The site was expected to still be updating.");
+        Mockito.verify(agent, Mockito.times(1)).updateSites(eq(List.of(siteId, otherSiteId)), eq(cutoff), eq(2));
+        Mockito.verify(agent, Mockito.times(1)).updateSites(eq(List.of(siteId)), eq(cutoff), eq(2));
+
+        final var stopped = daemon.stop();
+
+        siteResults.onComplete();
+        otherSiteResults.onComplete();
+        assertTrue(stopped.blockingAwait(1L, TimeUnit.SECONDS), "The daemon was expected to stop.");
+    }
+
+
+    @Test
+    @DisplayName("Failed updates are recorded against the site")
+    void failureRecorded(final Vertx vertx, @Mock final OutageAgentService agent) throws InterruptedException {
+        final IllegalArgumentException error = new IllegalArgumentException("Unexpected outages received");
+        final PublishProcessor<SiteUpdateResult> results = PublishProcessor.create();
+
+        Mockito.when(agent.updateSites(anyCollection(), eq(cutoff), eq(1))).thenReturn(results);
+
+        final OutageAgentDaemon daemon =
+                new OutageAgentDaemon(vertx, agent, List.of(siteId), cutoff, Duration.ofHours(1L), 1);
+
+        daemon.start();
+        results.onNext(new SiteUpdateResult(siteId, error));
+        results.onComplete();
+
+        final OutageAgentDaemon.SiteState state = daemon.getSiteStates().get(siteId);
+
+        assertFalse(state.isUpdating(), "The site was not expected to be updating.");
+        assertSame(error, state.getLastError(), "The update failure was expected to be recorded.");
+        assertEquals(1, state.getConsecutiveFailures(), "Unexpected number of consecutive failures.");
+
+        assertTrue(daemon.stop().blockingAwait(1L, TimeUnit.SECONDS), "The daemon was expected to stop.");
+    }
+}
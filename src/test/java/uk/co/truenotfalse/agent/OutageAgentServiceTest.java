@@ -5,21 +5,34 @@ import io.reactivex.rxjava3.core.Single;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.NotFoundException;
 import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.metrics.InMemoryMetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricsSnapshot;
 import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 
 
@@ -45,12 +58,12 @@ class OutageAgentServiceTest {
     @DisplayName("The outage, site info and update endpoints are requested when an update is invoked")
     void updateOutages(@Mock final InterviewTestsMockApiDao apiDao) {
         Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
-        Mockito.when(apiDao.getOutages()).thenReturn(Single.just(happyOutages));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
         Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
 
         new OutageAgentService(apiDao).updateOutages(siteId, cutoff).blockingAwait();
 
-        Mockito.verify(apiDao).getOutages();
+        Mockito.verify(apiDao).getOutageTable(cutoff);
         Mockito.verify(apiDao).getSiteInfo(eq(siteId));
         Mockito.verify(apiDao).updateSiteOutages(eq(siteId), anyList());
     }
@@ -60,7 +73,7 @@ class OutageAgentServiceTest {
     @DisplayName("Outage updates include the expected site name")
     void updateOutagesSiteNameAttached(@Mock final InterviewTestsMockApiDao apiDao) {
         Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
-        Mockito.when(apiDao.getOutages()).thenReturn(Single.just(happyOutages));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
         Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
 
         new OutageAgentService(apiDao).updateOutages(siteId, cutoff).blockingAwait();
@@ -82,7 +95,7 @@ class OutageAgentServiceTest {
         outages.add(new DeviceOutage("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", cutoff.minusNanos(1000L), now));
 
         Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
-        Mockito.when(apiDao.getOutages()).thenReturn(Single.just(happyOutages));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
         Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
 
         new OutageAgentService(apiDao).updateOutages(siteId, cutoff).blockingAwait();
@@ -103,7 +116,7 @@ class OutageAgentServiceTest {
         outages.add(new DeviceOutage("b2c9c71f-3cc6-478b-a86c-80bab857db08", now.minusDays(1L), now));
 
         Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
-        Mockito.when(apiDao.getOutages()).thenReturn(Single.just(happyOutages));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
         Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
 
         new OutageAgentService(apiDao).updateOutages(siteId, cutoff).blockingAwait();
@@ -115,4 +128,174 @@ class OutageAgentServiceTest {
             assertTrue(deviceInfo.containsKey(outage.getId()), "An outage update for a device without site info was included.");
         }
     }
+
+
+    @Test
+    @DisplayName("Outages filtered by the cutoff or dropped for unknown devices, and site updates, are recorded")
+    void updateOutagesMetricsRecorded(@Mock final InterviewTestsMockApiDao apiDao) {
+        final List<DeviceOutage> outages = new ArrayList<>(happyOutages);
+        outages.add(new DeviceOutage("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", cutoff.minusNanos(1000L), now));
+        outages.add(new DeviceOutage("b2c9c71f-3cc6-478b-a86c-80bab857db08", now.minusDays(1L), now));
+
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(outages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        final MetricsRegistry metrics = new InMemoryMetricsRegistry();
+
+        new OutageAgentService(apiDao, new InMemoryPostedOutagesStore(), metrics).updateOutages(siteId, cutoff).
+                blockingAwait();
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1L, snapshot.count(MetricNames.OUTAGES_FILTERED));
+        assertEquals(1L, snapshot.count(MetricNames.OUTAGES_DROPPED));
+        assertEquals(1L, snapshot.histogram(MetricNames.SITE_UPDATE_SECONDS, MetricNames.OUTCOME_LABEL, "success").
+                count());
+    }
+
+
+    @Test
+    @DisplayName("A batch update requests the outages once and updates every site")
+    void updateOutagesBatch(@Mock final InterviewTestsMockApiDao apiDao) {
+        final List<String> siteIds = List.of(siteId, "kingfisher", siteId);
+
+        Mockito.when(apiDao.getSiteInfo(anyString())).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
+        Mockito.when(apiDao.updateSiteOutages(anyString(), anyList())).thenReturn(Completable.complete());
+
+        new OutageAgentService(apiDao).updateOutages(siteIds, cutoff, 2).blockingAwait();
+
+        Mockito.verify(apiDao).getOutageTable(cutoff);
+        Mockito.verify(apiDao).getSiteInfo(eq(siteId));
+        Mockito.verify(apiDao).getSiteInfo(eq("kingfisher"));
+        Mockito.verify(apiDao).updateSiteOutages(eq(siteId), anyList());
+        Mockito.verify(apiDao).updateSiteOutages(eq("kingfisher"), anyList());
+    }
+
+
+    @Test
+    @DisplayName("Outages before a cutoff are excluded from batch updates by the index")
+    void updateOutagesBatchCutoffApplied(@Mock final InterviewTestsMockApiDao apiDao) {
+        final List<DeviceOutage> outages = new ArrayList<>(happyOutages);
+        outages.add(new DeviceOutage("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", cutoff.minusNanos(1000L), now));
+
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(outages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        new OutageAgentService(apiDao).updateOutages(List.of(siteId), cutoff, 1).blockingAwait();
+
+        final ArgumentCaptor<List<DeviceOutage>> enrichedOutages = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(apiDao).updateSiteOutages(eq(siteId), enrichedOutages.capture());
+
+        assertEquals(happyOutages.size(), enrichedOutages.getValue().size());
+        for (final DeviceOutage outage : enrichedOutages.getValue()) {
+            assertFalse(outage.getBegin().isBefore(cutoff), "An outage before the cutoff was returned.");
+        }
+    }
+
+
+    @Test
+    @DisplayName("A failure to update one site in a batch does not prevent the other sites being updated")
+    void updateOutagesBatchPartialFailure(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getSiteInfo(eq("no-such-site"))).thenReturn(Single.error(new NotFoundException("Site not found")));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        assertThrows(NotFoundException.class,
+                () -> new OutageAgentService(apiDao).updateOutages(List.of("no-such-site", siteId), cutoff, 1).blockingAwait());
+
+        Mockito.verify(apiDao).updateSiteOutages(eq(siteId), anyList());
+    }
+
+
+    @Test
+    @DisplayName("Outages shared between sites are named for each site without being changed")
+    void sharedOutagesNamedPerSite() {
+        final Map<Object, String> otherDeviceInfo = Map.of("2bf65c61-4452-409d-b416-c58dbd2d7bda", "Other Device 2");
+
+        final List<DeviceOutage> named = OutageAgentService.attachDeviceNames(happyOutages, deviceInfo);
+        final List<DeviceOutage> otherNamed = OutageAgentService.attachDeviceNames(happyOutages, otherDeviceInfo);
+
+        assertEquals(List.of("Device 2", "Device 3", "Device 4"), named.stream().map(DeviceOutage::getDeviceName).toList());
+        assertEquals(List.of("Other Device 2"), otherNamed.stream().map(DeviceOutage::getDeviceName).toList());
+        assertTrue(happyOutages.stream().allMatch(outage -> outage.getDeviceName() == null),
+                "A shared outage was named.");
+    }
+
+
+    @Test
+    @DisplayName("Unchanged outages are not posted again")
+    void updateOutagesUnchangedSkipped(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        final OutageAgentService agent = new OutageAgentService(apiDao);
+
+        agent.updateOutages(siteId, cutoff).blockingAwait();
+        agent.updateOutages(siteId, cutoff).blockingAwait();
+
+        Mockito.verify(apiDao, Mockito.times(2)).getOutageTable(cutoff);
+        Mockito.verify(apiDao, Mockito.times(1)).updateSiteOutages(eq(siteId), anyList());
+    }
+
+
+    @Test
+    @DisplayName("Outages are posted again when a device name changes")
+    void updateOutagesRenamedPosted(@Mock final InterviewTestsMockApiDao apiDao) {
+        final Map<Object, String> renamedDeviceInfo = new HashMap<>(deviceInfo);
+
+        renamedDeviceInfo.put("2bf65c61-4452-409d-b416-c58dbd2d7bda", "Device 2a");
+
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo), Single.just(renamedDeviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        final OutageAgentService agent = new OutageAgentService(apiDao);
+
+        agent.updateOutages(siteId, cutoff).blockingAwait();
+        agent.updateOutages(siteId, cutoff).blockingAwait();
+
+        Mockito.verify(apiDao, Mockito.times(2)).updateSiteOutages(eq(siteId), anyList());
+    }
+
+
+    @Test
+    @DisplayName("Posted outages recorded in a file survive a restart")
+    void postedOutagesFilePersisted(@TempDir final Path tempDir) {
+        final Path file = tempDir.resolve("posted-outages.json");
+        final Map<DeviceOutage, String> posted = Map.of(happyOutages.get(0), "Device 2", happyOutages.get(2), "Device 4");
+
+        final FilePostedOutagesStore store = new FilePostedOutagesStore(file);
+
+        store.put(siteId, posted);
+        assertFalse(Files.exists(file), "The posted outages were written before being saved.");
+        store.save().blockingAwait();
+
+        assertEquals(posted, new FilePostedOutagesStore(file).get(siteId), "The posted outages were not restored.");
+        assertNull(new FilePostedOutagesStore(file).get("kingfisher"), "No outages were expected for another site.");
+    }
+
+
+    @Test
+    @DisplayName("A failure to record the outages posted does not fail the update")
+    void updateOutagesRecordFailureIgnored(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(happyOutages)));
+        Mockito.when(apiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        final PostedOutagesStore failingStore = new InMemoryPostedOutagesStore() {
+            @Override
+            public void put(final String siteId, final Map<DeviceOutage, String> posted) {
+                throw new UncheckedIOException(new IOException("Disk full."));
+            }
+        };
+
+        new OutageAgentService(apiDao, failingStore).updateOutages(siteId, cutoff).blockingAwait();
+
+        Mockito.verify(apiDao, Mockito.times(1)).updateSiteOutages(eq(siteId), anyList());
+    }
 }
@@ -0,0 +1,86 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.truenotfalse.metrics.InMemoryMetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricsSnapshot;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("ParallelOutageSelector tests")
+class ParallelOutageSelectorTest {
+    @Test
+    @DisplayName("Outages selected in parallel chunks are the same, and in the same order, as those selected in one")
+    void parallelSelectionOrdered() {
+        final List<DeviceOutage> outages = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            outages.add(new DeviceOutage("device-" + i % 7, CUTOFF.plusMinutes(i % 13 - 3L), null));
+        }
+
+        final OutageTable table = OutageTable.of(outages);
+        final Map<Object, String> deviceNames = Map.of("device-1", "Battery 1", "device-4", "Battery 4");
+        final MetricsRegistry metrics = new InMemoryMetricsRegistry();
+
+        final List<DeviceOutage> sequential =
+                new ParallelOutageSelector(Schedulers.computation(), table.size(), 1, MetricsRegistry.noop()).
+                        select(table, CUTOFF, deviceNames).toList().blockingGet();
+        final List<DeviceOutage> parallel =
+                new ParallelOutageSelector(Schedulers.computation(), 37, 4, metrics).
+                        select(table, CUTOFF, deviceNames).toList().blockingGet();
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.stream().map(DeviceOutage::getDeviceName).toList(),
+                parallel.stream().map(DeviceOutage::getDeviceName).toList());
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(table.size(), parallel.size() + snapshot.count(MetricNames.OUTAGES_FILTERED) +
+                snapshot.count(MetricNames.OUTAGES_DROPPED));
+    }
+
+
+    @Test
+    @DisplayName("Work on tables larger than a chunk is offloaded to the scheduler")
+    void offload() {
+        final TestScheduler scheduler = new TestScheduler();
+        final ParallelOutageSelector selector = new ParallelOutageSelector(scheduler, 2, 1, MetricsRegistry.noop());
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-1", CUTOFF, null),
+                new DeviceOutage("device-2", CUTOFF, null), new DeviceOutage("device-3", CUTOFF, null)));
+
+        selector.offload(table.rows(0, 2), OutageTable::size).test().assertValue(2);
+
+        final var offloaded = selector.offload(table, OutageTable::size).test();
+
+        offloaded.assertNoValues();
+        scheduler.triggerActions();
+        offloaded.assertValue(3);
+    }
+
+
+    @Test
+    @DisplayName("Invalid chunking is rejected")
+    void invalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelOutageSelector(Schedulers.computation(), 0, 1, MetricsRegistry.noop()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelOutageSelector(Schedulers.computation(), 1, 0, MetricsRegistry.noop()));
+    }
+
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+}
@@ -0,0 +1,91 @@
+package uk.co.truenotfalse.agent;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.rxjava3.core.Vertx;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith({VertxExtension.class, MockitoExtension.class})
+@DisplayName("SiteUpdateDispatcher tests")
+class SiteUpdateDispatcherTest {
+    private final String siteId = "norwich-pear-tree";
+    private final Map<Object, String> deviceInfo = Map.of("2bf65c61-4452-409d-b416-c58dbd2d7bda", "Device 2");
+    private final OffsetDateTime cutoff = OffsetDateTime.parse("2022-01-01T00:00:00.000Z", ISO_OFFSET_DATE_TIME);
+    private final List<DeviceOutage> outages =
+            List.of(new DeviceOutage("2bf65c61-4452-409d-b416-c58dbd2d7bda", cutoff, OffsetDateTime.now()));
+
+
+    @Test
+    @DisplayName("A batch requests the outages once and updates every site across the verticles")
+    void updateOutages(final Vertx vertx, @Mock final InterviewTestsMockApiDao apiDao,
+                       @Mock final InterviewTestsMockApiDao verticleApiDao) {
+        final List<String> siteIds = List.of(siteId, "kingfisher", "heron", "otter");
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(outages)));
+        Mockito.when(verticleApiDao.getSiteInfo(anyString())).thenReturn(Single.just(deviceInfo));
+        Mockito.when(verticleApiDao.updateSiteOutages(anyString(), anyList())).
+                thenReturn(Completable.fromAction(() -> threads.add(Thread.currentThread().getName())));
+
+        final SiteUpdateDispatcher dispatcher =
+                new SiteUpdateDispatcher(vertx, new OutageAgentService(apiDao), new WebClientOptions(),
+                        webClient -> new OutageAgentService(verticleApiDao), 2);
+
+        dispatcher.deploy().blockingAwait();
+        dispatcher.updateOutages(siteIds, cutoff, 4).blockingAwait();
+        dispatcher.undeploy().blockingAwait();
+
+        Mockito.verify(apiDao).getOutageTable(cutoff);
+        Mockito.verify(verticleApiDao, Mockito.never()).getOutageTable(cutoff);
+        siteIds.forEach(id -> Mockito.verify(verticleApiDao).updateSiteOutages(eq(id), anyList()));
+        assertEquals(2, threads.size(), "The sites were expected to be updated on each verticle's event loop.");
+    }
+
+
+    @Test
+    @DisplayName("The failure of a site in a verticle is reported as it is, without preventing other updates")
+    void updateOutagesPartialFailure(final Vertx vertx, @Mock final InterviewTestsMockApiDao apiDao,
+                                     @Mock final InterviewTestsMockApiDao verticleApiDao) {
+        Mockito.when(apiDao.getOutageTable(cutoff)).thenReturn(Single.just(OutageTable.of(outages)));
+        Mockito.when(verticleApiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(verticleApiDao.getSiteInfo(eq("no-such-site"))).
+                thenReturn(Single.error(new NotFoundException("Site not found")));
+        Mockito.when(verticleApiDao.updateSiteOutages(eq(siteId), anyList())).thenReturn(Completable.complete());
+
+        final SiteUpdateDispatcher dispatcher =
+                new SiteUpdateDispatcher(vertx, new OutageAgentService(apiDao), new WebClientOptions(),
+                        webClient -> new OutageAgentService(verticleApiDao), 2);
+
+        dispatcher.deploy().blockingAwait();
+
+        assertThrows(NotFoundException.class,
+                () -> dispatcher.updateOutages(List.of("no-such-site", siteId), cutoff, 1).blockingAwait());
+        Mockito.verify(verticleApiDao).updateSiteOutages(eq(siteId), anyList());
+
+        dispatcher.undeploy().blockingAwait();
+    }
+}
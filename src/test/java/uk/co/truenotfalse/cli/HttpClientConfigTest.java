@@ -0,0 +1,90 @@
+package uk.co.truenotfalse.cli;
+
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.ext.web.client.WebClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(VertxExtension.class)
+@DisplayName("HttpClientConfig tests")
+class HttpClientConfigTest {
+    @Test
+    @DisplayName("Options given on the command line take precedence over those in a config file")
+    void overridesApplied(@TempDir final Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("http.properties");
+
+        Files.writeString(file, "maxPoolSize=16\nkeepAliveTimeout=30\npipelining=true\n");
+
+        final WebClientOptions options =
+                HttpClientConfig.webClientOptions(HttpClientConfig.load(file), Map.of("maxPoolSize", "64"), false, false);
+
+        assertEquals(64, options.getMaxPoolSize());
+        assertEquals(30, options.getKeepAliveTimeout());
+        assertTrue(options.isPipelining());
+    }
+
+
+    @Test
+    @DisplayName("High throughput defaults apply in batch and daemon modes, HTTP/2 only over TLS")
+    void highThroughputDefaults() {
+        final WebClientOptions defaults = HttpClientConfig.webClientOptions(new Properties(), Map.of(), false, true);
+        final WebClientOptions https = HttpClientConfig.webClientOptions(new Properties(), Map.of(), true, true);
+        final WebClientOptions http = HttpClientConfig.webClientOptions(new Properties(), Map.of(), true, false);
+
+        assertEquals(new WebClientOptions().getMaxPoolSize(), defaults.getMaxPoolSize());
+        assertTrue(https.getMaxPoolSize() > defaults.getMaxPoolSize());
+        assertTrue(https.isTryUseCompression());
+        assertEquals(HttpVersion.HTTP_2, https.getProtocolVersion());
+        assertTrue(https.isUseAlpn());
+        assertEquals(HttpVersion.HTTP_1_1, http.getProtocolVersion());
+    }
+
+
+    @Test
+    @DisplayName("Unknown options and invalid values are rejected")
+    void invalidRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpClientConfig.webClientOptions(new Properties(), Map.of("poolSize", "8"), false, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpClientConfig.webClientOptions(new Properties(), Map.of("maxPoolSize", "0"), false, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpClientConfig.webClientOptions(new Properties(), Map.of("http2", "yes"), false, false));
+    }
+
+
+    @Test
+    @DisplayName("A client with the options built makes requests to a local server")
+    void requestMade(final Vertx vertx, final VertxTestContext testContext) {
+        final WebClientOptions options =
+                HttpClientConfig.webClientOptions(new Properties(), Map.of("compression", "true", "maxPoolSize", "4"),
+                        true, false);
+
+        vertx.createHttpServer().
+                requestHandler(request -> request.response().end(String.valueOf(request.getHeader("Accept-Encoding")))).
+                rxListen(0).
+                flatMap(server -> WebClient.create(vertx, options).getAbs("http://localhost:" + server.actualPort() + '/').
+                        rxSend().doFinally(() -> server.rxClose().subscribe())).
+                subscribe(response -> testContext.verify(() ->
+                        {
+                            assertEquals(200, response.statusCode());
+                            assertTrue(response.bodyAsString().contains("gzip"), "Compressed responses were expected to be accepted.");
+                            testContext.completeNow();
+                        }),
+                        testContext::failNow);
+    }
+}
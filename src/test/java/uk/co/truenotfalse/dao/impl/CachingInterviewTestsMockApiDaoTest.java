@@ -0,0 +1,113 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingInterviewTestsMockApiDao tests")
+class CachingInterviewTestsMockApiDaoTest {
+    private final String siteId = "norwich-pear-tree";
+    private final Map<Object, String> deviceInfo = Map.of("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", "Device 1");
+    private final Map<Object, String> updatedDeviceInfo = Map.of("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", "Device 1a");
+    private final TestScheduler scheduler = new TestScheduler();
+
+
+    @Test
+    @DisplayName("Site info is only requested once within its time to live")
+    void cachedWithinTimeToLive(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+
+        final CachingInterviewTestsMockApiDao cachingDao = createCachingDao(apiDao, 10);
+
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        scheduler.advanceTimeBy(59L, TimeUnit.SECONDS);
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+
+        Mockito.verify(apiDao, Mockito.times(1)).getSiteInfo(eq(siteId));
+    }
+
+
+    @Test
+    @DisplayName("Concurrent requests for uncached site info share a single request")
+    void concurrentRequestsCollapsed(@Mock final InterviewTestsMockApiDao apiDao) {
+        final SingleSubject<Map<Object, String>> response = SingleSubject.create();
+
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(response);
+
+        final CachingInterviewTestsMockApiDao cachingDao = createCachingDao(apiDao, 10);
+        final var first = cachingDao.getSiteInfo(siteId).test();
+        final var second = cachingDao.getSiteInfo(siteId).test();
+
+        response.onSuccess(deviceInfo);
+
+        first.assertValue(deviceInfo);
+        second.assertValue(deviceInfo);
+        Mockito.verify(apiDao, Mockito.times(1)).getSiteInfo(eq(siteId));
+    }
+
+
+    @Test
+    @DisplayName("Stale site info is served while it is refreshed")
+    void staleWhileRevalidate(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo), Single.just(updatedDeviceInfo));
+
+        final CachingInterviewTestsMockApiDao cachingDao = createCachingDao(apiDao, 10);
+
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        scheduler.advanceTimeBy(90L, TimeUnit.SECONDS);
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        cachingDao.getSiteInfo(siteId).test().assertValue(updatedDeviceInfo);
+
+        Mockito.verify(apiDao, Mockito.times(2)).getSiteInfo(eq(siteId));
+    }
+
+
+    @Test
+    @DisplayName("Site info beyond its stale period is requested before being served")
+    void expired(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo), Single.just(updatedDeviceInfo));
+
+        final CachingInterviewTestsMockApiDao cachingDao = createCachingDao(apiDao, 10);
+
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        scheduler.advanceTimeBy(3L, TimeUnit.MINUTES);
+        cachingDao.getSiteInfo(siteId).test().assertValue(updatedDeviceInfo);
+    }
+
+
+    @Test
+    @DisplayName("The least recently used site is evicted when the cache is full")
+    void leastRecentlyUsedEvicted(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+        Mockito.when(apiDao.getSiteInfo(eq("kingfisher"))).thenReturn(Single.just(updatedDeviceInfo));
+
+        final CachingInterviewTestsMockApiDao cachingDao = createCachingDao(apiDao, 1);
+
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        cachingDao.getSiteInfo("kingfisher").test().assertValue(updatedDeviceInfo);
+        cachingDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+
+        Mockito.verify(apiDao, Mockito.times(2)).getSiteInfo(eq(siteId));
+    }
+
+
+    private CachingInterviewTestsMockApiDao createCachingDao(final InterviewTestsMockApiDao apiDao, final int maximumSize) {
+        return new CachingInterviewTestsMockApiDao(apiDao, maximumSize, Duration.ofMinutes(1L), Duration.ofMinutes(1L),
+                scheduler);
+    }
+}
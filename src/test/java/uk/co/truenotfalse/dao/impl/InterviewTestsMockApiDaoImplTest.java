@@ -15,18 +15,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import uk.co.truenotfalse.ChunkedUpdateException;
 import uk.co.truenotfalse.NotFoundException;
 import uk.co.truenotfalse.TooManyRequestsException;
+import uk.co.truenotfalse.metrics.InMemoryMetricsRegistry;
+import uk.co.truenotfalse.metrics.MetricNames;
+import uk.co.truenotfalse.metrics.MetricsRegistry;
 import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.resilience.RetryPolicy;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 
 @ExtendWith(VertxExtension.class)
@@ -128,6 +138,74 @@ public class InterviewTestsMockApiDaoImplTest {
     }
 
 
+    @Test
+    void streamOutages(final Vertx vertx, final VertxTestContext testContext) {
+        dao.streamOutages().count().subscribe(count ->
+                {
+                    if (count > 0L) {
+                        testContext.completeNow();
+                    } else {
+                        testContext.failNow("Outages were expected to be streamed.");
+                    }
+                },
+                error ->
+                {
+                    if (error.getCause() != null) {
+                        testContext.failNow(error.getCause());
+                    } else {
+                        testContext.failNow(error.getMessage());
+                    }
+                });
+    }
+
+
+    @Test
+    void getOutageTable(final Vertx vertx, final VertxTestContext testContext) {
+        dao.getOutageTable().zipWith(dao.getOutages(), (table, outages) -> table.toDeviceOutages().equals(outages)).
+                subscribe(same ->
+                        {
+                            if (same) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The outage table was expected to hold the same outages as the list.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+    }
+
+
+    @Test
+    void streamOutagesNotAuthed(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final StubMapping forbiddenRequestStub =
+                createGetErrorResponseStub("/outages", 403, "Forbidden");
+
+        dao.streamOutages().subscribe(outage -> testContext.failNow("A Forbidden response was expected (403)."),
+                error ->
+                {
+                    if (error instanceof SecurityException) {
+                        testContext.completeNow();
+                    } else if (error.getCause() != null) {
+                        testContext.failNow(error.getCause());
+                    } else {
+                        testContext.failNow(error.getMessage());
+                    }
+                });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+        } finally {
+            wireMock.removeStub(forbiddenRequestStub);
+        }
+    }
+
+
     @Test
     void getSiteInfo(final Vertx vertx, final VertxTestContext testContext) {
         dao.getSiteInfo("norwich-pear-tree").
@@ -143,6 +221,34 @@ public class InterviewTestsMockApiDaoImplTest {
     }
 
 
+    @Test
+    void getSiteInfoOffloaded(final Vertx vertx, final VertxTestContext testContext) {
+        // Every body is decoded on the mapping scheduler, the result should still be handed back to the event loop.
+        final InterviewTestsMockApiDaoImpl offloadingDao =
+                new InterviewTestsMockApiDaoImpl(System.getProperty("apiKey", "mock_api_key"),
+                        wireMock.getRuntimeInfo().getHttpBaseUrl() + basePath, WebClient.create(vertx),
+                        new InterviewTestsMockApiDaoOptions().setOffloadThreshold(0));
+
+        vertx.runOnContext(context -> offloadingDao.getSiteInfo("norwich-pear-tree").
+                subscribe(response ->
+                        {
+                            if (Vertx.currentContext() != null) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The site info was not handed back to the event loop.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        }));
+    }
+
+
     @Test
     void getNonExistentSiteInfo(final Vertx vertx, final VertxTestContext testContext) {
         dao.getSiteInfo("no-such-site").
@@ -209,9 +315,7 @@ public class InterviewTestsMockApiDaoImplTest {
         final DeviceOutage outage =
                 new DeviceOutage("a79fe094-087b-4b1e-ae20-ac4bf7fa429b",
                         OffsetDateTime.parse("2020-03-03T23:14:30.832Z", ISO_OFFSET_DATE_TIME),
-                        OffsetDateTime.parse("2023-12-15T15:12:32.953Z", ISO_OFFSET_DATE_TIME));
-
-        outage.setDeviceName("Battery 5");
+                        OffsetDateTime.parse("2023-12-15T15:12:32.953Z", ISO_OFFSET_DATE_TIME), "Battery 5");
 
         // This is an updated with unexpected content but is does test we reach the endpoint.
         dao.updateSiteOutages("norwich-pear-tree", Collections.singletonList(outage)).
@@ -296,6 +400,373 @@ public class InterviewTestsMockApiDaoImplTest {
     }
 
 
+    @Test
+    void getSiteInfoNotModified(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final String siteInfoPath = basePath + "/site-info/unchanging-site";
+        final StubMapping siteInfoStub =
+                wireMock.stubFor(get(urlEqualTo(siteInfoPath)).
+                        withHeader("Accept", equalTo("application/json")).atPriority(2).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withHeader("ETag", "\"v1\"").
+                                withBody("{\"id\":\"unchanging-site\",\"name\":\"Unchanging\",\"devices\":[{\"id\":\"111183e7-fb90-436b-9951-63392b36bdd2\",\"name\":\"Battery 1\"}]}")).
+                        persistent(false));
+        final StubMapping notModifiedStub =
+                wireMock.stubFor(get(urlEqualTo(siteInfoPath)).
+                        withHeader("If-None-Match", equalTo("\"v1\"")).atPriority(1).
+                        willReturn(aResponse().withStatus(304)).
+                        persistent(false));
+
+        dao.getSiteInfo("unchanging-site").
+                flatMap(first -> dao.getSiteInfo("unchanging-site").map(second -> first == second)).
+                subscribe(reused ->
+                        {
+                            if (reused) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The site info was expected to be reused.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+            wireMock.verify(1, getRequestedFor(urlEqualTo(siteInfoPath)).withHeader("If-None-Match", equalTo("\"v1\"")));
+        } finally {
+            wireMock.removeStub(notModifiedStub);
+            wireMock.removeStub(siteInfoStub);
+        }
+    }
+
+
+    @Test
+    void getOutageTableNotModified(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final String outagesPath = basePath + "/outages";
+        final StubMapping outagesStub =
+                wireMock.stubFor(get(urlEqualTo(outagesPath)).
+                        withHeader("Accept", equalTo("application/json")).atPriority(2).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withHeader("ETag", "\"v1\"").
+                                withBody(OUTAGES_JSON)).
+                        persistent(false));
+        final StubMapping notModifiedStub =
+                wireMock.stubFor(get(urlEqualTo(outagesPath)).
+                        withHeader("If-None-Match", equalTo("\"v1\"")).atPriority(1).
+                        willReturn(aResponse().withStatus(304)).
+                        persistent(false));
+        // A DAO of its own so that no table is held from other tests.
+        final InterviewTestsMockApiDaoImpl conditionalDao = unretryingDao(vertx);
+
+        conditionalDao.getOutageTable().
+                flatMap(first -> conditionalDao.getOutageTable().map(second -> first == second && first.size() == 2)).
+                subscribe(reused ->
+                        {
+                            if (reused) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The outage table was expected to be reused.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+            wireMock.verify(1, getRequestedFor(urlEqualTo(outagesPath)).withHeader("If-None-Match", equalTo("\"v1\"")));
+        } finally {
+            wireMock.removeStub(notModifiedStub);
+            wireMock.removeStub(outagesStub);
+        }
+    }
+
+
+    @Test
+    void getOutageTableUnchanged(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        // No validators are given so the table can only be reused by its outages being the same.
+        final StubMapping outagesStub =
+                wireMock.stubFor(get(urlEqualTo(basePath + "/outages")).
+                        withHeader("Accept", equalTo("application/json")).atPriority(1).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withBody(OUTAGES_JSON)).
+                        persistent(false));
+        final InterviewTestsMockApiDaoImpl conditionalDao = unretryingDao(vertx);
+
+        conditionalDao.getOutageTable().
+                flatMap(first -> conditionalDao.getOutageTable().map(second -> first == second)).
+                subscribe(reused ->
+                        {
+                            if (reused) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The unchanged outage table was expected to be reused.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+        } finally {
+            wireMock.removeStub(outagesStub);
+        }
+    }
+
+
+    @Test
+    void getOutageTableFromCutoff(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final StubMapping outagesStub =
+                wireMock.stubFor(get(urlEqualTo(basePath + "/outages")).
+                        withHeader("Accept", equalTo("application/json")).atPriority(1).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withBody(OUTAGES_JSON)).
+                        persistent(false));
+        final MetricsRegistry metrics = new InMemoryMetricsRegistry();
+        final InterviewTestsMockApiDaoImpl cutoffDao =
+                new InterviewTestsMockApiDaoImpl("mock_api_key", wireMock.getRuntimeInfo().getHttpBaseUrl() + basePath,
+                        WebClient.create(vertx), new InterviewTestsMockApiDaoOptions().setMetrics(metrics).
+                        setRetryPolicy(new RetryPolicy().setMaxRetries(0)));
+        // Just after the beginning of the second outage.
+        final OffsetDateTime cutoff = OffsetDateTime.parse("2022-01-01T00:00:00.000500Z");
+
+        cutoffDao.getOutageTable(cutoff).
+                subscribe(table ->
+                        {
+                            if (table.size() == 1 && table.getId(0).equals("002b28fc-283c-47ec-9af2-ea287336dc1b") &&
+                                    metrics.snapshot().count(MetricNames.OUTAGES_FILTERED) == 1L) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("Only the outage after the cutoff was expected to be decoded.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+        } finally {
+            wireMock.removeStub(outagesStub);
+        }
+    }
+
+
+    @Test
+    void getOutageTableOngoing(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final StubMapping outagesStub =
+                wireMock.stubFor(get(urlEqualTo(basePath + "/outages")).
+                        withHeader("Accept", equalTo("application/json")).atPriority(1).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withBody("[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\"," +
+                                        "\"begin\":\"2022-05-23T12:21:27.377Z\",\"end\":null}]")).
+                        persistent(false));
+        // A DAO of its own so that no table is held from other tests.
+        final InterviewTestsMockApiDaoImpl ongoingDao = unretryingDao(vertx);
+
+        ongoingDao.getOutageTable().
+                subscribe(table ->
+                        {
+                            if (table.size() == 1 && !table.hasEnd(0) && table.getEnd(0) == null &&
+                                    table.getBegin(0).equals(OffsetDateTime.parse("2022-05-23T12:21:27.377Z"))) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The outage was expected to be decoded as ongoing.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+        } finally {
+            wireMock.removeStub(outagesStub);
+        }
+    }
+
+
+    @Test
+    void getOutageTableParseTimed(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final StubMapping outagesStub =
+                wireMock.stubFor(get(urlEqualTo(basePath + "/outages")).
+                        withHeader("Accept", equalTo("application/json")).atPriority(1).
+                        willReturn(aResponse().withStatus(200).
+                                withHeader("Content-Type", "application/json").
+                                withBody(OUTAGES_JSON)).
+                        persistent(false));
+        final MetricsRegistry metrics = new InMemoryMetricsRegistry();
+        final InterviewTestsMockApiDaoImpl timedDao =
+                new InterviewTestsMockApiDaoImpl("mock_api_key", wireMock.getRuntimeInfo().getHttpBaseUrl() + basePath,
+                        WebClient.create(vertx), new InterviewTestsMockApiDaoOptions().setMetrics(metrics).
+                        setRetryPolicy(new RetryPolicy().setMaxRetries(0)));
+
+        timedDao.getOutageTable().
+                subscribe(table ->
+                        {
+                            if (metrics.snapshot().histogram(MetricNames.API_PARSE_SECONDS,
+                                    MetricNames.ENDPOINT_LABEL, "OUTAGES").count() == 1L) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow("The decoding of the streamed outages was expected to be timed.");
+                            }
+                        },
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+        } finally {
+            wireMock.removeStub(outagesStub);
+        }
+    }
+
+
+    @Test
+    void updateSiteOutagesInChunks(final Vertx vertx, final VertxTestContext testContext) throws InterruptedException {
+        final String siteOutagesPath = basePath + "/site-outages/chunked-site";
+        final StubMapping siteOutagesStub =
+                wireMock.stubFor(post(urlEqualTo(siteOutagesPath)).atPriority(1).
+                        willReturn(aResponse().withStatus(200)).
+                        persistent(false));
+
+        chunkingDao(vertx).updateSiteOutages("chunked-site", deviceOutages(5)).
+                subscribe(testContext::completeNow,
+                        error ->
+                        {
+                            if (error.getCause() != null) {
+                                testContext.failNow(error.getCause());
+                            } else {
+                                testContext.failNow(error.getMessage());
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+            wireMock.verify(3, postRequestedFor(urlEqualTo(siteOutagesPath)));
+        } finally {
+            wireMock.removeStub(siteOutagesStub);
+        }
+    }
+
+
+    @Test
+    void updateSiteOutagesInChunksPartialFailure(final Vertx vertx, final VertxTestContext testContext)
+            throws InterruptedException {
+        final String siteOutagesPath = basePath + "/site-outages/chunked-site";
+        final StubMapping siteOutagesStub =
+                wireMock.stubFor(post(urlEqualTo(siteOutagesPath)).atPriority(2).
+                        willReturn(aResponse().withStatus(200)).
+                        persistent(false));
+        final StubMapping failingChunkStub =
+                wireMock.stubFor(post(urlEqualTo(siteOutagesPath)).
+                        withRequestBody(containing("device-3")).atPriority(1).
+                        willReturn(aResponse().withStatus(500).
+                                withHeader("Content-Type", "application/json").
+                                withBody("{\"message\":\"Internal Server Error\"}")).
+                        persistent(false));
+
+        chunkingDao(vertx).updateSiteOutages("chunked-site", deviceOutages(5)).
+                subscribe(() -> testContext.failNow("The second chunk was expected to fail."),
+                        error ->
+                        {
+                            if (error instanceof ChunkedUpdateException chunkedError &&
+                                    chunkedError.getTotalChunks() == 3 &&
+                                    chunkedError.getFailedChunks().keySet().equals(Set.of(1))) {
+                                testContext.completeNow();
+                            } else {
+                                testContext.failNow(error);
+                            }
+                        });
+
+        try {
+            testContext.awaitCompletion(10L, TimeUnit.SECONDS);
+            // Retries are off so each chunk, including the failed one, is sent once.
+            wireMock.verify(3, postRequestedFor(urlEqualTo(siteOutagesPath)));
+        } finally {
+            wireMock.removeStub(failingChunkStub);
+            wireMock.removeStub(siteOutagesStub);
+        }
+    }
+
+
+    @Test
+    void parseRetryAfter() {
+        assertEquals(Duration.ofSeconds(120L), InterviewTestsMockApiDaoImpl.parseRetryAfter("120"));
+        assertEquals(Duration.ZERO, InterviewTestsMockApiDaoImpl.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertNull(InterviewTestsMockApiDaoImpl.parseRetryAfter("soon"));
+        assertNull(InterviewTestsMockApiDaoImpl.parseRetryAfter(null));
+    }
+
+
+    /**
+     * A DAO posting updates in chunks of two outages without retrying failed chunks.
+     */
+    private static InterviewTestsMockApiDaoImpl chunkingDao(final Vertx vertx) {
+        return new InterviewTestsMockApiDaoImpl("mock_api_key", wireMock.getRuntimeInfo().getHttpBaseUrl() + basePath,
+                WebClient.create(vertx),
+                new InterviewTestsMockApiDaoOptions().setMaxOutagesPerRequest(2).
+                        setRetryPolicy(new RetryPolicy().setMaxRetries(0)));
+    }
+
+
+    /**
+     * A DAO that does not retry failed requests.
+     */
+    private static InterviewTestsMockApiDaoImpl unretryingDao(final Vertx vertx) {
+        return new InterviewTestsMockApiDaoImpl("mock_api_key", wireMock.getRuntimeInfo().getHttpBaseUrl() + basePath,
+                WebClient.create(vertx), new InterviewTestsMockApiDaoOptions().setRetryPolicy(new RetryPolicy().
+                setMaxRetries(0)));
+    }
+
+
+    private static List<DeviceOutage> deviceOutages(final int count) {
+        final OffsetDateTime begin = OffsetDateTime.parse("2022-05-01T12:00:00.000Z", ISO_OFFSET_DATE_TIME);
+
+        return IntStream.range(0, count).
+                mapToObj(device ->
+                        new DeviceOutage("device-" + device, begin, begin.plusHours(1L), "Battery " + device)).
+                toList();
+    }
+
+
     private StubMapping createGetErrorResponseStub(final String endpointRelativePath, final int responseStatus,
                                                    final String errorMessage) {
         return
@@ -309,6 +780,10 @@ public class InterviewTestsMockApiDaoImplTest {
 
 
     private static final String basePath = "/interview-tests-mock-api/v1";
+    private static final String OUTAGES_JSON =
+            "[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\",\"begin\":\"2022-05-23T12:21:27.377Z\"," +
+                    "\"end\":\"2022-11-13T02:16:38.905Z\"},{\"id\":\"086b0d53-b311-4441-aaf3-935646f03d4d\"," +
+                    "\"begin\":\"2022-01-01T00:00:00.000Z\",\"end\":\"2022-01-02T00:00:00.000Z\"}]";
 
     private final RecordSpec recordSpec = recordSpec().captureHeader("Accept", true).
             captureHeader("Content-Type", true).build();
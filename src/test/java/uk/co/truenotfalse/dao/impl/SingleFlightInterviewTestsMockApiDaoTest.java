@@ -0,0 +1,59 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SingleFlightInterviewTestsMockApiDao tests")
+class SingleFlightInterviewTestsMockApiDaoTest {
+    private final Map<Object, String> deviceInfo = Map.of("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", "Device 1");
+
+
+    @Test
+    @DisplayName("Concurrent requests for the same site info share a single request")
+    void concurrentSiteInfoShared(@Mock final InterviewTestsMockApiDao apiDao) {
+        final SingleSubject<Map<Object, String>> response = SingleSubject.create();
+
+        Mockito.when(apiDao.getSiteInfo(eq("norwich-pear-tree"))).thenReturn(response);
+        Mockito.when(apiDao.getSiteInfo(eq("kingfisher"))).thenReturn(Single.just(deviceInfo));
+
+        final SingleFlightInterviewTestsMockApiDao singleFlightDao = new SingleFlightInterviewTestsMockApiDao(apiDao);
+
+        final var first = singleFlightDao.getSiteInfo("norwich-pear-tree").test();
+        final var second = singleFlightDao.getSiteInfo("norwich-pear-tree").test();
+
+        singleFlightDao.getSiteInfo("kingfisher").test().assertValue(deviceInfo);
+        response.onSuccess(deviceInfo);
+
+        first.assertValue(deviceInfo);
+        second.assertValue(deviceInfo);
+        Mockito.verify(apiDao, Mockito.times(1)).getSiteInfo(eq("norwich-pear-tree"));
+        Mockito.verify(apiDao, Mockito.times(1)).getSiteInfo(eq("kingfisher"));
+    }
+
+
+    @Test
+    @DisplayName("Requests made once a previous request has finished are made afresh")
+    void sequentialRequestsNotShared(@Mock final InterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.getSiteInfo(eq("norwich-pear-tree"))).thenReturn(Single.just(deviceInfo));
+
+        final SingleFlightInterviewTestsMockApiDao singleFlightDao = new SingleFlightInterviewTestsMockApiDao(apiDao);
+
+        singleFlightDao.getSiteInfo("norwich-pear-tree").test().assertValue(deviceInfo);
+        singleFlightDao.getSiteInfo("norwich-pear-tree").test().assertValue(deviceInfo);
+
+        Mockito.verify(apiDao, Mockito.times(2)).getSiteInfo(eq("norwich-pear-tree"));
+    }
+}
@@ -0,0 +1,55 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.util.OffsetDateTimeCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+@DisplayName("SiteOutagesJsonWriter tests")
+class SiteOutagesJsonWriterTest {
+    @Test
+    @DisplayName("Outages are written as they are encoded from a JSON array")
+    void matchesJsonArray() {
+        final OffsetDateTime begin = OffsetDateTime.of(2022, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        final List<DeviceOutage> outages = List.of(
+                named(new DeviceOutage("002b28fc-283c-47ec-9af2-ea287336dc1b", begin, begin.plusMinutes(90L)),
+                        "Battery 1"),
+                named(new DeviceOutage(42, begin.withOffsetSameInstant(ZoneOffset.ofHours(-5)), null), null),
+                named(new DeviceOutage("\"quoted\" \\ slash/", begin, begin), "Tab\tNew line\nBell\u0007Delete\u007F"),
+                named(new DeviceOutage("non-ascii", begin, begin), "Bätterie – 電池 🔋"));
+
+        assertEquals(expected(outages), SiteOutagesJsonWriter.write(outages).toString(StandardCharsets.UTF_8));
+    }
+
+
+    @Test
+    @DisplayName("No outages are written as an empty array")
+    void empty() {
+        assertEquals("[]", SiteOutagesJsonWriter.write(List.of()).toString());
+    }
+
+
+    private static DeviceOutage named(final DeviceOutage outage, final String deviceName) {
+        return deviceName != null ? outage.withDeviceName(deviceName) : outage;
+    }
+
+
+    private static String expected(final List<DeviceOutage> outages) {
+        return new JsonArray(outages.stream().
+                map(outage -> new JsonObject().put("id", outage.getId().toString()).
+                        put("name", outage.getDeviceName()).
+                        put("begin", OffsetDateTimeCodec.format(outage.getBegin())).
+                        put("end", outage.getEnd() != null ? OffsetDateTimeCodec.format(outage.getEnd()) : null)).
+                toList()).encode();
+    }
+}
@@ -0,0 +1,141 @@
+package uk.co.truenotfalse.dao.impl;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.dao.InterviewTestsMockApiDao;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SnapshotInterviewTestsMockApiDao tests")
+class SnapshotInterviewTestsMockApiDaoTest {
+    private final String siteId = "norwich-pear-tree";
+    private final Map<Object, String> deviceInfo = Map.of("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", "Device 1");
+    private final Map<Object, String> updatedDeviceInfo = Map.of("a79fe094-087b-4b1e-ae20-ac4bf7fa429b", "Device 1a");
+    private final OutageTable outages = OutageTable.of(List.of(new DeviceOutage("a79fe094-087b-4b1e-ae20-ac4bf7fa429b",
+            OffsetDateTime.of(2022, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC), null)));
+    private final TestScheduler scheduler = new TestScheduler();
+
+
+    @Test
+    @DisplayName("Fetched site info is saved and served should a later fetch fail")
+    void servedWhenUnavailable(@Mock final InterviewTestsMockApiDao apiDao, @TempDir final Path directory) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).
+                thenReturn(Single.just(deviceInfo), Single.error(new RuntimeException("Service Unavailable")));
+
+        final SnapshotStore store = new SnapshotStore(directory);
+        final SnapshotInterviewTestsMockApiDao snapshotDao = createSnapshotDao(apiDao, store, false);
+
+        final var fetched = snapshotDao.getSiteInfo(siteId).test();
+
+        // The snapshot is loaded on the scheduler before fetching, and the fetched value saved on it after.
+        fetched.assertNoValues();
+        scheduler.triggerActions();
+        fetched.assertValue(deviceInfo);
+        snapshotDao.awaitSaves().test().assertComplete();
+        assertEquals(deviceInfo, store.loadSiteInfo(siteId).value());
+        snapshotDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+    }
+
+
+    @Test
+    @DisplayName("Snapshots are not served for errors that are the request's fault or once too old")
+    void notServed(@Mock final InterviewTestsMockApiDao apiDao, @TempDir final Path directory) {
+        final SnapshotStore store = new SnapshotStore(directory);
+
+        store.saveSiteInfo(siteId, deviceInfo, 0L);
+        store.saveSiteInfo("kingfisher", deviceInfo, 0L);
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.error(new NotFoundException("Not Found")));
+        Mockito.when(apiDao.getSiteInfo(eq("kingfisher"))).
+                thenReturn(Single.error(new RuntimeException("Service Unavailable")));
+
+        final SnapshotInterviewTestsMockApiDao snapshotDao = createSnapshotDao(apiDao, store, false);
+
+        final var notFound = snapshotDao.getSiteInfo(siteId).test();
+
+        scheduler.triggerActions();
+        notFound.assertError(NotFoundException.class);
+        scheduler.advanceTimeBy(2L, TimeUnit.HOURS);
+
+        final var tooOld = snapshotDao.getSiteInfo("kingfisher").test();
+
+        scheduler.triggerActions();
+        tooOld.assertError(RuntimeException.class);
+    }
+
+
+    @Test
+    @DisplayName("With warm starts the first request is served from the snapshot while it is fetched")
+    void warmStart(@Mock final InterviewTestsMockApiDao apiDao, @TempDir final Path directory) {
+        final SnapshotStore store = new SnapshotStore(directory);
+        final OutageTable updatedOutages = outages.rows(0, 0);
+
+        store.saveOutages(outages, 0L);
+        store.saveSiteInfo(siteId, deviceInfo, 0L);
+        Mockito.when(apiDao.getOutageTable()).thenReturn(Single.just(updatedOutages));
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(updatedDeviceInfo));
+
+        final SnapshotInterviewTestsMockApiDao snapshotDao = createSnapshotDao(apiDao, store, true);
+
+        assertEquals(outages.toDeviceOutages(), snapshotDao.getOutageTable().blockingGet().toDeviceOutages());
+
+        final var warmSiteInfo = snapshotDao.getSiteInfo(siteId).test();
+
+        scheduler.triggerActions();
+        warmSiteInfo.assertValue(deviceInfo);
+        snapshotDao.getOutageTable().test().assertValue(updatedOutages);
+        snapshotDao.getSiteInfo(siteId).test().assertValue(updatedDeviceInfo);
+        scheduler.triggerActions();
+        snapshotDao.awaitSaves().test().assertComplete();
+
+        assertEquals(0, store.loadOutages().value().size());
+        assertEquals(updatedDeviceInfo, store.loadSiteInfo(siteId).value());
+        Mockito.verify(apiDao, Mockito.times(2)).getOutageTable();
+    }
+
+
+    @Test
+    @DisplayName("Values unchanged since they were last saved are not saved again")
+    void unchangedNotSaved(@Mock final InterviewTestsMockApiDao apiDao, @TempDir final Path directory) {
+        Mockito.when(apiDao.getSiteInfo(eq(siteId))).thenReturn(Single.just(deviceInfo));
+
+        final SnapshotStore store = new SnapshotStore(directory);
+        final SnapshotInterviewTestsMockApiDao snapshotDao = createSnapshotDao(apiDao, store, false);
+        final var fetched = snapshotDao.getSiteInfo(siteId).test();
+
+        scheduler.triggerActions();
+        fetched.assertValue(deviceInfo);
+        // Overwritten behind the DAO's back so that saving again would be seen.
+        store.saveSiteInfo(siteId, updatedDeviceInfo, 0L);
+        snapshotDao.getSiteInfo(siteId).test().assertValue(deviceInfo);
+        scheduler.triggerActions();
+
+        assertEquals(updatedDeviceInfo, store.loadSiteInfo(siteId).value());
+    }
+
+
+    private SnapshotInterviewTestsMockApiDao createSnapshotDao(final InterviewTestsMockApiDao apiDao,
+                                                              final SnapshotStore store, final boolean warmStart) {
+        return new SnapshotInterviewTestsMockApiDao(apiDao, store, Duration.ofHours(1L), warmStart, scheduler);
+    }
+}
@@ -0,0 +1,66 @@
+package uk.co.truenotfalse.dao.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+@DisplayName("SnapshotStore tests")
+class SnapshotStoreTest {
+    @Test
+    @DisplayName("Saved outages are loaded back with when they were saved")
+    void outages(@TempDir final Path directory) {
+        final OffsetDateTime begin = OffsetDateTime.of(2022, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        final OutageTable outages = OutageTable.of(List.of(new DeviceOutage("device-a", begin, begin.plusHours(1L)),
+                new DeviceOutage("device-b", begin, null)));
+        final SnapshotStore store = new SnapshotStore(directory.resolve("snapshots"));
+
+        assertNull(store.loadOutages());
+
+        store.saveOutages(outages, 1234L);
+
+        final SnapshotStore.Snapshot<OutageTable> snapshot =
+                new SnapshotStore(directory.resolve("snapshots")).loadOutages();
+
+        assertEquals(outages.toDeviceOutages(), snapshot.value().toDeviceOutages());
+        assertEquals(1234L, snapshot.savedAt());
+    }
+
+
+    @Test
+    @DisplayName("Saved site info is loaded back per site")
+    void siteInfo(@TempDir final Path directory) {
+        final Map<Object, String> siteInfo = Map.of("device-a", "Battery 1", 42, "Battery 2");
+        final SnapshotStore store = new SnapshotStore(directory);
+
+        store.saveSiteInfo("../norwich pear tree", siteInfo, 1234L);
+
+        assertEquals(new SnapshotStore.Snapshot<>(siteInfo, 1234L), store.loadSiteInfo("../norwich pear tree"));
+        assertNull(store.loadSiteInfo("kingfisher"));
+    }
+
+
+    @Test
+    @DisplayName("A snapshot that cannot be read is treated as absent")
+    void corrupt(@TempDir final Path directory) throws IOException {
+        final SnapshotStore store = new SnapshotStore(directory);
+
+        store.saveOutages(OutageTable.of(List.of()), 1234L);
+        Files.write(directory.resolve("outages.snapshot"), new byte[]{'O', 'U', 'T', 'S', 0, 0});
+
+        assertNull(store.loadOutages());
+    }
+}
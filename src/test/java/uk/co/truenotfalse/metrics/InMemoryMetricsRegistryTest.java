@@ -0,0 +1,65 @@
+package uk.co.truenotfalse.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("InMemoryMetricsRegistry tests")
+class InMemoryMetricsRegistryTest {
+    @Test
+    @DisplayName("Counters are identified by name and labels, regardless of label order")
+    void countersByNameAndLabels() {
+        final MetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        registry.counter("requests_total", "endpoint", "OUTAGES", "status", "200").increment();
+        registry.counter("requests_total", "status", "200", "endpoint", "OUTAGES").increment(2L);
+        registry.counter("requests_total", "endpoint", "SITE_INFO", "status", "200").increment();
+
+        final MetricsSnapshot snapshot = registry.snapshot();
+
+        assertEquals(3L, snapshot.count("requests_total", "endpoint", "OUTAGES", "status", "200"));
+        assertEquals(1L, snapshot.count("requests_total", "endpoint", "SITE_INFO", "status", "200"));
+        assertEquals(0L, snapshot.count("requests_total", "endpoint", "SITE_OUTAGES", "status", "200"));
+        assertEquals(Map.of("endpoint", "OUTAGES", "status", "200"), snapshot.counters().get(0).labels());
+    }
+
+
+    @Test
+    @DisplayName("Histogram values are counted into the first bucket bounded at or above them")
+    void histogramBuckets() {
+        final MetricsRegistry registry = new InMemoryMetricsRegistry(1.0, 2.0);
+        final MetricsRegistry.Histogram histogram = registry.histogram("latency_seconds");
+
+        histogram.record(0.5);
+        histogram.record(1.0);
+        histogram.record(1.5);
+        histogram.record(3.0);
+
+        final MetricsSnapshot.HistogramSnapshot snapshot = registry.snapshot().histogram("latency_seconds");
+
+        assertArrayEquals(new long[]{2L, 1L, 1L}, snapshot.bucketCounts());
+        assertEquals(4L, snapshot.count());
+        assertEquals(6.0, snapshot.sum(), 1e-9);
+        assertEquals(1.0, snapshot.quantile(0.5), 1e-9);
+        assertNull(registry.snapshot().histogram("latency_seconds", "endpoint", "OUTAGES"));
+    }
+
+
+    @Test
+    @DisplayName("Invalid names, labels and bounds are rejected")
+    void invalidMetrics() {
+        final MetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("requests-total"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("requests_total", "endpoint"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("requests_total").increment(-1L));
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryMetricsRegistry(2.0, 1.0));
+    }
+}
@@ -0,0 +1,46 @@
+package uk.co.truenotfalse.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+@DisplayName("PrometheusTextFormat tests")
+class PrometheusTextFormatTest {
+    @Test
+    @DisplayName("Counters and histograms are written in the text exposition format")
+    void format() {
+        final MetricsRegistry registry = new InMemoryMetricsRegistry(0.1, 1.0);
+
+        registry.counter("retries_total", "endpoint", "OUTAGES").increment(2L);
+        registry.counter("retries_total", "endpoint", "SITE_INFO").increment();
+        registry.histogram("request_seconds", "status", "200").record(0.05);
+        registry.histogram("request_seconds", "status", "200").record(0.5);
+
+        assertEquals("""
+                        # TYPE retries_total counter
+                        retries_total{endpoint="OUTAGES"} 2
+                        retries_total{endpoint="SITE_INFO"} 1
+                        # TYPE request_seconds histogram
+                        request_seconds_bucket{status="200",le="0.1"} 1
+                        request_seconds_bucket{status="200",le="1.0"} 2
+                        request_seconds_bucket{status="200",le="+Inf"} 2
+                        request_seconds_sum{status="200"} 0.55
+                        request_seconds_count{status="200"} 2
+                        """,
+                PrometheusTextFormat.format(registry.snapshot()));
+    }
+
+
+    @Test
+    @DisplayName("Label values are escaped")
+    void escapedLabels() {
+        final MetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        registry.counter("updates_total", "site", "a \"quoted\\\" site\n").increment();
+
+        assertEquals("# TYPE updates_total counter\nupdates_total{site=\"a \\\"quoted\\\\\\\" site\\n\"} 1\n",
+                PrometheusTextFormat.format(registry.snapshot()));
+    }
+}
@@ -0,0 +1,112 @@
+package uk.co.truenotfalse.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DisplayName("OutageIntervalIndex tests")
+class OutageIntervalIndexTest {
+    @Test
+    @DisplayName("Outages beginning at or after a cutoff are found in order of beginning")
+    void beginningFrom() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OUTAGES);
+
+        assertEquals(List.of(SECOND, ONGOING, FOURTH), index.beginningFrom(at(2)));
+        assertEquals(List.of(FIRST, SECOND, ONGOING, FOURTH), index.beginningFrom(at(0)));
+        assertTrue(index.beginningFrom(at(10)).isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Outages beginning within a window are found")
+    void beginningWithin() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OUTAGES);
+
+        assertEquals(List.of(SECOND, ONGOING), index.beginningWithin(at(2), at(5)));
+        assertTrue(index.beginningWithin(at(5), at(2)).isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Outages overlapping a window are found, including ongoing outages")
+    void overlapping() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OUTAGES);
+
+        // FIRST ends as the window begins so does not overlap it.
+        assertEquals(List.of(SECOND, ONGOING), index.overlapping(at(3), at(4)));
+        assertEquals(List.of(FIRST), index.overlapping(at(1), at(2)));
+        assertEquals(List.of(ONGOING, FOURTH), index.overlapping(at(8), at(9)));
+        assertEquals(List.of(ONGOING), index.overlapping("device-b", at(8), at(9)));
+        assertTrue(index.overlapping("unknown", at(0), at(10)).isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Outages are grouped by device in their listed order")
+    void forDevices() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OUTAGES);
+
+        assertEquals(Set.of("device-a", "device-b"), index.getDeviceIds());
+        assertEquals(List.of(FOURTH, FIRST, SECOND), index.forDevice("device-a"));
+        assertEquals(OUTAGES, index.forDevices(List.of("device-b", "device-a", "unknown")));
+        assertTrue(index.forDevices(List.of()).isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Outages of devices beginning at or after a cutoff are found in their listed order")
+    void forDevicesBeginningFrom() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OUTAGES);
+
+        assertEquals(List.of(FOURTH, ONGOING, SECOND), index.forDevices(List.of("device-a", "device-b"), at(2)));
+        assertEquals(List.of(FOURTH), index.forDevices(List.of("device-a"), at(4)));
+        assertTrue(index.forDevices(List.of("device-b"), at(4)).isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("An index of the rows of a table finds the same outages as an index of the list")
+    void tableRows() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(OutageTable.of(OUTAGES));
+
+        assertEquals(OUTAGES.size(), index.size());
+        assertEquals(List.of(SECOND, ONGOING, FOURTH), index.beginningFrom(at(2)));
+        assertEquals(List.of(SECOND, ONGOING), index.overlapping(at(3), at(4)));
+        assertEquals(List.of(ONGOING), index.overlapping("device-b", at(8), at(9)));
+        assertEquals(List.of(FOURTH, ONGOING, SECOND), index.forDevices(List.of("device-a", "device-b"), at(2)));
+    }
+
+
+    @Test
+    @DisplayName("An empty index finds nothing")
+    void empty() {
+        final OutageIntervalIndex index = new OutageIntervalIndex(List.of());
+
+        assertEquals(0, index.size());
+        assertTrue(index.beginningFrom(at(0)).isEmpty());
+        assertTrue(index.overlapping(at(0), at(10)).isEmpty());
+    }
+
+
+    private static OffsetDateTime at(final int hour) {
+        return BASE.plusHours(hour);
+    }
+
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final DeviceOutage FIRST = new DeviceOutage("device-a", at(1), at(3));
+    private static final DeviceOutage SECOND = new DeviceOutage("device-a", at(2), at(5));
+    private static final DeviceOutage ONGOING = new DeviceOutage("device-b", at(3), null);
+    private static final DeviceOutage FOURTH = new DeviceOutage("device-a", at(8), at(9));
+
+    private static final List<DeviceOutage> OUTAGES = List.of(FOURTH, ONGOING, FIRST, SECOND);
+}
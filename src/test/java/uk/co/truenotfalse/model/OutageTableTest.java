@@ -0,0 +1,138 @@
+package uk.co.truenotfalse.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("OutageTable tests")
+class OutageTableTest {
+    @Test
+    @DisplayName("Outages are held to the millisecond with their offsets")
+    void roundTrip() {
+        final OffsetDateTime begin = OffsetDateTime.of(2022, 1, 1, 9, 30, 0, 123_000_000, ZoneOffset.ofHours(1));
+        final List<DeviceOutage> outages = List.of(new DeviceOutage("device-a", begin, begin.plusHours(1L)),
+                new DeviceOutage("device-b", begin, null), new DeviceOutage("device-a", begin.plusDays(1L), null));
+        final OutageTable table = OutageTable.of(outages);
+
+        assertEquals(3, table.size());
+        assertEquals(outages, table.toDeviceOutages());
+        assertEquals(begin, table.getBegin(0));
+        assertEquals(ZoneOffset.ofHours(1), table.getBegin(0).getOffset());
+        assertFalse(table.hasEnd(1));
+        assertNull(table.getEnd(1));
+        assertNull(table.getDeviceName(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getId(3));
+    }
+
+
+    @Test
+    @DisplayName("Outages beginning before a cutoff are excluded")
+    void beginningFrom() {
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-a", CUTOFF.minusNanos(1_000L), null),
+                new DeviceOutage("device-b", CUTOFF, null), new DeviceOutage("device-c", CUTOFF.plusMinutes(1L), null)));
+
+        assertEquals(List.of("device-b", "device-c"), ids(table.beginningFrom(CUTOFF)));
+        // A cutoff part way through a millisecond excludes outages beginning within that millisecond.
+        assertEquals(List.of("device-c"), ids(table.beginningFrom(CUTOFF.plusNanos(1L))));
+    }
+
+
+    @Test
+    @DisplayName("Tables holding the same outages are equal whatever the order of their dictionaries")
+    void equality() {
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-a", CUTOFF, null),
+                new DeviceOutage("device-b", CUTOFF, null)));
+        // Shares the dictionary of the whole table, in which device-b is second rather than first.
+        final OutageTable selected = table.rows(1, 2);
+
+        assertEquals(OutageTable.of(table.toDeviceOutages()), table);
+        assertEquals(OutageTable.of(table.toDeviceOutages()).hashCode(), table.hashCode());
+        assertEquals(OutageTable.of(List.of(new DeviceOutage("device-b", CUTOFF, null))), selected);
+        assertNotEquals(table.rows(0, 1), selected);
+        assertNotEquals(table, table.withDeviceNames(Map.of("device-a", "Battery 1", "device-b", "Battery 2")));
+    }
+
+
+    @Test
+    @DisplayName("A range of rows is selected in order")
+    void rows() {
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-a", CUTOFF, null),
+                new DeviceOutage("device-b", CUTOFF, null), new DeviceOutage("device-c", CUTOFF, null)));
+
+        assertEquals(List.of("device-b", "device-c"), ids(table.rows(1, 3)));
+        assertEquals(0, table.rows(3, 3).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.rows(2, 4));
+    }
+
+
+    @Test
+    @DisplayName("Names are attached to outages and outages of unnamed devices excluded")
+    void withDeviceNames() {
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-a", CUTOFF, null),
+                new DeviceOutage("device-b", CUTOFF, null), new DeviceOutage("device-a", CUTOFF.plusHours(1L), null)));
+
+        final OutageTable named = table.withDeviceNames(Map.of("device-a", "Battery 1", "device-c", "Battery 3"));
+
+        assertEquals(2, named.size());
+
+        for (final OutageTable.Row row : named) {
+            assertEquals("device-a", row.getId());
+            assertEquals("Battery 1", row.getDeviceName());
+        }
+
+        assertEquals("Battery 1", named.toDeviceOutages().get(1).getDeviceName());
+        assertNull(table.getDeviceName(0), "The original table was not expected to be named.");
+    }
+
+
+    @Test
+    @DisplayName("A table written in binary is read back the same")
+    void writeAndRead() throws IOException {
+        final OffsetDateTime begin = OffsetDateTime.of(2022, 1, 1, 9, 30, 0, 123_000_000, ZoneOffset.ofHours(1));
+        final OutageTable table = OutageTable.of(List.of(new DeviceOutage("device-a", begin, begin.plusHours(1L)),
+                        new DeviceOutage(42, begin, null), new DeviceOutage(7L, begin.plusDays(1L), null),
+                        new DeviceOutage("device-a", begin.plusDays(2L), null))).
+                withDeviceNames(Map.of("device-a", "Bätterie", 42, "Battery 42", 7L, "Battery 7"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        table.writeTo(new DataOutputStream(bytes));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        final OutageTable read = OutageTable.readFrom(buffer);
+
+        assertEquals(table.toDeviceOutages(), read.toDeviceOutages());
+        assertEquals(List.of("Bätterie", "Battery 42", "Battery 7", "Bätterie"),
+                read.toDeviceOutages().stream().map(DeviceOutage::getDeviceName).toList());
+        assertFalse(buffer.hasRemaining());
+        assertThrows(IllegalArgumentException.class,
+                () -> OutageTable.readFrom(ByteBuffer.wrap(bytes.toByteArray(), 0, bytes.size() - 1)));
+    }
+
+
+    private static List<Object> ids(final OutageTable table) {
+        final List<Object> ids = new ArrayList<>();
+
+        table.forEach(row -> ids.add(row.getId()));
+
+        return ids;
+    }
+
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+}
@@ -0,0 +1,72 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.truenotfalse.BulkheadFullException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DisplayName("Bulkhead tests")
+class BulkheadTest {
+    @Test
+    @DisplayName("Calls beyond the limit wait for a call in flight to finish")
+    void queuedCallsWait() {
+        final Bulkhead bulkhead = new Bulkhead(1, 1);
+        final SingleSubject<String> first = SingleSubject.create();
+        final SingleSubject<String> second = SingleSubject.create();
+        final TestObserver<String> firstObserver = bulkhead.apply(first).test();
+        final TestObserver<String> secondObserver = bulkhead.apply(second).test();
+
+        assertTrue(first.hasObservers());
+        assertFalse(second.hasObservers());
+        assertEquals(1, bulkhead.getQueuedCalls());
+
+        first.onSuccess("first");
+        firstObserver.assertValue("first");
+        assertTrue(second.hasObservers());
+
+        second.onSuccess("second");
+        secondObserver.assertValue("second");
+        assertEquals(0, bulkhead.getConcurrentCalls());
+    }
+
+
+    @Test
+    @DisplayName("Calls are refused once the queue is full")
+    void fullQueueRefused() {
+        final Bulkhead bulkhead = new Bulkhead(1, 1);
+
+        bulkhead.apply(SingleSubject.<String>create()).test();
+        bulkhead.apply(SingleSubject.<String>create()).test();
+        bulkhead.apply(SingleSubject.<String>create()).test().assertError(BulkheadFullException.class);
+    }
+
+
+    @Test
+    @DisplayName("Disposing of a call, queued or in flight, frees its place")
+    void disposalFreesPlace() {
+        final Bulkhead bulkhead = new Bulkhead(1, 1);
+        final TestObserver<String> inFlight = bulkhead.apply(SingleSubject.<String>create()).test();
+        final TestObserver<String> queued = bulkhead.apply(SingleSubject.<String>create()).test();
+
+        queued.dispose();
+        assertEquals(0, bulkhead.getQueuedCalls());
+
+        inFlight.dispose();
+        assertEquals(0, bulkhead.getConcurrentCalls());
+    }
+
+
+    @Test
+    @DisplayName("Invalid limits are rejected")
+    void invalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(1, -1));
+    }
+}
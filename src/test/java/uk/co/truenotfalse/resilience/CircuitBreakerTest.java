@@ -0,0 +1,142 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.truenotfalse.CircuitOpenException;
+import uk.co.truenotfalse.NotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("CircuitBreaker tests")
+class CircuitBreakerTest {
+    @Test
+    @DisplayName("The circuit opens once the failure rate reaches its threshold and calls then fail fast")
+    void opensOnFailures() {
+        final TestScheduler scheduler = new TestScheduler();
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", scheduler).setMinimumCalls(4);
+        final AtomicInteger calls = new AtomicInteger();
+
+        circuitBreaker.apply(succeeding(calls)).test().assertValue("OK");
+        circuitBreaker.apply(succeeding(calls)).test().assertValue("OK");
+        circuitBreaker.apply(failing(calls, new RuntimeException())).test().assertError(RuntimeException.class);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.apply(failing(calls, new RuntimeException())).test().assertError(RuntimeException.class);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        circuitBreaker.apply(succeeding(calls)).test().assertError(CircuitOpenException.class);
+        assertEquals(4, calls.get());
+    }
+
+
+    @Test
+    @DisplayName("Errors that are the caller's fault are not recorded as failures")
+    void callerErrorsNotRecorded() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", new TestScheduler()).setMinimumCalls(2);
+
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.apply(failing(new AtomicInteger(), new NotFoundException("Not Found"))).test().
+                    assertError(NotFoundException.class);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+
+    @Test
+    @DisplayName("The circuit opens once the slow call rate reaches its threshold")
+    void opensOnSlowCalls() {
+        final TestScheduler scheduler = new TestScheduler();
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", scheduler).setMinimumCalls(2).
+                setSlowCallDuration(Duration.ofSeconds(1L));
+
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.apply(Single.timer(2L, TimeUnit.SECONDS, scheduler)).test();
+        }
+
+        scheduler.advanceTimeBy(2L, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+
+    @Test
+    @DisplayName("Once open for its open duration the circuit closes again after successful trial calls")
+    void halfOpenTrialsClose() {
+        final TestScheduler scheduler = new TestScheduler();
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", scheduler).setMinimumCalls(1).
+                setHalfOpenCalls(2);
+        final AtomicInteger calls = new AtomicInteger();
+
+        circuitBreaker.apply(failing(calls, new RuntimeException())).test();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        scheduler.advanceTimeBy(30L, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.apply(succeeding(calls)).test().assertValue("OK");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.apply(succeeding(calls)).test().assertValue("OK");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+
+    @Test
+    @DisplayName("A failed trial call opens the circuit again and trial calls are limited")
+    void halfOpenTrialFailureOpens() {
+        final TestScheduler scheduler = new TestScheduler();
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", scheduler).setMinimumCalls(1).
+                setHalfOpenCalls(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        circuitBreaker.apply(failing(calls, new RuntimeException())).test();
+        scheduler.advanceTimeBy(30L, TimeUnit.SECONDS);
+
+        final TestObserver<Object> trial = circuitBreaker.apply(Single.never()).test();
+
+        circuitBreaker.apply(succeeding(calls)).test().assertError(CircuitOpenException.class);
+
+        trial.dispose();
+        circuitBreaker.apply(failing(calls, new RuntimeException())).test().assertError(RuntimeException.class);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+
+    @Test
+    @DisplayName("Invalid settings are rejected")
+    void invalidConfiguration() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("test", new TestScheduler());
+
+        assertThrows(IllegalArgumentException.class, () -> circuitBreaker.setWindowSize(0));
+        assertThrows(IllegalArgumentException.class, () -> circuitBreaker.setFailureRateThreshold(1.5));
+        assertThrows(IllegalArgumentException.class, () -> circuitBreaker.setSlowCallDuration(Duration.ZERO));
+    }
+
+
+    private static Single<String> succeeding(final AtomicInteger calls) {
+        return Single.fromCallable(() ->
+        {
+            calls.incrementAndGet();
+
+            return "OK";
+        });
+    }
+
+
+    private static Single<String> failing(final AtomicInteger calls, final RuntimeException error) {
+        return Single.fromCallable(() ->
+        {
+            calls.incrementAndGet();
+
+            throw error;
+        });
+    }
+}
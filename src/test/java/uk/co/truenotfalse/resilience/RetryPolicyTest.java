@@ -0,0 +1,182 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DisplayName("RetryPolicy tests")
+class RetryPolicyTest {
+    @Test
+    @DisplayName("Failures are retried with exponentially increasing delays")
+    void exponentialRetries() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler).setJitter(RetryPolicy.Jitter.NONE);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestObserver<String> observer = policy.apply(failingCall(calls, 3, new RuntimeException())).test();
+
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(999L, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(1L, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+        scheduler.advanceTimeBy(2L, TimeUnit.SECONDS);
+        assertEquals(3, calls.get());
+        observer.assertNotComplete();
+        scheduler.advanceTimeBy(4L, TimeUnit.SECONDS);
+        assertEquals(4, calls.get());
+        observer.assertValue("OK");
+    }
+
+
+    @Test
+    @DisplayName("Calls fail once the retries are exhausted")
+    void retriesExhausted() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler).setMaxRetries(2);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestObserver<String> observer = policy.apply(failingCall(calls, 5, new RuntimeException())).test();
+
+        scheduler.advanceTimeBy(1L, TimeUnit.MINUTES);
+        assertEquals(3, calls.get());
+        observer.assertError(RuntimeException.class);
+    }
+
+
+    @Test
+    @DisplayName("Errors that retrying cannot change fail immediately")
+    void nonRetryableErrors() {
+        final RetryPolicy policy = new RetryPolicy(new TestScheduler());
+        final AtomicInteger calls = new AtomicInteger();
+
+        policy.apply(failingCall(calls, 1, new NotFoundException("Not Found"))).test().
+                assertError(NotFoundException.class);
+        assertEquals(1, calls.get());
+
+        assertFalse(policy.isRetryable(new IllegalArgumentException()));
+        assertFalse(policy.isRetryable(new SecurityException()));
+        assertTrue(policy.isRetryable(new RuntimeException()));
+        assertTrue(policy.setRetryable(NotFoundException.class, true).isRetryable(new NotFoundException("Not Found")));
+    }
+
+
+    @Test
+    @DisplayName("A retry is delayed for at least the period asked for by the server")
+    void retryAfterHonoured() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler).setJitter(RetryPolicy.Jitter.NONE);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestObserver<String> observer = policy.apply(failingCall(calls, 1,
+                new TooManyRequestsException("Too Many Requests", Duration.ofSeconds(5L)))).test();
+
+        scheduler.advanceTimeBy(4999L, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(1L, TimeUnit.MILLISECONDS);
+        observer.assertValue("OK");
+    }
+
+
+    @Test
+    @DisplayName("Retries are not made once the budget is spent")
+    void budgetLimitsRetries() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler).setJitter(RetryPolicy.Jitter.NONE).
+                setBudget(new RetryBudget(0.0, 0.1, scheduler));
+        final AtomicInteger calls = new AtomicInteger();
+        final TestObserver<String> observer = policy.apply(failingCall(calls, 5, new RuntimeException())).test();
+
+        scheduler.advanceTimeBy(1L, TimeUnit.MINUTES);
+        assertEquals(2, calls.get());
+        observer.assertError(RuntimeException.class);
+    }
+
+
+    @Test
+    @DisplayName("Calls time out at the deadline and retries that could not begin before it are not made")
+    void deadlineLimitsCalls() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler).setJitter(RetryPolicy.Jitter.NONE).
+                setDeadline(Duration.ofMillis(2500L));
+        final AtomicInteger calls = new AtomicInteger();
+        final TestObserver<String> failed = policy.apply(failingCall(calls, 5, new RuntimeException())).test();
+
+        scheduler.advanceTimeBy(1L, TimeUnit.MINUTES);
+        assertEquals(2, calls.get());
+        failed.assertError(RuntimeException.class);
+
+        final TestObserver<String> timedOut = policy.apply(Single.<String>never()).test();
+
+        scheduler.advanceTimeBy(2500L, TimeUnit.MILLISECONDS);
+        timedOut.assertError(TimeoutException.class);
+    }
+
+
+    @Test
+    @DisplayName("Streams are only retried before their first item")
+    void streamsRetriedBeforeFirstItem() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RetryPolicy policy = new RetryPolicy(scheduler);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestSubscriber<String> subscriber = policy.apply(Flowable.defer(() ->
+        {
+            calls.incrementAndGet();
+
+            return Flowable.concat(Flowable.just("first"), Flowable.error(new RuntimeException()));
+        })).test();
+
+        scheduler.advanceTimeBy(1L, TimeUnit.MINUTES);
+        assertEquals(1, calls.get());
+        subscriber.assertValue("first").assertError(RuntimeException.class);
+    }
+
+
+    @Test
+    @DisplayName("Jittered delays stay within their bounds")
+    void jitterBounds() {
+        final RetryPolicy full = new RetryPolicy(new TestScheduler()).setJitter(RetryPolicy.Jitter.FULL);
+        final RetryPolicy decorrelated = new RetryPolicy(new TestScheduler()).setJitter(RetryPolicy.Jitter.DECORRELATED);
+
+        for (int i = 0; i < 1000; i++) {
+            final long fullDelay = full.delayMillis(3, 0L);
+            final long decorrelatedDelay = decorrelated.delayMillis(3, 2000L);
+
+            assertTrue(fullDelay >= 0L && fullDelay <= 4000L, "Full jitter out of bounds: " + fullDelay);
+            assertTrue(decorrelatedDelay >= 1000L && decorrelatedDelay <= 6000L,
+                    "Decorrelated jitter out of bounds: " + decorrelatedDelay);
+            assertTrue(decorrelated.delayMillis(3, 60000L) <= 30000L);
+        }
+    }
+
+
+    @Test
+    @DisplayName("Invalid settings are rejected")
+    void invalidConfiguration() {
+        final RetryPolicy policy = new RetryPolicy(new TestScheduler());
+
+        assertThrows(IllegalArgumentException.class, () -> policy.setMaxRetries(-1));
+        assertThrows(IllegalArgumentException.class, () -> policy.setMultiplier(0.5));
+        assertThrows(IllegalArgumentException.class, () -> policy.setDeadline(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(-0.1, 1.0));
+    }
+
+
+    private static Single<String> failingCall(final AtomicInteger calls, final int failures, final Throwable error) {
+        return Single.defer(() -> calls.incrementAndGet() <= failures ? Single.error(error) : Single.just("OK"));
+    }
+}
@@ -0,0 +1,75 @@
+package uk.co.truenotfalse.resilience;
+
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("TokenBucketRateLimiter tests")
+class TokenBucketRateLimiterTest {
+    @Test
+    @DisplayName("Requests up to the burst size are permitted immediately")
+    void burstPermittedImmediately() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RateLimiter rateLimiter = new TokenBucketRateLimiter(10.0, 3, scheduler);
+
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire().test().assertComplete();
+        }
+    }
+
+
+    @Test
+    @DisplayName("Requests beyond the burst size are delayed at the steady rate")
+    void beyondBurstDelayed() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RateLimiter rateLimiter = new TokenBucketRateLimiter(10.0, 1, scheduler);
+
+        rateLimiter.acquire().test().assertComplete();
+
+        final TestObserver<Void> second = rateLimiter.acquire().test();
+        final TestObserver<Void> third = rateLimiter.acquire().test();
+
+        second.assertNotComplete();
+        third.assertNotComplete();
+
+        scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS);
+        second.assertComplete();
+        third.assertNotComplete();
+
+        scheduler.advanceTimeBy(100L, TimeUnit.MILLISECONDS);
+        third.assertComplete();
+    }
+
+
+    @Test
+    @DisplayName("No requests are permitted while paused")
+    void pauseWithholdsPermits() {
+        final TestScheduler scheduler = new TestScheduler();
+        final RateLimiter rateLimiter = new TokenBucketRateLimiter(10.0, 5, scheduler);
+
+        rateLimiter.pause(Duration.ofSeconds(2L));
+
+        final TestObserver<Void> paused = rateLimiter.acquire().test();
+
+        scheduler.advanceTimeBy(1999L, TimeUnit.MILLISECONDS);
+        paused.assertNotComplete();
+
+        scheduler.advanceTimeBy(101L, TimeUnit.MILLISECONDS);
+        paused.assertComplete();
+    }
+
+
+    @Test
+    @DisplayName("A rate and burst are required")
+    void invalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0.0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(1.0, 0));
+    }
+}
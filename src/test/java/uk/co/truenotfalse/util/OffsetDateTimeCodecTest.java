@@ -0,0 +1,77 @@
+package uk.co.truenotfalse.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@DisplayName("OffsetDateTimeCodec tests")
+class OffsetDateTimeCodecTest {
+    @Test
+    @DisplayName("Date-times are parsed and formatted as by the formatter")
+    void matchesFormatter() {
+        final Random random = new Random(1L);
+        final List<ZoneOffset> offsets = List.of(ZoneOffset.UTC, ZoneOffset.ofHours(1), ZoneOffset.ofHoursMinutes(-9, -30),
+                ZoneOffset.ofHoursMinutesSeconds(5, 45, 30), ZoneOffset.MAX, ZoneOffset.MIN);
+
+        for (int i = 0; i < 10_000; i++) {
+            final OffsetDateTime dateTime =
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(random.nextLong() % 200_000_000_000_000L),
+                            offsets.get(random.nextInt(offsets.size())));
+            final String expected = OffsetDateTimeCodec.ISO_OFFSET_DATE_TIME.format(dateTime);
+            final StringBuilder fromMillis = new StringBuilder();
+
+            OffsetDateTimeCodec.formatTo(dateTime.toInstant().toEpochMilli(), dateTime.getOffset().getTotalSeconds(),
+                    fromMillis);
+
+            assertEquals(expected, OffsetDateTimeCodec.format(dateTime));
+            assertEquals(expected, fromMillis.toString());
+            assertEquals(OffsetDateTime.parse(expected, OffsetDateTimeCodec.ISO_OFFSET_DATE_TIME),
+                    OffsetDateTimeCodec.parse(expected));
+            assertEquals(dateTime.toInstant().toEpochMilli(), OffsetDateTimeCodec.parseEpochMillis(expected));
+            assertEquals(dateTime.getOffset().getTotalSeconds(), OffsetDateTimeCodec.parseOffsetSeconds(expected));
+        }
+    }
+
+
+    @Test
+    @DisplayName("Three decimal places of seconds are always formatted")
+    void threeDecimalPlaces() {
+        assertEquals("2022-01-01T00:00:00.000Z",
+                OffsetDateTimeCodec.format(OffsetDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)));
+        assertEquals("2022-06-30T23:59:59.999+01:00",
+                OffsetDateTimeCodec.format(OffsetDateTime.of(2022, 6, 30, 23, 59, 59, 999_999_999, ZoneOffset.ofHours(1))));
+    }
+
+
+    @Test
+    @DisplayName("Date-times of other shapes are parsed by the formatter")
+    void otherShapes() {
+        final OffsetDateTime expected = OffsetDateTime.of(2022, 1, 1, 9, 30, 0, 0, ZoneOffset.UTC);
+
+        assertEquals(expected, OffsetDateTimeCodec.parse("2022-01-01T09:30Z"));
+        assertEquals(expected, OffsetDateTimeCodec.parse("2022-01-01t09:30:00.000z"));
+        assertEquals(expected.toInstant().toEpochMilli(), OffsetDateTimeCodec.parseEpochMillis("2022-01-01T09:30:00Z"));
+    }
+
+
+    @Test
+    @DisplayName("Invalid date-times are rejected")
+    void invalid() {
+        for (final String invalid : List.of("2022-02-29T00:00:00.000Z", "2022-13-01T00:00:00.000Z",
+                "2022-01-01T24:00:00.000Z", "2022-01-01T00:60:00.000Z", "2022-01-01T00:00:00.000+01:60",
+                "2022-01-01T00:00:00.000+19:00", "2022-01-01T00:00:00.00Z", "not a date-time")) {
+            assertThrows(DateTimeParseException.class, () -> OffsetDateTimeCodec.parse(invalid), invalid);
+            assertThrows(DateTimeParseException.class, () -> OffsetDateTimeCodec.parseEpochMillis(invalid), invalid);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package uk.co.truenotfalse.util;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DisplayName("SingleFlight tests")
+class SingleFlightTest {
+    @Test
+    @DisplayName("Concurrent calls for the same key share a single call")
+    void concurrentCallsShared() {
+        final SingleFlight<String, String> flights = new SingleFlight<>();
+        final SingleSubject<String> response = SingleSubject.create();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final TestObserver<String> first = flights.execute("key", () -> countedCall(calls, response)).test();
+        final TestObserver<String> second = flights.execute("key", () -> countedCall(calls, response)).test();
+        final TestObserver<String> other = flights.execute("other", () -> countedCall(calls, Single.just("other"))).test();
+
+        response.onSuccess("value");
+
+        first.assertValue("value");
+        second.assertValue("value");
+        other.assertValue("other");
+        assertEquals(2, calls.get(), "One call per key was expected.");
+        assertEquals(0, flights.size(), "No calls were expected to remain in flight.");
+    }
+
+
+    @Test
+    @DisplayName("An error is given to every subscriber and the next subscriber makes a fresh call")
+    void errorShared() {
+        final SingleFlight<String, String> flights = new SingleFlight<>();
+        final SingleSubject<String> response = SingleSubject.create();
+        final AtomicInteger calls = new AtomicInteger();
+        final RuntimeException error = new RuntimeException("bang");
+
+        final TestObserver<String> first = flights.execute("key", () -> countedCall(calls, response)).test();
+        final TestObserver<String> second = flights.execute("key", () -> countedCall(calls, response)).test();
+
+        response.onError(error);
+
+        first.assertError(error);
+        second.assertError(error);
+
+        flights.execute("key", () -> countedCall(calls, Single.just("value"))).test().assertValue("value");
+        assertEquals(2, calls.get(), "A fresh call was expected after the error.");
+    }
+
+
+    @Test
+    @DisplayName("A call is only cancelled once every subscriber has disposed")
+    void cancelledWhenAllDisposed() {
+        final SingleFlight<String, String> flights = new SingleFlight<>();
+        final SingleSubject<String> response = SingleSubject.create();
+
+        final TestObserver<String> first = flights.execute("key", () -> response).test();
+        final TestObserver<String> second = flights.execute("key", () -> response).test();
+
+        first.dispose();
+        assertTrue(response.hasObservers(), "The call was not expected to be cancelled while subscribed to.");
+
+        second.dispose();
+        assertFalse(response.hasObservers(), "The call was expected to be cancelled.");
+        assertEquals(0, flights.size(), "No calls were expected to remain in flight.");
+    }
+
+
+    private static Single<String> countedCall(final AtomicInteger calls, final Single<String> response) {
+        calls.incrementAndGet();
+
+        return response;
+    }
+}
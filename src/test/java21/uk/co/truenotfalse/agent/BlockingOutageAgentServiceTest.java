@@ -0,0 +1,84 @@
+package uk.co.truenotfalse.agent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.dao.BlockingInterviewTestsMockApiDao;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BlockingOutageAgentService tests")
+class BlockingOutageAgentServiceTest {
+    private final String siteId = "norwich-pear-tree";
+    private final Map<Object, String> deviceInfo = Map.of("2bf65c61-4452-409d-b416-c58dbd2d7bda", "Device 2",
+            "5e44374c-ebf9-45c6-82c4-7bd2ae5c3c2e", "Device 3");
+    private final OffsetDateTime cutoff = OffsetDateTime.parse("2022-01-01T00:00:00.000Z", ISO_OFFSET_DATE_TIME);
+    private final OffsetDateTime now = OffsetDateTime.now();
+    private final List<DeviceOutage> outages = List.of(
+            new DeviceOutage("2bf65c61-4452-409d-b416-c58dbd2d7bda", cutoff, now),
+            new DeviceOutage("5e44374c-ebf9-45c6-82c4-7bd2ae5c3c2e", cutoff.minusDays(1L), now),
+            new DeviceOutage("b220b24a-0052-4a1d-9f61-a184950ef060", now.minusDays(1L), null)
+    );
+
+
+    @Test
+    @DisplayName("A site is updated with the named outages of its devices from the cutoff")
+    void updateOutages(@Mock final BlockingInterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.fetchOutageTable(cutoff)).thenReturn(OutageTable.of(outages));
+        Mockito.when(apiDao.fetchSiteInfo(eq(siteId))).thenReturn(deviceInfo);
+
+        new BlockingOutageAgentService(apiDao).updateOutages(siteId, cutoff);
+
+        final ArgumentCaptor<List<DeviceOutage>> updates = ArgumentCaptor.forClass(List.class);
+
+        Mockito.verify(apiDao).sendSiteOutages(eq(siteId), updates.capture());
+        assertEquals(1, updates.getValue().size(), "Only the one outage from the cutoff of a known device was expected.");
+        assertEquals("Device 2", updates.getValue().get(0).getDeviceName(), "Unexpected device name.");
+    }
+
+
+    @Test
+    @DisplayName("A batch update fetches the outages once and updates every site")
+    void updateOutagesBatch(@Mock final BlockingInterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.fetchOutageTable(cutoff)).thenReturn(OutageTable.of(outages));
+        Mockito.when(apiDao.fetchSiteInfo(anyString())).thenReturn(deviceInfo);
+
+        new BlockingOutageAgentService(apiDao).updateOutages(List.of(siteId, "kingfisher", siteId), cutoff, 2);
+
+        Mockito.verify(apiDao).fetchOutageTable(cutoff);
+        Mockito.verify(apiDao).sendSiteOutages(eq(siteId), anyList());
+        Mockito.verify(apiDao).sendSiteOutages(eq("kingfisher"), anyList());
+    }
+
+
+    @Test
+    @DisplayName("A failure to update one site in a batch does not prevent the other sites being updated")
+    void updateOutagesBatchPartialFailure(@Mock final BlockingInterviewTestsMockApiDao apiDao) {
+        Mockito.when(apiDao.fetchOutageTable(cutoff)).thenReturn(OutageTable.of(outages));
+        Mockito.when(apiDao.fetchSiteInfo(eq(siteId))).thenReturn(deviceInfo);
+        Mockito.when(apiDao.fetchSiteInfo(eq("no-such-site"))).thenThrow(new NotFoundException("Site not found"));
+
+        final BlockingOutageAgentService agent = new BlockingOutageAgentService(apiDao);
+
+        assertThrows(NotFoundException.class,
+                () -> agent.updateOutages(List.of("no-such-site", siteId), cutoff, 1));
+        Mockito.verify(apiDao).sendSiteOutages(eq(siteId), anyList());
+    }
+}
@@ -0,0 +1,99 @@
+package uk.co.truenotfalse.dao.impl;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import uk.co.truenotfalse.NotFoundException;
+import uk.co.truenotfalse.model.DeviceOutage;
+import uk.co.truenotfalse.model.OutageTable;
+
+import java.net.http.HttpClient;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DisplayName("HttpClientInterviewTestsMockApiDao tests")
+class HttpClientInterviewTestsMockApiDaoTest {
+    @RegisterExtension
+    static WireMockExtension wireMock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+    private final String siteId = "norwich-pear-tree";
+    private final OffsetDateTime begin = OffsetDateTime.parse("2022-01-01T00:00:00.000Z", ISO_OFFSET_DATE_TIME);
+
+    private HttpClientInterviewTestsMockApiDao dao;
+
+
+    @BeforeEach
+    void setUp() {
+        dao = new HttpClientInterviewTestsMockApiDao(API_KEY, wireMock.getRuntimeInfo().getHttpBaseUrl() + BASE_PATH,
+                HttpClient.newHttpClient());
+
+        wireMock.stubFor(get(urlEqualTo(BASE_PATH + "/outages")).withHeader("x-api-key", equalTo(API_KEY)).
+                willReturn(okJson("[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\"," +
+                        "\"begin\":\"2022-01-01T00:00:00.000Z\",\"end\":\"2022-01-02T00:00:00.000Z\"}]")));
+        wireMock.stubFor(get(urlEqualTo(BASE_PATH + "/site-info/" + siteId)).
+                willReturn(okJson("{\"id\":\"norwich-pear-tree\",\"name\":\"Norwich Pear Tree\",\"devices\":" +
+                        "[{\"id\":\"002b28fc-283c-47ec-9af2-ea287336dc1b\",\"name\":\"Battery 1\"}]}")));
+        wireMock.stubFor(get(urlEqualTo(BASE_PATH + "/site-info/no-such-site")).
+                willReturn(aResponse().withStatus(404).withHeader("Content-Type", "application/json").
+                        withBody("{\"message\":\"Site not found\"}")));
+        wireMock.stubFor(post(urlEqualTo(BASE_PATH + "/site-outages/" + siteId)).willReturn(ok()));
+    }
+
+
+    @Test
+    @DisplayName("The outages are fetched as a table")
+    void fetchOutageTable() {
+        final OutageTable outages = dao.fetchOutageTable();
+
+        assertEquals(1, outages.size(), "Unexpected number of outages.");
+        assertEquals("002b28fc-283c-47ec-9af2-ea287336dc1b", outages.getId(0), "Unexpected outage ID.");
+        assertEquals(begin, outages.getBegin(0), "Unexpected outage beginning.");
+    }
+
+
+    @Test
+    @DisplayName("Site info is requested on a virtual thread when fetched asynchronously")
+    void getSiteInfo() {
+        final Map<Object, String> siteInfo =
+                dao.getSiteInfo(siteId).doOnSuccess(info -> assertTrue(Thread.currentThread().isVirtual(),
+                        "The site info was expected to be fetched on a virtual thread.")).blockingGet();
+
+        assertEquals(Map.of("002b28fc-283c-47ec-9af2-ea287336dc1b", "Battery 1"), siteInfo,
+                "Unexpected site info.");
+    }
+
+
+    @Test
+    @DisplayName("A request for an unknown site fails as not found")
+    void fetchSiteInfoNotFound() {
+        assertThrows(NotFoundException.class, () -> dao.fetchSiteInfo("no-such-site"));
+    }
+
+
+    @Test
+    @DisplayName("Site outages are posted as the Vert.x implementation posts them")
+    void sendSiteOutages() {
+        final List<DeviceOutage> outages =
+                List.of(new DeviceOutage("002b28fc-283c-47ec-9af2-ea287336dc1b", begin, begin.plusDays(1L),
+                        "Battery 1"));
+
+        dao.sendSiteOutages(siteId, outages);
+
+        wireMock.verify(postRequestedFor(urlEqualTo(BASE_PATH + "/site-outages/" + siteId)).
+                withHeader("Content-Type", equalTo("application/json")).
+                withRequestBody(equalToJson(SiteOutagesJsonWriter.write(outages).toString())));
+    }
+
+
+    private static final String API_KEY = "mock_api_key";
+    private static final String BASE_PATH = "/interview-tests-mock-api/v1";
+}